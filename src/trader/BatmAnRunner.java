@@ -1,11 +1,17 @@
 package trader;
 
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import trader.controller.GuiController;
 import trader.controller.TraderController;
 import trader.model.IRetrievableStrategyTraderModel;
+import trader.model.StrategyScheduler;
 import trader.model.StrategyStockTraderModel;
+import trader.model.StrategyStockTraderOperationBuilder;
 import trader.view.GuiView;
 import trader.view.ITraderView;
 import trader.view.TraderJFrameGuiView;
@@ -15,26 +21,55 @@ import trader.view.TraderViewImplement;
  * Console runner.
  */
 public class BatmAnRunner {
+  private static final long schedulerPeriodMinutes = 60;
+  private static final String lazyRetrievalOption = "-lazy";
+  private static final String scheduleOption = "-schedule";
+
   /**
    * Main.
    * @param args args.
    */
   public static void main(String[] args) {
+    List<String> runArgs = new ArrayList<>(Arrays.asList(args));
+    boolean lazyRetrieval = runArgs.remove(lazyRetrievalOption);
+    boolean schedule = runArgs.remove(scheduleOption);
     String userArg = "console";
-    if (args.length >= 2) {
-      userArg = args[1];
+    if (runArgs.size() >= 2) {
+      userArg = runArgs.get(1);
+    }
+    StrategyStockTraderOperationBuilder builder = StrategyStockTraderModel.getBuilder()
+            .lazyRetrieval(lazyRetrieval);
+    if (runArgs.size() >= 3) {
+      builder.journal(runArgs.get(2));
+    } else if (schedule) {
+      System.err.println(ErrorMsg.SCHEDULER_WITHOUT_JOURNAL.getMsg());
+      return;
     }
     if (userArg.equals("console")) {
-      IRetrievableStrategyTraderModel model = StrategyStockTraderModel.getBuilder().build();
+      IRetrievableStrategyTraderModel model = builder.build();
+      startScheduler(model, schedule);
       ITraderView view = new TraderViewImplement(new InputStreamReader(System.in), System.out);
       TraderController tc = new TraderController(view, model);
       tc.play();
     }
     else if (userArg.equals("gui")) {
-      IRetrievableStrategyTraderModel model = StrategyStockTraderModel.getBuilder().build();
+      IRetrievableStrategyTraderModel model = builder.build();
+      startScheduler(model, schedule);
       GuiController controller = new GuiController(model);
       GuiView view = new TraderJFrameGuiView("Welcome", controller);
       controller.setView(view);
     }
   }
+
+  /**
+   * private helper to start applying the due strategies of the model in the background,
+   * reporting failures to the standard error, if scheduling was asked for.
+   * @param model model whose strategies to apply.
+   * @param schedule whether to schedule the strategies.
+   */
+  private static void startScheduler(IRetrievableStrategyTraderModel model, boolean schedule) {
+    if (schedule) {
+      new StrategyScheduler(model, schedulerPeriodMinutes, TimeUnit.MINUTES, System.err).start();
+    }
+  }
 }
@@ -6,6 +6,7 @@ public enum ErrorMsg {
   EMPTY_INPUT("Invalid Input: EMPTY."),
   INVALID_TYPE_INPUT("Invalid Input: type incompatible."),
   INVALID_PRICE_AMOUNT_NEGATIVE("Invalid Price Amount: negative amount is unacceptable."),
+  INVALID_PRICE_AMOUNT_OVERFLOW("Invalid Price Amount: amount out of range."),
   INVALID_NEGATIVE_SHARE("Invalid Negative Share: negative share is unacceptable."),
   FAIL_TIME_STAMP_INIT_INVALID_DATETIME("Failed TimeStamp init: invalid date or time."),
   FAIL_CRAW_DATA_API_NOT_WORKING("Failed Get Stock Data: alpha vantage api no longer working."),
@@ -30,10 +31,20 @@ public enum ErrorMsg {
   INVALID_STRATEGY_FREQUENCY_TYPE("Failed Execute Investment Strategy: invalid frequency type."),
   INVALID_WEIGHTED_STRATEGY_WEIGHT_MAP("Failed Execute Weighted Strategy: invalid weighted map."),
   INVALID_FREQUENCY_FORMAT("Invalid frequency format: format of frequency is invalid."),
+  INVALID_FREQUENCY_NON_POSITIVE("Invalid frequency: frequency must be positive."),
+  INVALID_TIME_RANGE("Invalid time range: start time is after end time."),
   FAILED_WRITE_STRATEGY("Failed write Strategy to file."),
   FAILED_WRITE_PORTFOLIO("Failed write Portfolio to file."),
   FAILED_LOAD_PORTFOLIO("Failed load Portfolio from file."),
   FAILED_LOAD_STRATEGY_INVALID_MAP_STR("Failed load Strategy from file: wrong map string format."),
+  FAILED_OPEN_JOURNAL("Failed open account journal."),
+  FAILED_WRITE_JOURNAL("Failed write account journal."),
+  INVALID_JOURNAL_BUY_OVERFLOW("Invalid journal buy: shares or date out of range."),
+  REJECTED_JOURNAL_RECORDS("Account journal records failed to replay and were moved:"),
+  FAILED_WRITE_SNAPSHOT("Failed write snapshot to file."),
+  FAILED_LOAD_SNAPSHOT("Failed load snapshot from file: corrupted or unknown format."),
+  INVALID_SCHEDULER_PERIOD("Invalid scheduler period: period must be positive."),
+  SCHEDULER_WITHOUT_JOURNAL("Scheduling strategies needs an account journal to resume them."),
 
   //Controller ErrorMsgs
   CONTROLLER_ADD_EQUITY("Add Stock fails"),
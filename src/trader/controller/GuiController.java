@@ -2,9 +2,13 @@ package trader.controller;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import trader.model.IRetrievableStrategyTraderModel;
 import trader.view.FieldName;
@@ -31,10 +35,13 @@ import trader.view.subframe.ViewPortfolioView;
 import trader.view.subframe.WeightedStrategyView;
 
 /**
- * GuiController class.
+ * GuiController class. Model calls run off the event dispatch thread, one at a time in the
+ * order they were made, since they can wait for stock data, and for up to a minute for an api
+ * key from the ApiKeyScheduler.
  */
 public class GuiController implements ITraderController {
   private IRetrievableStrategyTraderModel model;
+  private final ExecutorService modelExecutor;
   private GuiView view;
   private GuiView buyStockWithCommissionView;
   private GuiView buyStockNoCommissionView;
@@ -55,7 +62,6 @@ public class GuiController implements ITraderController {
   private GuiView evaluateAccountView;
   private GuiView fail;
   private GuiView askWeightedOptionView;
-  private Map<String, String> stocks = new HashMap<>();
   private boolean isEquallyWeight;
   private int sizeOfStocks;
 
@@ -66,6 +72,11 @@ public class GuiController implements ITraderController {
    */
   public GuiController(IRetrievableStrategyTraderModel m) {
     this.model = m;
+    this.modelExecutor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "gui-model");
+      thread.setDaemon(true);
+      return thread;
+    });
   }
 
   /**
@@ -338,80 +349,59 @@ public class GuiController implements ITraderController {
     buttonClickMap.put(FieldName.BUY_STOCK_WITH_COMMISSION_SUBMIT.getMsg(), () -> {
       String text = buyStockWithCommissionView.getInputString();
       String[] parseText = text.split("\n");
-      try {
+      callModel(() -> {
         model.buyEquityWithCommission(parseText[1], parseText[3], parseText[2], parseText[4],
                 parseText[0]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // buy stock no commission submit
     buttonClickMap.put(FieldName.BUY_STOCK_WITH_NO_COMMISSION_SUBMIT.getMsg(), () -> {
       String text = buyStockNoCommissionView.getInputString();
       String[] parseText = text.split("\n");
-      try {
+      callModel(() -> {
         model.buyEquity(parseText[0], parseText[2], parseText[1], parseText[3]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // create portfolio submit
     buttonClickMap.put(FieldName.CREATE_PORTFOLIO_SUBMIT.getMsg(), () -> {
       String text = createPortfolioView.getInputString();
-      try {
+      callModel(() -> {
         model.createPortfolio(text);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // view portfolio submit
     buttonClickMap.put(FieldName.VIEW_PORTFOLIO_SUBMIT.getMsg(), () -> {
       String text = viewPortfolioView.getInputString();
-      try {
-        JOptionPane.showMessageDialog(null, model.viewPortfolio(text));
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+      callModel(() -> model.viewPortfolio(text));
     });
 
     // evaluate portfolio submit
     buttonClickMap.put(FieldName.EVALUATE_PORTFOLIO_SUBMIT.getMsg(), () -> {
       String text = evaluatePortfolioView.getInputString();
       String[] parseText = text.split("\n");
-      try {
-        JOptionPane.showMessageDialog(null,
-                model.evaluatePortfolio(parseText[1], parseText[0]));
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+      callModel(() -> model.evaluatePortfolio(parseText[1], parseText[0]));
     });
 
     // add stock submit
     buttonClickMap.put(FieldName.ADD_STOCK_SUBMIT.getMsg(), () -> {
       String text = addStockView.getInputString();
       String[] parseText = text.split("\n");
-      try {
+      callModel(() -> {
         model.addEquity(parseText[0], parseText[1]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     //getportfoliocost submit
     buttonClickMap.put(FieldName.GET_PORTFOLIO_COST_BASIS_SUBMIT.getMsg(), () -> {
       String text = getPortfolioCostBasisView.getInputString();
-      try {
-        JOptionPane.showMessageDialog(null, model.getPortfolioCostBasis(text));
-      } catch (Exception ex) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+      callModel(() -> model.getPortfolioCostBasis(text));
     });
 
     //ask_number_stock_weight submit
@@ -431,20 +421,19 @@ public class GuiController implements ITraderController {
     //add_weighted_invest submit
     buttonClickMap.put(FieldName.WEIGHTED_INVESTMENT_SUBMIT.getMsg(), () -> {
       String result = this.weightedStrategyView.getInputString();
-      this.stocks.clear();
       String[] parsetext = result.split("\n");
       int totalSize = parsetext.length;
       String sameFormatWeight = String.format("%.2f", 100.00 / (parsetext.length - 4)) + "%";
-      for (int i = 0; i < sizeOfStocks; i++) {
-        this.stocks.put(parsetext[i], sameFormatWeight);
-      }
-      try {
-        model.addWeightedInvestmentStrategy(parsetext[totalSize - 1], this.stocks,
+      int size = this.sizeOfStocks;
+      callModel(() -> {
+        Map<String, String> stocks = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+          stocks.put(parsetext[i], sameFormatWeight);
+        }
+        model.addWeightedInvestmentStrategy(parsetext[totalSize - 1], stocks,
                 parsetext[totalSize - 4], parsetext[totalSize - 3], parsetext[totalSize - 2]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     //ask_number_stock_dac
@@ -465,144 +454,119 @@ public class GuiController implements ITraderController {
     buttonClickMap.put(FieldName.DAC_STRATEGY_SUBMIT.getMsg(), () -> {
       String result = this.dollarAveragingCostStrategyView.getInputString();
       String[] parseText = result.split("\n");
-      try {
-        String sameFormatWeight = String.format("%.2f", 100.00 / this.sizeOfStocks) + "%";
-        this.stocks.clear();
-        for (int i = 0; i < sizeOfStocks; i++) {
-          this.stocks.put(parseText[i], sameFormatWeight);
+      int size = this.sizeOfStocks;
+      callModel(() -> {
+        String sameFormatWeight = String.format("%.2f", 100.00 / size) + "%";
+        Map<String, String> stocks = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+          stocks.put(parseText[i], sameFormatWeight);
         }
-        model.addDollarAveragingCostStrategy(parseText[parseText.length - 1], this.stocks,
+        model.addDollarAveragingCostStrategy(parseText[parseText.length - 1], stocks,
                 parseText[parseText.length - 6], parseText[parseText.length - 5],
                 parseText[parseText.length - 4], parseText[parseText.length - 3],
                 parseText[parseText.length - 2]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // dac_diff_submit
     buttonClickMap.put(FieldName.DAC_STRATEGY_DIFF_SUBMIT.getMsg(), () -> {
       String result = this.dollarAveragingCostStrategyView.getInputString();
       String[] parseText = result.split("\n");
-      try {
-        this.stocks.clear();
-        for (int i = 0; i < this.sizeOfStocks * 2; i += 2) {
-          this.stocks.put(parseText[i], parseText[i + 1]);
+      int size = this.sizeOfStocks;
+      callModel(() -> {
+        Map<String, String> stocks = new HashMap<>();
+        for (int i = 0; i < size * 2; i += 2) {
+          stocks.put(parseText[i], parseText[i + 1]);
         }
-        model.addDollarAveragingCostStrategy(parseText[parseText.length - 1], this.stocks,
+        model.addDollarAveragingCostStrategy(parseText[parseText.length - 1], stocks,
                 parseText[parseText.length - 6], parseText[parseText.length - 5],
                 parseText[parseText.length - 4], parseText[parseText.length - 3],
                 parseText[parseText.length - 2]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     //apply strategy submit
     buttonClickMap.put(FieldName.APPLY_STRATEGY_SUBMIT.getMsg(), () -> {
       String result = this.applyStrategyView.getInputString();
       String[] parseText = result.split("\n");
-      try {
+      callModel(() -> {
         model.applyStrategy(parseText[0], parseText[1]);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // save portfolio submit
     buttonClickMap.put(FieldName.SAVE_PORTFOLIO_SUBMIT.getMsg(), () -> {
       String result = this.savePortfolioView.getInputString();
-      try {
+      callModel(() -> {
         model.savePortfolio(result);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // save strategy submit
     buttonClickMap.put(FieldName.SAVE_STRATEGY_SUBMIT.getMsg(), () -> {
       String result = this.saveStrategyView.getInputString();
-      try {
+      callModel(() -> {
         model.saveStrategy(result);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // retrieve portfolio submit
     buttonClickMap.put(FieldName.RETRIEVE_PORTFOLIO_SUBMIT.getMsg(), () -> {
       String result = this.retrievePortfolioView.getInputString();
-      try {
+      callModel(() -> {
         model.retrievePortfolio(result);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // retrieve strategy submit
     buttonClickMap.put(FieldName.RETRIEVE_STRATEGY_SUBMIT.getMsg(), () -> {
       String result = this.retrieveStrategyView.getInputString();
-      try {
+      callModel(() -> {
         model.retrieveStrategy(result);
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // evaluate account submit
     buttonClickMap.put(FieldName.EVALUATE_ACCOUNT_SUBMIT.getMsg(), () -> {
       String result = this.evaluateAccountView.getInputString();
-      try {
-        JOptionPane.showMessageDialog(null, model.evaluateAccount(result));
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+      callModel(() -> model.evaluateAccount(result));
     });
 
     // save all portfolio submit
     buttonClickMap.put(FieldName.SAVE_ALL_PORTFOLIO_ENTER.getMsg(), () -> {
-      // call model
-      try {
+      callModel(() -> {
         model.saveAllPortfolio();
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // save all strategy submit
     buttonClickMap.put(FieldName.SAVE_ALL_STRATEGY_ENTER.getMsg(), () -> {
-      try {
+      callModel(() -> {
         model.saveAllStrategy();
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
     // retrieve all portfolio
     buttonClickMap.put(FieldName.RETRIEVE_ALL_PORTFOLIO_ENTER.getMsg(), () -> {
-      try {
+      callModel(() -> {
         model.retrieveAllPortfolio();
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
     // retrieve all strategy
     buttonClickMap.put(FieldName.RETRIEVE_ALL_STRATEGY_ENTER.getMsg(), () -> {
-      try {
+      callModel(() -> {
         model.retrieveAllStrategy();
-        JOptionPane.showMessageDialog(null, FieldName.SUCCESS.getMsg());
-      } catch (Exception e) {
-        JOptionPane.showMessageDialog(null, FieldName.FAIL_LINE.getMsg());
-      }
+        return FieldName.SUCCESS.getMsg();
+      });
     });
 
     // submit weightOption
@@ -633,22 +597,42 @@ public class GuiController implements ITraderController {
 
     // check all existing portfolio
     buttonClickMap.put(FieldName.CHECK_CURRENT_PORTFOLIO_ENTER.getMsg(), () -> {
-      JOptionPane.showMessageDialog(null, model.viewPortfolioNameTags());
+      callModel(() -> model.viewPortfolioNameTags());
     });
     // check all strategy
     buttonClickMap.put(FieldName.CHECK_CURRENT_STRATEGY_ENTER.getMsg(), () -> {
-      JOptionPane.showMessageDialog(null, model.viewStrategyNameTags());
+      callModel(() -> model.viewStrategyNameTags());
     });
 
     buttonClickMap.put(FieldName.VIEW_ACCOUNT.getMsg(), () -> {
-      JOptionPane.showMessageDialog(null, model.viewAccount());
+      callModel(() -> model.viewAccount());
     });
 
     buttonClickMap.put(FieldName.VIEW_STRATEGY.getMsg(), () -> {
-      JOptionPane.showMessageDialog(null, model.viewAllStrategies());
+      callModel(() -> model.viewAllStrategies());
     });
 
     buttonListener.setButtonClickedActionMap(buttonClickMap);
     view.addActionListener(buttonListener);
   }
+
+  /**
+   * Helper function to run a model call on the model thread, so that the event dispatch thread
+   * never waits for stock data, and then show its message, or the fail line if it fails, on the
+   * event dispatch thread.
+   *
+   * @param call model call returning the message to show.
+   */
+  private void callModel(Callable<String> call) {
+    modelExecutor.execute(() -> {
+      String message;
+      try {
+        message = call.call();
+      } catch (Exception e) {
+        message = FieldName.FAIL_LINE.getMsg();
+      }
+      String shown = message;
+      SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, shown));
+    });
+  }
 }
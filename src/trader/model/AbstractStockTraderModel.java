@@ -2,21 +2,24 @@ package trader.model;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Set;
 
 import trader.ErrorMsg;
 import trader.util.account.StockTraderAccount;
 import trader.util.equity.Equity;
-import trader.util.StockGenerator;
+import trader.util.EquityGenerator;
 import trader.util.TimeStamp;
 import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
+import trader.util.ValuationSeries;
 
 /**
  * This is the main abstract trader model.
  */
 public abstract class AbstractStockTraderModel implements ITraderModel {
   StockTraderAccount mainAccount;
-  static final StockGenerator generator = new StockGenerator();
+  EquityGenerator generator;
 
   /**
    * create a portfolio given name in model.
@@ -25,7 +28,7 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void createPortfolio(String name) throws IllegalArgumentException {
+  public synchronized void createPortfolio(String name) throws IllegalArgumentException {
     if (name == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -43,7 +46,8 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void addEquity(String tickerSymbol, String portfolioName) throws IllegalArgumentException {
+  public synchronized void addEquity(String tickerSymbol, String portfolioName)
+          throws IllegalArgumentException {
     if (tickerSymbol == null || portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -63,8 +67,8 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void buyEquity(String tickerSymbol, String volume,
-                        String timeStamp, String portfolioName)
+  public synchronized void buyEquity(String tickerSymbol, String volume,
+                                     String timeStamp, String portfolioName)
           throws IllegalArgumentException {
     if (tickerSymbol == null || volume == null
             || timeStamp == null || portfolioName == null) {
@@ -86,7 +90,7 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @return account view as String.
    */
   @Override
-  public String viewAccount() {
+  public synchronized String viewAccount() {
     return "\n" + mainAccount.viewAccount();
   }
 
@@ -98,7 +102,7 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public String viewPortfolio(String portfolioName) throws IllegalArgumentException {
+  public synchronized String viewPortfolio(String portfolioName) throws IllegalArgumentException {
     if (portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -113,7 +117,7 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @return cost as String.
    */
   @Override
-  public String getAccountCostBasis() {
+  public synchronized String getAccountCostBasis() {
     String costBasis = "Cost Basis of Account : " + mainAccount.getAccountCost().toString();
     return "\n" + costBasis;
   }
@@ -127,7 +131,8 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public String getPortfolioCostBasis(String portfolioName) throws IllegalArgumentException {
+  public synchronized String getPortfolioCostBasis(String portfolioName)
+          throws IllegalArgumentException {
     if (portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -145,12 +150,13 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
    * @return all the portfolio name tags as string.
    */
   @Override
-  public String viewPortfolioNameTags() {
+  public synchronized String viewPortfolioNameTags() {
     return "\n" + mainAccount.viewAllPortfolioTag();
   }
 
   /**
-   * Evaluate total worth given timestamp and portfolioName.
+   * Evaluate total worth given timestamp and portfolioName. The prices of the stocks held are
+   * prefetched without holding the model, before the portfolio is evaluated.
    *
    * @param timeStamp     timeStamp to evaluate.
    * @param portfolioName portfolio name to find.
@@ -167,14 +173,58 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
       throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
     }
     TimeStamp stockTimeStamp = tradeTimeStampParser(timeStamp);
-    String netWorth = "Net Worth of Portfolio " + portfolioName
-            + " at time " + stockTimeStamp.toString()
-            + " : " + mainAccount.evaluatePortfolio(stockTimeStamp, portfolioName).toString();
-    return "\n" + netWorth;
+    Set<String> tickerSymbols;
+    synchronized (this) {
+      tickerSymbols = mainAccount.getHeldTickerSymbols(stockTimeStamp, portfolioName);
+    }
+    generator.prefetch(tickerSymbols, stockTimeStamp);
+    synchronized (this) {
+      String netWorth = "Net Worth of Portfolio " + portfolioName
+              + " at time " + stockTimeStamp.toString()
+              + " : " + mainAccount.evaluatePortfolio(stockTimeStamp, portfolioName).toString();
+      return "\n" + netWorth;
+    }
   }
 
   /**
-   * Evaluate total worth of account given timestamp and display the cost basis.
+   * Evaluate the worth of a portfolio on every trading day between two timestamps. The prices
+   * of the stocks held are prefetched up to the end, or yesterday if earlier, without holding
+   * the model, before the portfolio is evaluated.
+   *
+   * @param startTime     first timestamp to evaluate.
+   * @param endTime       last timestamp to evaluate.
+   * @param portfolioName portfolio name to find.
+   * @return daily worth of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public ValuationSeries valuationSeries(String startTime, String endTime,
+                                         String portfolioName) throws IllegalArgumentException {
+    if (startTime == null || endTime == null || portfolioName == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (startTime.isEmpty() || endTime.isEmpty() || portfolioName.isEmpty()) {
+      throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
+    }
+    TradeTimeStamp startTimeStamp = tradeTimeStampParser(startTime);
+    TradeTimeStamp endTimeStamp = tradeTimeStampParser(endTime);
+    TradeTimeStamp coverTime = TradeTimeStamp.of(LocalDate.now().minusDays(1));
+    if (endTimeStamp.compareTo(coverTime) < 0) {
+      coverTime = endTimeStamp;
+    }
+    Set<String> tickerSymbols;
+    synchronized (this) {
+      tickerSymbols = mainAccount.getHeldTickerSymbols(coverTime, portfolioName);
+    }
+    generator.prefetch(tickerSymbols, coverTime);
+    synchronized (this) {
+      return mainAccount.valuationSeries(startTimeStamp, endTimeStamp, portfolioName);
+    }
+  }
+
+  /**
+   * Evaluate total worth of account given timestamp and display the cost basis. The prices of
+   * the stocks held are prefetched without holding the model, before the account is evaluated.
    *
    * @param timeStamp timeStamp to evaluate.
    * @return total worth as String.
@@ -189,9 +239,16 @@ public abstract class AbstractStockTraderModel implements ITraderModel {
       throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
     }
     TimeStamp stockTimeStamp = tradeTimeStampParser(timeStamp);
-    String netWorth = "Net Worth of Account at time " + stockTimeStamp.toString()
-            + " : " + mainAccount.evaluateAccount(stockTimeStamp).toString();
-    return "\n" + netWorth;
+    Set<String> tickerSymbols;
+    synchronized (this) {
+      tickerSymbols = mainAccount.getHeldTickerSymbols(stockTimeStamp);
+    }
+    generator.prefetch(tickerSymbols, stockTimeStamp);
+    synchronized (this) {
+      String netWorth = "Net Worth of Account at time " + stockTimeStamp.toString()
+              + " : " + mainAccount.evaluateAccount(stockTimeStamp).toString();
+      return "\n" + netWorth;
+    }
   }
 
   /**
@@ -1,5 +1,6 @@
 package trader.model;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -50,6 +51,25 @@ public interface IStrategyTraderModel extends ITraderModel {
                                       String startTime, String endTime, String frequency)
           throws IllegalArgumentException;
 
+  /**
+   * Backtest a dollar averaging cost strategy for every combination of the given weighted
+   * stocks, capitals, commissions and frequencies, without adding any strategy or portfolio.
+   * @param weightedStocks weightedStocks to try.
+   * @param capitalPerInvestment capitalPerInvestment to try.
+   * @param commission commission to try.
+   * @param startTime startTime.
+   * @param endTime endTime.
+   * @param frequency frequency to try.
+   * @return combinations ranked by net gain, with their final value, cost basis and commission
+   *         drag.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  String sweepDollarAveragingCostStrategy(List<Map<String, String>> weightedStocks,
+                                          List<String> capitalPerInvestment,
+                                          List<String> commission, String startTime,
+                                          String endTime, List<String> frequency)
+          throws IllegalArgumentException;
+
   /**
    * Apply a Strategy in the account to a specific portfolio.
    * @param strategyName strategyName.
@@ -58,6 +78,20 @@ public interface IStrategyTraderModel extends ITraderModel {
    */
   void applyStrategy(String strategyName, String portfolioName) throws IllegalArgumentException;
 
+  /**
+   * Apply every dollar averaging cost strategy to each portfolio it was applied to and has an
+   * investment due in, prefetching the prices of all their stocks at once.
+   * @return number of strategy and portfolio pairs applied.
+   */
+  int applyDueStrategies();
+
+  /**
+   * Get the error of each dollar averaging cost strategy in each portfolio it failed in on the
+   * last call to applyDueStrategies.
+   * @return error messages by portfolio name, by strategy name.
+   */
+  Map<String, Map<String, String>> getStrategyFailures();
+
   /**
    * View all the Strategies in the the Account.
    * @return all strategies view.
@@ -1,5 +1,7 @@
 package trader.model;
 
+import trader.util.ValuationSeries;
+
 /**
  * This is the interface of the ITrader model.
  */
@@ -58,6 +60,18 @@ public interface ITraderModel {
    */
   String evaluatePortfolio(String timeStamp, String portfolioName) throws IllegalArgumentException;
 
+  /**
+   * Evaluate the worth of a portfolio on every trading day between two timestamps.
+   *
+   * @param startTime     first timestamp to evaluate.
+   * @param endTime       last timestamp to evaluate.
+   * @param portfolioName portfolio name to find.
+   * @return daily worth of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  ValuationSeries valuationSeries(String startTime, String endTime, String portfolioName)
+          throws IllegalArgumentException;
+
   /**
    * Display the cost basis of portfolio.
    * @param portfolioName portfolio name to find.
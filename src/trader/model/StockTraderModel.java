@@ -1,5 +1,9 @@
 package trader.model;
 
+import trader.ErrorMsg;
+import trader.util.AlphaVantagePriceSource;
+import trader.util.PriceSource;
+import trader.util.StockGenerator;
 import trader.util.account.StockTraderAccount;
 
 /**
@@ -8,9 +12,12 @@ import trader.util.account.StockTraderAccount;
 public class StockTraderModel extends AbstractStockTraderModel implements ITraderModel {
   /**
    * model constructor.
+   *
+   * @param priceSource source of daily price histories.
    */
-  private StockTraderModel() {
-    this.mainAccount = new StockTraderAccount();
+  private StockTraderModel(PriceSource priceSource) {
+    this.generator = new StockGenerator(priceSource);
+    this.mainAccount = new StockTraderAccount(generator);
   }
 
   /**
@@ -25,11 +32,30 @@ public class StockTraderModel extends AbstractStockTraderModel implements ITrade
    * modelBuilder class.
    */
   public static class StockTraderModelBuilder implements StockTraderOperationBuilder {
+    private PriceSource priceSource;
 
     /**
      * constructor of model builder.
      */
     private StockTraderModelBuilder() {
+      priceSource = new AlphaVantagePriceSource();
+    }
+
+    /**
+     * set the source of daily price histories.
+     *
+     * @param priceSource price source.
+     * @return builder.
+     * @throws IllegalArgumentException if invalid input.
+     */
+    @Override
+    public StockTraderModelBuilder priceSource(PriceSource priceSource)
+            throws IllegalArgumentException {
+      if (priceSource == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      this.priceSource = priceSource;
+      return this;
     }
 
     /**
@@ -38,7 +64,7 @@ public class StockTraderModel extends AbstractStockTraderModel implements ITrade
      */
     @Override
     public ITraderModel build() {
-      return new StockTraderModel();
+      return new StockTraderModel(priceSource);
     }
   }
 }
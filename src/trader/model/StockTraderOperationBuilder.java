@@ -1,9 +1,21 @@
 package trader.model;
 
+import trader.util.PriceSource;
+
 public interface StockTraderOperationBuilder {
   /**
    * A traderModel.
    */
 
   ITraderModel build();
+
+  /**
+   * Set the source of daily price histories.
+   *
+   * @param priceSource price source.
+   * @return builder.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  StockTraderOperationBuilder priceSource(PriceSource priceSource)
+          throws IllegalArgumentException;
 }
@@ -0,0 +1,114 @@
+package trader.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import trader.ErrorMsg;
+
+/**
+ * This class applies the due dollar averaging cost strategies of a model in the background. A
+ * single daemon thread runs one pass every period, which prefetches every stock due at once
+ * and then applies each strategy to the portfolios it was applied to before, so open-ended
+ * strategies keep investing without anyone applying them by hand. Each strategy that fails in
+ * a portfolio, and each pass that fails as a whole, is reported to the given output.
+ */
+public class StrategyScheduler implements Closeable {
+  private final IStrategyTraderModel model;
+  private final long period;
+  private final TimeUnit unit;
+  private final Appendable out;
+  private final ScheduledExecutorService executor;
+  private boolean started;
+
+  /**
+   * Constructor of StrategyScheduler.
+   *
+   * @param model  model whose strategies to apply.
+   * @param period time between two passes.
+   * @param unit   unit of the period.
+   * @param out    output to report failures to.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public StrategyScheduler(IStrategyTraderModel model, long period, TimeUnit unit,
+                           Appendable out) throws IllegalArgumentException {
+    if (model == null || unit == null || out == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (period <= 0) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_SCHEDULER_PERIOD.getMsg());
+    }
+    this.model = model;
+    this.period = period;
+    this.unit = unit;
+    this.out = out;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "strategy-scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Start running a pass now and then once every period, unless started already.
+   */
+  public synchronized void start() {
+    if (!started) {
+      executor.scheduleWithFixedDelay(this::runAndReport, 0, period, unit);
+      started = true;
+    }
+  }
+
+  /**
+   * Run one pass on the calling thread.
+   *
+   * @return number of strategy and portfolio pairs applied.
+   * @throws IllegalArgumentException if the pass fails.
+   */
+  public int runOnce() throws IllegalArgumentException {
+    return model.applyDueStrategies();
+  }
+
+  /**
+   * private helper to run a scheduled pass and report its failures. A failed pass leaves its
+   * strategies due, so it is retried on the next one instead of cancelling the schedule.
+   */
+  private void runAndReport() {
+    StringBuilder sb = new StringBuilder();
+    try {
+      runOnce();
+      for (Map.Entry<String, Map<String, String>> strategy
+              : model.getStrategyFailures().entrySet()) {
+        for (Map.Entry<String, String> portfolio : strategy.getValue().entrySet()) {
+          sb.append("Strategy ").append(strategy.getKey()).append(" failed in portfolio ")
+                  .append(portfolio.getKey()).append(": ").append(portfolio.getValue())
+                  .append("\n");
+        }
+      }
+    } catch (RuntimeException e) {
+      sb.append("Strategy pass failed: ").append(e.getMessage()).append("\n");
+    }
+    if (sb.length() == 0) {
+      return;
+    }
+    try {
+      synchronized (out) {
+        out.append(sb.toString());
+      }
+    } catch (IOException e) {
+      // The failures stay recorded in the model and are reported again on the next pass.
+      return;
+    }
+  }
+
+  /**
+   * Stop the passes, letting a running one finish.
+   */
+  @Override
+  public synchronized void close() {
+    executor.shutdown();
+  }
+}
@@ -2,10 +2,16 @@ package trader.model;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import trader.ErrorMsg;
+import trader.util.AlphaVantagePriceSource;
+import trader.util.PriceSource;
+import trader.util.StockGenerator;
 import trader.util.account.RetrievableStrategyAccount;
 import trader.util.account.StrategyStockTraderAccount;
 import trader.util.equity.USStock;
@@ -13,6 +19,7 @@ import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
 import trader.util.strategy.DACStockStrategy;
 import trader.util.strategy.FrequencyNode;
+import trader.util.strategy.StrategySweep;
 import trader.util.strategy.WeightedStockStrategy;
 
 /**
@@ -24,9 +31,15 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
 
   /**
    * Constructor for StrategyStockTraderModel.
+   *
+   * @param priceSource   source of daily price histories.
+   * @param journalPath   path of the account journal, or null to not journal.
+   * @param lazyRetrieval whether to retrieve all portfolios lazily.
    */
-  private StrategyStockTraderModel() {
-    this.mainAccount = new StrategyStockTraderAccount();
+  private StrategyStockTraderModel(PriceSource priceSource, String journalPath,
+                                   boolean lazyRetrieval) {
+    this.generator = new StockGenerator(priceSource);
+    this.mainAccount = new StrategyStockTraderAccount(generator, journalPath, lazyRetrieval);
     strategyAccount = (StrategyStockTraderAccount) mainAccount;
   }
 
@@ -44,12 +57,63 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    */
   public static class StrategyStockTraderModelBuilder implements
           StrategyStockTraderOperationBuilder {
+    private PriceSource priceSource;
+    private String journalPath;
+    private boolean lazyRetrieval;
 
     /**
      * constructor.
      */
     private StrategyStockTraderModelBuilder() {
-      new StrategyStockTraderModel();
+      priceSource = new AlphaVantagePriceSource();
+      journalPath = null;
+      lazyRetrieval = false;
+    }
+
+    /**
+     * set the source of daily price histories.
+     *
+     * @param priceSource price source.
+     * @return builder.
+     * @throws IllegalArgumentException if invalid input.
+     */
+    @Override
+    public StrategyStockTraderModelBuilder priceSource(PriceSource priceSource)
+            throws IllegalArgumentException {
+      if (priceSource == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      this.priceSource = priceSource;
+      return this;
+    }
+
+    /**
+     * journal every change to the account at the given path.
+     *
+     * @param journalPath path of the account journal.
+     * @return builder.
+     * @throws IllegalArgumentException if invalid input.
+     */
+    @Override
+    public StrategyStockTraderModelBuilder journal(String journalPath)
+            throws IllegalArgumentException {
+      if (journalPath == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      this.journalPath = journalPath;
+      return this;
+    }
+
+    /**
+     * retrieve all portfolios lazily.
+     *
+     * @param lazyRetrieval whether to retrieve all portfolios lazily.
+     * @return builder.
+     */
+    @Override
+    public StrategyStockTraderModelBuilder lazyRetrieval(boolean lazyRetrieval) {
+      this.lazyRetrieval = lazyRetrieval;
+      return this;
     }
 
     /**
@@ -59,7 +123,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
      */
     @Override
     public IRetrievableStrategyTraderModel build() {
-      return new StrategyStockTraderModel();
+      return new StrategyStockTraderModel(priceSource, journalPath, lazyRetrieval);
     }
   }
 
@@ -73,8 +137,9 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void buyEquityWithCommission(String tickerSymbol, String volume, String timeStamp,
-                                      String portfolioName, String commission)
+  public synchronized void buyEquityWithCommission(String tickerSymbol, String volume,
+                                                   String timeStamp, String portfolioName,
+                                                   String commission)
           throws IllegalArgumentException {
     if (tickerSymbol == null || volume == null || commission == null
             || timeStamp == null || portfolioName == null) {
@@ -102,10 +167,11 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void addWeightedInvestmentStrategy(String strategyName,
-                                            Map<String, String> weightedStocks,
-                                            String capital, String commission,
-                                            String investmentTime) throws IllegalArgumentException {
+  public synchronized void addWeightedInvestmentStrategy(String strategyName,
+                                                         Map<String, String> weightedStocks,
+                                                         String capital, String commission,
+                                                         String investmentTime)
+          throws IllegalArgumentException {
     if (strategyName == null || weightedStocks == null || capital == null || commission == null
             || investmentTime == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
@@ -119,7 +185,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
     USDPrice investmentCommission = usdPriceParser(commission);
     TradeTimeStamp timeStamp = tradeTimeStampParser(investmentTime);
     WeightedStockStrategy weightedStockStrategy = new WeightedStockStrategy(strategyName,
-            stockWeights,  timeStamp, investmentCapital, investmentCommission);
+            stockWeights,  timeStamp, investmentCapital, investmentCommission, generator);
     strategyAccount.addStrategy(weightedStockStrategy);
   }
 
@@ -136,10 +202,11 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public void addDollarAveragingCostStrategy(String strategyName,
-                                             Map<String, String> weightedStocks,
-                                             String capitalPerInvestment, String commission,
-                                             String startTime, String endTime, String frequency)
+  public synchronized void addDollarAveragingCostStrategy(String strategyName,
+                                                          Map<String, String> weightedStocks,
+                                                          String capitalPerInvestment,
+                                                          String commission, String startTime,
+                                                          String endTime, String frequency)
           throws IllegalArgumentException {
     if (strategyName == null || weightedStocks == null || capitalPerInvestment == null
             || commission == null || startTime == null || endTime == null || frequency == null) {
@@ -161,12 +228,68 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
     FrequencyNode frequencyNode = FrequencyNode.parse(frequency);
     DACStockStrategy dacStockStrategy = new DACStockStrategy(strategyName, stockWeights,
             startTimeStamp, endTimeStamp, frequencyNode, investmentCapital,
-            investmentCommission);
+            investmentCommission, generator);
     strategyAccount.addStrategy(dacStockStrategy);
   }
 
   /**
-   * Apply a Strategy in the account to a specific portfolio.
+   * Backtest a dollar averaging cost strategy for every combination of the given weighted
+   * stocks, capitals, commissions and frequencies, without adding any strategy or portfolio.
+   * It only reads the generator, so it runs without holding the model.
+   *
+   * @param weightedStocks       weightedStocks to try.
+   * @param capitalPerInvestment capitalPerInvestment to try.
+   * @param commission           commission to try.
+   * @param startTime            startTime.
+   * @param endTime              endTime.
+   * @param frequency            frequency to try.
+   * @return combinations ranked by net gain, with their final value, cost basis and commission
+   *         drag.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public String sweepDollarAveragingCostStrategy(List<Map<String, String>> weightedStocks,
+                                                 List<String> capitalPerInvestment,
+                                                 List<String> commission, String startTime,
+                                                 String endTime, List<String> frequency)
+          throws IllegalArgumentException {
+    if (weightedStocks == null || capitalPerInvestment == null || commission == null
+            || startTime == null || endTime == null || frequency == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (startTime.isEmpty() || endTime.isEmpty()) {
+      throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
+    }
+    List<Map<String, BigDecimal>> weightedStocksGrid = new ArrayList<>();
+    for (Map<String, String> stocks : weightedStocks) {
+      if (stocks == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      weightedStocksGrid.add(weightedStocksParser(stocks));
+    }
+    List<USDPrice> capitalGrid = new ArrayList<>();
+    for (String capital : capitalPerInvestment) {
+      capitalGrid.add(usdPriceParser(capital));
+    }
+    List<USDPrice> commissionGrid = new ArrayList<>();
+    for (String transactionCommission : commission) {
+      commissionGrid.add(usdPriceParser(transactionCommission));
+    }
+    List<FrequencyNode> frequencyGrid = new ArrayList<>();
+    for (String investmentFrequency : frequency) {
+      frequencyGrid.add(FrequencyNode.parse(investmentFrequency));
+    }
+    TradeTimeStamp endTimeStamp = null;
+    if (!endTime.equals("NA")) {
+      endTimeStamp = tradeTimeStampParser(endTime);
+    }
+    return StrategySweep.run(generator, weightedStocksGrid, capitalGrid, commissionGrid,
+            frequencyGrid, tradeTimeStampParser(startTime), endTimeStamp).view();
+  }
+
+  /**
+   * Apply a Strategy in the account to a specific portfolio. The prices of its stocks are
+   * prefetched without holding the model, before the strategy is applied.
    *
    * @param strategyName  strategyName.
    * @param portfolioName portfolioName.
@@ -181,7 +304,46 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
     if (strategyName.isEmpty() || portfolioName.isEmpty()) {
       throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
     }
-    strategyAccount.applyStrategy(portfolioName, strategyName);
+    Set<String> tickerSymbols;
+    synchronized (this) {
+      tickerSymbols = strategyAccount.getStrategyTickerSymbols(strategyName);
+    }
+    generator.prefetch(tickerSymbols);
+    synchronized (this) {
+      strategyAccount.applyStrategy(portfolioName, strategyName);
+    }
+  }
+
+  /**
+   * Apply every dollar averaging cost strategy to each portfolio it was applied to and has an
+   * investment due in. The prices of every stock due are prefetched at once, without holding
+   * the model, before the strategies are applied.
+   *
+   * @return number of strategy and portfolio pairs applied.
+   */
+  @Override
+  public int applyDueStrategies() {
+    Set<String> tickerSymbols;
+    synchronized (this) {
+      tickerSymbols = strategyAccount.getDueTickerSymbols();
+    }
+    if (!tickerSymbols.isEmpty()) {
+      generator.prefetch(tickerSymbols);
+    }
+    synchronized (this) {
+      return strategyAccount.applyDueStrategies();
+    }
+  }
+
+  /**
+   * Get the error of each dollar averaging cost strategy in each portfolio it failed in on the
+   * last call to applyDueStrategies.
+   *
+   * @return error messages by portfolio name, by strategy name.
+   */
+  @Override
+  public synchronized Map<String, Map<String, String>> getStrategyFailures() {
+    return strategyAccount.getStrategyFailures();
   }
 
   /**
@@ -190,7 +352,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @return all strategies view.
    */
   @Override
-  public String viewAllStrategies() {
+  public synchronized String viewAllStrategies() {
     return "\n" + strategyAccount.viewAllStrategies();
   }
 
@@ -200,7 +362,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @return all strategy names.
    */
   @Override
-  public String viewStrategyNameTags() {
+  public synchronized String viewStrategyNameTags() {
     return "\n" + strategyAccount.viewStrategyNameTags();
   }
 
@@ -226,7 +388,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @return cost as String.
    */
   @Override
-  public String getAccountCostBasis() {
+  public synchronized String getAccountCostBasis() {
     StringBuilder sb = new StringBuilder();
     sb.append(super.getAccountCostBasis()).append("\n");
     sb.append("Commission Cost : ").append(strategyAccount.getAccountCommissionCost().toString())
@@ -242,7 +404,8 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public String getPortfolioCostBasis(String portfolioName) throws IllegalArgumentException {
+  public synchronized String getPortfolioCostBasis(String portfolioName)
+          throws IllegalArgumentException {
     StringBuilder sb = new StringBuilder();
     sb.append(super.getPortfolioCostBasis(portfolioName)).append("\n");
     sb.append("Commission Cost : ").append(strategyAccount
@@ -257,7 +420,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * Save all portfolios.
    */
   @Override
-  public void saveAllPortfolio() {
+  public synchronized void saveAllPortfolio() {
     strategyAccount.saveAllPortfolio();
   }
 
@@ -268,7 +431,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if failed save.
    */
   @Override
-  public void savePortfolio(String portfolioName) throws IllegalArgumentException {
+  public synchronized void savePortfolio(String portfolioName) throws IllegalArgumentException {
     if (portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -282,7 +445,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * Save all strategies.
    */
   @Override
-  public void saveAllStrategy() {
+  public synchronized void saveAllStrategy() {
     strategyAccount.saveAllStrategy();
   }
 
@@ -293,7 +456,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if failed save.
    */
   @Override
-  public void saveStrategy(String strategyName) throws IllegalArgumentException {
+  public synchronized void saveStrategy(String strategyName) throws IllegalArgumentException {
     if (strategyName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -307,7 +470,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * Retrieve all portfolio.
    */
   @Override
-  public void retrieveAllPortfolio() {
+  public synchronized void retrieveAllPortfolio() {
     strategyAccount.retrieveAllPortfolio();
   }
 
@@ -318,7 +481,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if failed load.
    */
   @Override
-  public void retrievePortfolio(String portfolioName) throws IllegalArgumentException {
+  public synchronized void retrievePortfolio(String portfolioName) throws IllegalArgumentException {
     if (portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
@@ -332,7 +495,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * Retrieve all strategies.
    */
   @Override
-  public void retrieveAllStrategy() {
+  public synchronized void retrieveAllStrategy() {
     strategyAccount.retrieveAllStrategy();
   }
 
@@ -343,7 +506,7 @@ public class StrategyStockTraderModel extends AbstractStockTraderModel
    * @throws IllegalArgumentException if failed load.
    */
   @Override
-  public void retrieveStrategy(String strategyName) throws IllegalArgumentException {
+  public synchronized void retrieveStrategy(String strategyName) throws IllegalArgumentException {
     if (strategyName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
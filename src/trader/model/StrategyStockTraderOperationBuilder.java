@@ -1,5 +1,7 @@
 package trader.model;
 
+import trader.util.PriceSource;
+
 public interface StrategyStockTraderOperationBuilder {
   /**
    * A strategyTraderModel.
@@ -8,4 +10,34 @@ public interface StrategyStockTraderOperationBuilder {
    */
 
   IRetrievableStrategyTraderModel build();
+
+  /**
+   * Set the source of daily price histories.
+   *
+   * @param priceSource price source.
+   * @return builder.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  StrategyStockTraderOperationBuilder priceSource(PriceSource priceSource)
+          throws IllegalArgumentException;
+
+  /**
+   * Journal every change to the account at the given path, replaying the changes already in it
+   * when the model is built.
+   *
+   * @param journalPath path of the account journal.
+   * @return builder.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  StrategyStockTraderOperationBuilder journal(String journalPath)
+          throws IllegalArgumentException;
+
+  /**
+   * Retrieve all portfolios lazily: they are registered by name, and the equities of each are
+   * loaded from its files the first time it is used.
+   *
+   * @param lazyRetrieval whether to retrieve all portfolios lazily.
+   * @return builder.
+   */
+  StrategyStockTraderOperationBuilder lazyRetrieval(boolean lazyRetrieval);
 }
@@ -0,0 +1,126 @@
+package trader.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+
+import trader.ErrorMsg;
+
+/**
+ * This class implements a PriceSource that downloads daily histories from Alpha Vantage and
+ * keeps them in a PriceStore. Api keys are shared by every instance and handed out by one
+ * ApiKeyScheduler.
+ */
+public class AlphaVantagePriceSource implements PriceSource {
+  private static final String urlDailyPrefix =
+          "https://www.alphavantage"
+                  + ".co/query?function=TIME_SERIES_DAILY"
+                  + "&outputsize=full";
+  private static final String[] apiKeys = new String[]{"BF756129MBEV817Y", "NR2HJDUJC95IT1BH",
+    "76EFTN30DULF7VOE", "GO9JIZFXN8MKNYC4", "YPQG08FAN5U46T5E"};
+  private static final int callsPerMinute = 5;
+  private static final int callsPerDay = 500;
+  private static final int maxThrottledAttempts = apiKeys.length * 2;
+  private static final ApiKeyScheduler apiKeyScheduler =
+          new ApiKeyScheduler(apiKeys, callsPerMinute, callsPerDay);
+  private final PriceStore priceStore;
+
+  /**
+   * Constructor of AlphaVantagePriceSource with the default PriceStore.
+   */
+  public AlphaVantagePriceSource() {
+    this(new PriceStore());
+  }
+
+  /**
+   * Constructor of AlphaVantagePriceSource with the given PriceStore.
+   *
+   * @param priceStore store to keep downloaded histories in.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public AlphaVantagePriceSource(PriceStore priceStore) throws IllegalArgumentException {
+    if (priceStore == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.priceStore = priceStore;
+  }
+
+  /**
+   * Load the full daily price history of a stock from the price store, or else download it.
+   * Downloads take api keys from the scheduler, and a throttled download is retried with
+   * another key.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if loading failed.
+   */
+  @Override
+  public PriceColumn load(String tickerSymbol, TimeStamp coverTime)
+          throws IllegalArgumentException {
+    if (tickerSymbol == null || coverTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    PriceColumn column = priceStore.read(tickerSymbol, coverTime.getLocalDate());
+    if (column != null) {
+      return column;
+    }
+    for (int attempt = 0; column == null; attempt++) {
+      if (attempt == maxThrottledAttempts) {
+        throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
+      }
+      String apiKey = apiKeyScheduler.acquire();
+      try {
+        column = downloadColumn(buildUrl(tickerSymbol, apiKey));
+      } catch (IllegalArgumentException e) {
+        if (!e.getMessage().equals(ErrorMsg.FAIL_CRAW_DATA_INVALID_API_KEY.getMsg())) {
+          throw e;
+        }
+        apiKeyScheduler.penalize(apiKey);
+      }
+    }
+    priceStore.write(tickerSymbol, column);
+    return column;
+  }
+
+  /**
+   * private helper function to download the full history of a stock.
+   *
+   * @param url api url.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if download failed.
+   */
+  private PriceColumn downloadColumn(URL url) throws IllegalArgumentException {
+    PriceColumn column;
+    try (InputStream inputStream = url.openStream()) {
+      column = new DailyCsvParser().parse(inputStream);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_NO_DATA_FOUND.getMsg());
+    }
+    if (column.size() == 0) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_FUTURE_TIME_STAMP.getMsg());
+    }
+    return column;
+  }
+
+  /**
+   * private helper function to build url.
+   *
+   * @param tickerSymbol tickerSymbol.
+   * @param apiKey       apiKey.
+   * @return URL.
+   * @throws RuntimeException if MalformedURL.
+   */
+  private URL buildUrl(String tickerSymbol, String apiKey)
+          throws RuntimeException {
+    URL url;
+    try {
+      url = new URL(urlDailyPrefix + "&symbol=" + tickerSymbol +
+              "&apikey=" + apiKey + "&datatype=csv");
+    } catch (MalformedURLException e) {
+      throw new RuntimeException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
+    }
+    return url;
+  }
+}
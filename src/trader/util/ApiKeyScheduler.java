@@ -0,0 +1,155 @@
+package trader.util;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import trader.ErrorMsg;
+
+/**
+ * This class hands out api keys within their call budgets. Every key has a token bucket of
+ * calls per minute, where each spent token comes back one minute after it was spent, and a
+ * budget of calls per day. Callers queue up in arrival order, and only the caller at the head
+ * of the queue takes a token, waiting until one comes back if every bucket is empty.
+ */
+public class ApiKeyScheduler {
+  private static final long minuteNanos = TimeUnit.MINUTES.toNanos(1);
+  private final String[] apiKeys;
+  private final long[][] spentTimes;
+  private final int[] spentIndexes;
+  private final int[] dailyCalls;
+  private final int callsPerDay;
+  private final ReentrantLock lock;
+  private final Condition tokenReturned;
+  private final Deque<Thread> waiters;
+  private LocalDate budgetDate;
+  private int nextKey;
+
+  /**
+   * Constructor of ApiKeyScheduler.
+   *
+   * @param apiKeys        api keys to schedule.
+   * @param callsPerMinute calls allowed per key in any minute.
+   * @param callsPerDay    calls allowed per key in a day.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public ApiKeyScheduler(String[] apiKeys, int callsPerMinute, int callsPerDay)
+          throws IllegalArgumentException {
+    if (apiKeys == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (apiKeys.length == 0 || callsPerMinute <= 0 || callsPerDay <= 0) {
+      throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
+    }
+    this.apiKeys = apiKeys.clone();
+    this.spentTimes = new long[apiKeys.length][callsPerMinute];
+    this.spentIndexes = new int[apiKeys.length];
+    this.dailyCalls = new int[apiKeys.length];
+    this.callsPerDay = callsPerDay;
+    this.lock = new ReentrantLock(true);
+    this.tokenReturned = lock.newCondition();
+    this.waiters = new ArrayDeque<>();
+    this.budgetDate = LocalDate.now();
+    long start = System.nanoTime() - minuteNanos;
+    for (long[] keySpentTimes : spentTimes) {
+      Arrays.fill(keySpentTimes, start);
+    }
+  }
+
+  /**
+   * Take a token of the next api key with budget left, once every earlier caller was served,
+   * waiting until one comes back if none is available.
+   *
+   * @return api key to call with.
+   * @throws IllegalArgumentException if every daily budget is used up or waiting is interrupted.
+   */
+  public String acquire() throws IllegalArgumentException {
+    Thread waiter = Thread.currentThread();
+    lock.lock();
+    waiters.addLast(waiter);
+    try {
+      while (true) {
+        if (waiters.peekFirst() != waiter) {
+          tokenReturned.await();
+          continue;
+        }
+        resetDailyBudget();
+        long now = System.nanoTime();
+        long earliestReturn = Long.MAX_VALUE;
+        boolean budgetLeft = false;
+        for (int i = 0; i < apiKeys.length; i++) {
+          int key = (nextKey + i) % apiKeys.length;
+          if (dailyCalls[key] >= callsPerDay) {
+            continue;
+          }
+          budgetLeft = true;
+          long oldestSpent = spentTimes[key][spentIndexes[key]];
+          if (now - oldestSpent >= minuteNanos) {
+            spend(key, now);
+            nextKey = (key + 1) % apiKeys.length;
+            return apiKeys[key];
+          }
+          earliestReturn = Math.min(earliestReturn, oldestSpent + minuteNanos - now);
+        }
+        if (!budgetLeft) {
+          throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
+        }
+        tokenReturned.awaitNanos(earliestReturn);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
+    } finally {
+      waiters.remove(waiter);
+      tokenReturned.signalAll();
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Empty the minute bucket of an api key that got throttled anyway, so that it rests for a
+   * full minute.
+   *
+   * @param apiKey api key that got throttled.
+   */
+  public void penalize(String apiKey) {
+    lock.lock();
+    try {
+      long now = System.nanoTime();
+      for (int key = 0; key < apiKeys.length; key++) {
+        if (apiKeys[key].equals(apiKey)) {
+          Arrays.fill(spentTimes[key], now);
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * private helper to spend a token of the given key.
+   *
+   * @param key index of the api key.
+   * @param now current nano time.
+   */
+  private void spend(int key, long now) {
+    spentTimes[key][spentIndexes[key]] = now;
+    spentIndexes[key] = (spentIndexes[key] + 1) % spentTimes[key].length;
+    dailyCalls[key]++;
+  }
+
+  /**
+   * private helper to restore the daily budgets once a new day starts.
+   */
+  private void resetDailyBudget() {
+    LocalDate today = LocalDate.now();
+    if (!today.equals(budgetDate)) {
+      budgetDate = today;
+      Arrays.fill(dailyCalls, 0);
+    }
+  }
+}
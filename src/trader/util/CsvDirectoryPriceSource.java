@@ -0,0 +1,65 @@
+package trader.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import trader.ErrorMsg;
+
+/**
+ * This class implements a PriceSource that reads daily histories from a local directory with
+ * one csv file per ticker symbol, named after it, in the Alpha Vantage daily time series
+ * layout: timestamp,open,high,low,close,volume.
+ */
+public class CsvDirectoryPriceSource implements PriceSource {
+  private static final String csvFileSuffix = ".csv";
+  private final File directory;
+
+  /**
+   * Constructor of CsvDirectoryPriceSource.
+   *
+   * @param directoryPath directory of the csv files.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public CsvDirectoryPriceSource(String directoryPath) throws IllegalArgumentException {
+    if (directoryPath == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.directory = new File(directoryPath);
+  }
+
+  /**
+   * Load the full daily price history of a stock from its csv file. The ticker symbol names
+   * the file, so an invalid one is rejected before any path is built.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if loading failed.
+   */
+  @Override
+  public PriceColumn load(String tickerSymbol, TimeStamp coverTime)
+          throws IllegalArgumentException {
+    if (tickerSymbol == null || coverTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (!TickerSymbols.isValid(tickerSymbol)) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg());
+    }
+    File csvFile = new File(directory, tickerSymbol + csvFileSuffix);
+    if (!csvFile.isFile()) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg());
+    }
+    PriceColumn column;
+    try (InputStream inputStream = new FileInputStream(csvFile)) {
+      column = new DailyCsvParser().parse(inputStream);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_NO_DATA_FOUND.getMsg());
+    }
+    if (column.size() == 0) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_NO_DATA_FOUND.getMsg());
+    }
+    return column;
+  }
+}
@@ -0,0 +1,246 @@
+package trader.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+
+/**
+ * This class parses the Alpha Vantage daily time series csv into a PriceColumn. The body is
+ * streamed through one buffer and the date and close fields are tokenized in place, without
+ * building a String per line.
+ */
+public class DailyCsvParser {
+  private static final int bufferSize = 1 << 16;
+  private static final int initialHistorySize = 256;
+  private static final int dateField = 0;
+  private static final int closeField = 4;
+  private static final int maxErrorBodyLength = 4096;
+  private static final String errorIndicator = "Error";
+  private static final String invalidApiKeyIndicator = "Thank you for using Alpha Vantage!";
+  private static final long[] scaleFactors = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L};
+  private static final long maxWholeClose = Long.MAX_VALUE / 10 / scaleFactors[6];
+  private final ByteBuffer buffer;
+  private int[] epochDays;
+  private long[] closes;
+  private int size;
+
+  /**
+   * Constructor of DailyCsvParser.
+   */
+  public DailyCsvParser() {
+    buffer = ByteBuffer.allocate(bufferSize);
+  }
+
+  /**
+   * Parse a daily time series body into a PriceColumn.
+   *
+   * @param inputStream body of the time series response.
+   * @return PriceColumn of every parsed row, possibly empty.
+   * @throws IOException              if reading the body fails.
+   * @throws IllegalArgumentException if the body is an error response.
+   */
+  public PriceColumn parse(InputStream inputStream) throws IOException, IllegalArgumentException {
+    if (inputStream == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    ReadableByteChannel channel = Channels.newChannel(inputStream);
+    epochDays = new int[initialHistorySize];
+    closes = new long[initialHistorySize];
+    size = 0;
+    buffer.clear();
+    boolean bodyStarted = false;
+    boolean endOfBody = false;
+    while (!endOfBody) {
+      endOfBody = channel.read(buffer) == -1;
+      buffer.flip();
+      if (!bodyStarted) {
+        int first = firstNonWhitespace();
+        if (first >= 0) {
+          bodyStarted = true;
+          if (buffer.get(first) == '{') {
+            throw errorResponse(channel);
+          }
+        }
+      }
+      buffer.position(parseLines(buffer.array(), buffer.position(), buffer.limit(), endOfBody));
+      buffer.compact();
+    }
+    return PriceColumn.of(epochDays, closes, size);
+  }
+
+  /**
+   * private helper to parse every complete line in the given byte range.
+   *
+   * @param bytes      buffered bytes.
+   * @param start      start of the range.
+   * @param end        end of the range, exclusive.
+   * @param endOfBody  whether the range ends the body, completing its last line.
+   * @return start of the first incomplete line.
+   */
+  private int parseLines(byte[] bytes, int start, int end, boolean endOfBody) {
+    int lineStart = start;
+    int index = start;
+    while (index < end) {
+      if (bytes[index] == '\n') {
+        parseLine(bytes, lineStart, index);
+        lineStart = index + 1;
+      }
+      index++;
+    }
+    if (endOfBody && lineStart < end) {
+      parseLine(bytes, lineStart, end);
+      lineStart = end;
+    }
+    if (lineStart == start && end - start == bytes.length) {
+      return end;
+    }
+    return lineStart;
+  }
+
+  /**
+   * private helper to tokenize the date and close fields of one line in place and emit a row.
+   * Lines that are not rows, such as the header, are skipped. Close digits beyond the close
+   * column scale are rounded half up.
+   *
+   * @param bytes     buffered bytes.
+   * @param lineStart start of the line.
+   * @param lineEnd   end of the line, exclusive.
+   */
+  private void parseLine(byte[] bytes, int lineStart, int lineEnd) {
+    int index = lineStart;
+    int year = 0;
+    int month = 0;
+    int day = 0;
+    int part = 0;
+    int digits = 0;
+    for (; index < lineEnd && bytes[index] != ','; index++) {
+      byte b = bytes[index];
+      if (b >= '0' && b <= '9') {
+        if (part == 0) {
+          year = year * 10 + (b - '0');
+        } else if (part == 1) {
+          month = month * 10 + (b - '0');
+        } else {
+          day = day * 10 + (b - '0');
+        }
+        digits++;
+      } else if (b == '-' && part < 2 && digits > 0) {
+        part++;
+        digits = 0;
+      } else if (b != '\r' && b != ' ') {
+        return;
+      }
+    }
+    if (part != 2 || digits == 0 || month < 1 || month > 12 || day < 1 || day > 31) {
+      return;
+    }
+    for (int field = dateField; field < closeField; field++) {
+      while (index < lineEnd && bytes[index] != ',') {
+        index++;
+      }
+      index++;
+    }
+    long close = 0;
+    int fractionDigits = -1;
+    boolean closeParsed = false;
+    boolean roundUp = false;
+    for (; index < lineEnd && bytes[index] != ','; index++) {
+      byte b = bytes[index];
+      if (b >= '0' && b <= '9') {
+        if (fractionDigits < PriceColumn.closeScale) {
+          close = close * 10 + (b - '0');
+          if (fractionDigits >= 0) {
+            fractionDigits++;
+          }
+        } else if (fractionDigits == PriceColumn.closeScale) {
+          roundUp = b >= '5';
+          fractionDigits++;
+        }
+        closeParsed = true;
+      } else if (b == '.' && fractionDigits < 0) {
+        fractionDigits = 0;
+      } else if (b != '\r' && b != ' ') {
+        return;
+      }
+      if (close >= maxWholeClose && fractionDigits < 0) {
+        return;
+      }
+    }
+    if (!closeParsed) {
+      return;
+    }
+    int scale = Math.max(0, Math.min(fractionDigits, PriceColumn.closeScale));
+    close = close * scaleFactors[PriceColumn.closeScale - scale] + (roundUp ? 1 : 0);
+    if (size == epochDays.length) {
+      epochDays = Arrays.copyOf(epochDays, size * 2);
+      closes = Arrays.copyOf(closes, size * 2);
+    }
+    epochDays[size] = epochDay(year, month, day);
+    closes[size] = close;
+    size++;
+  }
+
+  /**
+   * private helper to find the first non whitespace byte in the buffer.
+   *
+   * @return absolute index of the byte, or -1 if there is none.
+   */
+  private int firstNonWhitespace() {
+    for (int i = buffer.position(); i < buffer.limit(); i++) {
+      if (!Character.isWhitespace(buffer.get(i))) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * private helper to read a json error response and turn it into an exception.
+   *
+   * @param channel channel of the rest of the body.
+   * @return exception describing the error response.
+   * @throws IOException if reading the body fails.
+   */
+  private IllegalArgumentException errorResponse(ReadableByteChannel channel)
+          throws IOException {
+    StringBuilder body = new StringBuilder();
+    body.append(StandardCharsets.UTF_8.decode(buffer));
+    buffer.clear();
+    while (body.length() < maxErrorBodyLength && channel.read(buffer) != -1) {
+      buffer.flip();
+      body.append(StandardCharsets.UTF_8.decode(buffer));
+      buffer.clear();
+    }
+    String message = body.toString();
+    if (message.contains(errorIndicator)) {
+      return new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg());
+    }
+    if (message.contains(invalidApiKeyIndicator)) {
+      return new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_API_KEY.getMsg());
+    }
+    return new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_NO_DATA_FOUND.getMsg());
+  }
+
+  /**
+   * Convert a civil date to its epoch-day without allocating a LocalDate.
+   *
+   * @param year  year.
+   * @param month month of year, 1 to 12.
+   * @param day   day of month.
+   * @return days since 1970-01-01.
+   */
+  static int epochDay(int year, int month, int day) {
+    int y = month <= 2 ? year - 1 : year;
+    int era = (y >= 0 ? y : y - 399) / 400;
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097 + dayOfEra - 719468;
+  }
+}
@@ -1,6 +1,7 @@
 package trader.util;
 
 import java.math.BigInteger;
+import java.util.Collection;
 
 import trader.util.equity.Equity;
 
@@ -20,4 +21,59 @@ public interface EquityGenerator {
    */
   Equity generateEquity(String tickerSymbol, TimeStamp timeStamp, BigInteger shares)
           throws RuntimeException;
+
+  /**
+   * Look up the close of a stock on the given timeStamp. A day without a close is reported in
+   * the result rather than thrown.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param timeStamp    timestamp to look up.
+   * @return lookup result.
+   * @throws IllegalArgumentException if invalid input or loading the history failed.
+   */
+  PriceLookup lookupPrice(String tickerSymbol, TimeStamp timeStamp)
+          throws IllegalArgumentException;
+
+  /**
+   * Load the data of the given ticker symbols ahead of generating equities from them.
+   *
+   * @param tickerSymbols ticker symbols to load.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  void prefetch(Collection<String> tickerSymbols) throws IllegalArgumentException;
+
+  /**
+   * Load the data of the given ticker symbols ahead of generating equities from them, up to
+   * the given timeStamp.
+   *
+   * @param tickerSymbols ticker symbols to load.
+   * @param timeStamp     latest timestamp to load.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  void prefetch(Collection<String> tickerSymbols, TimeStamp timeStamp)
+          throws IllegalArgumentException;
+
+  /**
+   * Build the trading calendar shared by the given ticker symbols, loading their data up to the
+   * given timeStamp first.
+   *
+   * @param tickerSymbols ticker symbols of the calendar.
+   * @param timeStamp     latest timestamp to load.
+   * @return trading days shared by every ticker symbol.
+   * @throws IllegalArgumentException if invalid input or loading failed.
+   */
+  TradingCalendar tradingCalendar(Collection<String> tickerSymbols, TimeStamp timeStamp)
+          throws IllegalArgumentException;
+
+  /**
+   * Get the daily price history of a ticker symbol, loading it up to the given timeStamp
+   * first.
+   *
+   * @param tickerSymbol equity tickerSymbol.
+   * @param timeStamp    latest timestamp to load.
+   * @return price history of the equity.
+   * @throws IllegalArgumentException if invalid input or loading failed.
+   */
+  PriceColumn priceColumn(String tickerSymbol, TimeStamp timeStamp)
+          throws IllegalArgumentException;
 }
@@ -0,0 +1,73 @@
+package trader.util;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import trader.ErrorMsg;
+
+/**
+ * This class implements a PriceSource that serves daily closes put into it in memory.
+ */
+public class MemoryPriceSource implements PriceSource {
+  private final Map<String, Map<Integer, Long>> closes;
+
+  /**
+   * Constructor of an empty MemoryPriceSource.
+   */
+  public MemoryPriceSource() {
+    closes = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Put the close of a stock on a trading day, replacing any previous one.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param timeStamp    trading day.
+   * @param close        close price.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public void putClose(String tickerSymbol, TimeStamp timeStamp, Price close)
+          throws IllegalArgumentException {
+    if (tickerSymbol == null || timeStamp == null || close == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    Map<Integer, Long> stockCloses = closes.computeIfAbsent(tickerSymbol,
+        k -> new TreeMap<>());
+    synchronized (stockCloses) {
+      stockCloses.put((int) timeStamp.getLocalDate().toEpochDay(),
+              PriceColumn.toFixedPoint(close.getAmount()));
+    }
+  }
+
+  /**
+   * Load the full daily price history of a stock from memory.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if no close of the stock was put.
+   */
+  @Override
+  public PriceColumn load(String tickerSymbol, TimeStamp coverTime)
+          throws IllegalArgumentException {
+    if (tickerSymbol == null || coverTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    Map<Integer, Long> stockCloses = closes.get(tickerSymbol);
+    if (stockCloses == null) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg());
+    }
+    synchronized (stockCloses) {
+      int[] epochDays = new int[stockCloses.size()];
+      long[] fixedPointCloses = new long[stockCloses.size()];
+      int size = 0;
+      for (Map.Entry<Integer, Long> entry : stockCloses.entrySet()) {
+        epochDays[size] = entry.getKey();
+        fixedPointCloses[size] = entry.getValue();
+        size++;
+      }
+      return PriceColumn.of(epochDays, fixedPointCloses, size);
+    }
+  }
+}
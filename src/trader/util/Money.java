@@ -0,0 +1,190 @@
+package trader.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import trader.ErrorMsg;
+
+/**
+ * This class represents an immutable amount of money as a whole number of micro-units, with
+ * the same scale as the close column of PriceColumn. Arithmetic is exact and reports overflow
+ * instead of wrapping. The static micro helpers let hot loops sum amounts without allocating.
+ */
+public final class Money implements Comparable<Money> {
+  /**
+   * Number of decimal digits kept by a Money amount.
+   */
+  public static final int scale = PriceColumn.closeScale;
+  /**
+   * Money of zero amount.
+   */
+  public static final Money zero = new Money(0);
+  private final long micros;
+
+  /**
+   * Constructor of Money given its micro-units.
+   *
+   * @param micros amount in micro-units.
+   */
+  private Money(long micros) {
+    this.micros = micros;
+  }
+
+  /**
+   * Get Money of the given micro-units.
+   *
+   * @param micros amount in micro-units.
+   * @return Money.
+   */
+  public static Money ofMicros(long micros) {
+    return micros == 0 ? zero : new Money(micros);
+  }
+
+  /**
+   * Get Money of the given amount, rounded half even to the Money scale.
+   *
+   * @param amount amount.
+   * @return Money.
+   * @throws IllegalArgumentException if invalid input or the amount is out of range.
+   */
+  public static Money of(BigDecimal amount) throws IllegalArgumentException {
+    if (amount == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    try {
+      return ofMicros(amount.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue()
+              .longValueExact());
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_OVERFLOW.getMsg());
+    }
+  }
+
+  /**
+   * Add two micro-unit amounts exactly.
+   *
+   * @param augend micro-units to add to.
+   * @param addend micro-units to add.
+   * @return sum in micro-units.
+   * @throws IllegalArgumentException if the sum is out of range.
+   */
+  public static long addMicros(long augend, long addend) throws IllegalArgumentException {
+    try {
+      return Math.addExact(augend, addend);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_OVERFLOW.getMsg());
+    }
+  }
+
+  /**
+   * Multiply a micro-unit amount by a whole quantity exactly.
+   *
+   * @param micros   micro-units.
+   * @param quantity quantity.
+   * @return product in micro-units.
+   * @throws IllegalArgumentException if the product is out of range.
+   */
+  public static long multiplyMicros(long micros, long quantity) throws IllegalArgumentException {
+    try {
+      return Math.multiplyExact(micros, quantity);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_OVERFLOW.getMsg());
+    }
+  }
+
+  /**
+   * Get the amount in micro-units.
+   *
+   * @return micro-units.
+   */
+  public long micros() {
+    return micros;
+  }
+
+  /**
+   * Add the given Money to this one.
+   *
+   * @param addend Money to add.
+   * @return sum.
+   * @throws IllegalArgumentException if invalid input or the sum is out of range.
+   */
+  public Money plus(Money addend) throws IllegalArgumentException {
+    if (addend == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    return ofMicros(addMicros(micros, addend.micros));
+  }
+
+  /**
+   * Multiply this Money by a whole quantity.
+   *
+   * @param quantity quantity.
+   * @return product.
+   * @throws IllegalArgumentException if invalid input or the product is out of range.
+   */
+  public Money times(BigInteger quantity) throws IllegalArgumentException {
+    if (quantity == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (quantity.bitLength() >= Long.SIZE) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_OVERFLOW.getMsg());
+    }
+    return ofMicros(multiplyMicros(micros, quantity.longValue()));
+  }
+
+  /**
+   * Get the amount as a BigDecimal without trailing zeros in its fraction.
+   *
+   * @return amount.
+   */
+  public BigDecimal toBigDecimal() {
+    BigDecimal amount = BigDecimal.valueOf(micros, scale).stripTrailingZeros();
+    return amount.scale() < 0 ? amount.setScale(0) : amount;
+  }
+
+  /**
+   * Override compareTo for Money.
+   *
+   * @param other the other Money to compare with.
+   * @return negative, zero or positive as this is less than, equal to or greater than other.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public int compareTo(Money other) throws IllegalArgumentException {
+    if (other == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    return Long.compare(micros, other.micros);
+  }
+
+  /**
+   * Override equals for Money.
+   *
+   * @param other object to compare with.
+   * @return true if other is Money of the same amount.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof Money && ((Money) other).micros == micros;
+  }
+
+  /**
+   * Override hashCode for Money.
+   *
+   * @return hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Long.hashCode(micros);
+  }
+
+  /**
+   * Override toString for Money.
+   *
+   * @return amount as a plain decimal string.
+   */
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString();
+  }
+}
@@ -0,0 +1,182 @@
+package trader.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+
+/**
+ * This class represents the daily close history of one stock as two parallel columns: an
+ * ascending epoch-day int column and a fixed-point long close column. The columns are either
+ * backed by heap arrays or by a memory-mapped price file, and lookups never allocate.
+ */
+public class PriceColumn {
+  /**
+   * Number of decimal digits kept by the fixed-point close column.
+   */
+  public static final int closeScale = 6;
+  private final IntBuffer epochDays;
+  private final LongBuffer closes;
+  private final int size;
+
+  /**
+   * Constructor of PriceColumn given its columns.
+   *
+   * @param epochDays ascending epoch-day column.
+   * @param closes    fixed-point close column.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  PriceColumn(IntBuffer epochDays, LongBuffer closes) throws IllegalArgumentException {
+    if (epochDays == null || closes == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (epochDays.limit() != closes.limit()) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
+    }
+    this.epochDays = epochDays;
+    this.closes = closes;
+    this.size = epochDays.limit();
+  }
+
+  /**
+   * Build a heap backed PriceColumn from unordered dates and closes.
+   *
+   * @param epochDays epoch-day of each row.
+   * @param closes    fixed-point close of each row.
+   * @param size      number of rows in use.
+   * @return PriceColumn sorted by date.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public static PriceColumn of(int[] epochDays, long[] closes, int size)
+          throws IllegalArgumentException {
+    if (epochDays == null || closes == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    int[] sortedDays = new int[size];
+    long[] sortedCloses = new long[size];
+    boolean descending = true;
+    for (int i = 1; i < size && descending; i++) {
+      descending = epochDays[i] < epochDays[i - 1];
+    }
+    if (descending) {
+      for (int i = 0; i < size; i++) {
+        sortedDays[i] = epochDays[size - 1 - i];
+        sortedCloses[i] = closes[size - 1 - i];
+      }
+    } else {
+      long[] keyed = new long[size];
+      for (int i = 0; i < size; i++) {
+        keyed[i] = ((long) epochDays[i] << 32) | i;
+      }
+      Arrays.sort(keyed);
+      for (int i = 0; i < size; i++) {
+        int row = (int) keyed[i];
+        sortedDays[i] = epochDays[row];
+        sortedCloses[i] = closes[row];
+      }
+    }
+    return new PriceColumn(IntBuffer.wrap(sortedDays), LongBuffer.wrap(sortedCloses));
+  }
+
+  /**
+   * Convert a close price to the fixed-point representation of the close column.
+   *
+   * @param close close price.
+   * @return fixed-point close.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public static long toFixedPoint(BigDecimal close) throws IllegalArgumentException {
+    if (close == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    try {
+      return close.setScale(closeScale, RoundingMode.HALF_EVEN).unscaledValue()
+              .longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_INIT_STOCK_INVALID_PRICE.getMsg());
+    }
+  }
+
+  /**
+   * Get number of trading days in the column.
+   *
+   * @return number of rows.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Get epoch-day of the given row.
+   *
+   * @param index row index.
+   * @return epoch-day.
+   */
+  public int epochDay(int index) {
+    return epochDays.get(index);
+  }
+
+  /**
+   * Get fixed-point close of the given row.
+   *
+   * @param index row index.
+   * @return fixed-point close with closeScale decimal digits.
+   */
+  public long close(int index) {
+    return closes.get(index);
+  }
+
+  /**
+   * Get the close of the given row as a USDPrice.
+   *
+   * @param index row index.
+   * @return close price.
+   */
+  public USDPrice price(int index) {
+    return new USDPrice(Money.ofMicros(closes.get(index)));
+  }
+
+  /**
+   * Binary search the row of the given epoch-day.
+   *
+   * @param epochDay epoch-day to find.
+   * @return row index if found, otherwise (-(insertion point) - 1).
+   */
+  public int indexOf(int epochDay) {
+    int low = 0;
+    int high = size - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      int midDay = epochDays.get(mid);
+      if (midDay < epochDay) {
+        low = mid + 1;
+      } else if (midDay > epochDay) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * Get the epoch-day column, shared and read only.
+   *
+   * @return epoch-day column.
+   */
+  IntBuffer epochDays() {
+    return epochDays.asReadOnlyBuffer();
+  }
+
+  /**
+   * Get the close column, shared and read only.
+   *
+   * @return close column.
+   */
+  LongBuffer closes() {
+    return closes.asReadOnlyBuffer();
+  }
+}
@@ -0,0 +1,128 @@
+package trader.util;
+
+import trader.ErrorMsg;
+
+/**
+ * This class is the result of looking up the close of a stock on a day, which either found
+ * the fixed-point close or tells why there is none, without throwing. Loops that may ask for
+ * days without a price check the status, and only callers reporting to the user turn a miss
+ * into an exception.
+ */
+public final class PriceLookup {
+  private static final PriceLookup holiday = new PriceLookup(Status.HOLIDAY, 0);
+  private static final PriceLookup futureTimeStamp = new PriceLookup(Status.FUTURE_TIME_STAMP, 0);
+  private final Status status;
+  private final long micros;
+
+  /**
+   * Outcome of a price lookup.
+   */
+  public enum Status {
+    /**
+     * The day has a close.
+     */
+    FOUND(null),
+    /**
+     * The day is within the history of the stock but it was not traded.
+     */
+    HOLIDAY(ErrorMsg.FAIL_CRAW_DATA_HOLIDAY_TIME_STAMP),
+    /**
+     * The day is before the history of the stock.
+     */
+    FUTURE_TIME_STAMP(ErrorMsg.FAIL_CRAW_DATA_FUTURE_TIME_STAMP);
+
+    private final ErrorMsg errorMsg;
+
+    /**
+     * Constructor of Status.
+     *
+     * @param errorMsg error reported for the status, null if there is none.
+     */
+    Status(ErrorMsg errorMsg) {
+      this.errorMsg = errorMsg;
+    }
+  }
+
+  /**
+   * Constructor of PriceLookup.
+   *
+   * @param status status of the lookup.
+   * @param micros fixed-point close, zero if none was found.
+   */
+  private PriceLookup(Status status, long micros) {
+    this.status = status;
+    this.micros = micros;
+  }
+
+  /**
+   * Look up the close of the given epoch-day in a price column. Misses share one result per
+   * status, so only found closes allocate.
+   *
+   * @param column   price column of the stock.
+   * @param epochDay epoch-day to look up.
+   * @return lookup result.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public static PriceLookup of(PriceColumn column, long epochDay)
+          throws IllegalArgumentException {
+    if (column == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    int index = column.indexOf((int) Math.max(Math.min(epochDay, Integer.MAX_VALUE),
+            Integer.MIN_VALUE));
+    if (index >= 0) {
+      return new PriceLookup(Status.FOUND, column.close(index));
+    }
+    return index == -1 ? futureTimeStamp : holiday;
+  }
+
+  /**
+   * Get the status of the lookup.
+   *
+   * @return status.
+   */
+  public Status getStatus() {
+    return status;
+  }
+
+  /**
+   * Check whether a close was found.
+   *
+   * @return whether a close was found.
+   */
+  public boolean isFound() {
+    return status == Status.FOUND;
+  }
+
+  /**
+   * Get the close found.
+   *
+   * @return fixed-point close, zero if none was found.
+   */
+  public long micros() {
+    return micros;
+  }
+
+  /**
+   * Get the close found, or report why there is none.
+   *
+   * @return fixed-point close.
+   * @throws IllegalArgumentException if no close was found.
+   */
+  public long microsOrThrow() throws IllegalArgumentException {
+    if (status.errorMsg != null) {
+      throw new IllegalArgumentException(status.errorMsg.getMsg());
+    }
+    return micros;
+  }
+
+  /**
+   * Get the close found as a USDPrice, or report why there is none.
+   *
+   * @return close price.
+   * @throws IllegalArgumentException if no close was found.
+   */
+  public USDPrice priceOrThrow() throws IllegalArgumentException {
+    return new USDPrice(Money.ofMicros(microsOrThrow()));
+  }
+}
@@ -0,0 +1,17 @@
+package trader.util;
+
+/**
+ * This interface represents a provider of daily stock price histories.
+ */
+public interface PriceSource {
+
+  /**
+   * Load the full daily price history of a stock.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if loading failed.
+   */
+  PriceColumn load(String tickerSymbol, TimeStamp coverTime) throws IllegalArgumentException;
+}
@@ -0,0 +1,143 @@
+package trader.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+import trader.ErrorMsg;
+
+/**
+ * This class persists daily stock histories to local price files, one file per ticker symbol,
+ * so that downloaded prices survive restarts. A price file holds a fixed header followed by the
+ * epoch-day column and the fixed-point close column of a PriceColumn, and is read back by
+ * memory-mapping it.
+ */
+public class PriceStore {
+  private static final String defaultStorePath = "res/Prices";
+  private static final String storeFileSuffix = ".bin";
+  private static final int storeMagic = 0x42415453;
+  private static final int storeVersion = 2;
+  private static final int headerSize = 16;
+  private final File storeDir;
+
+  /**
+   * Constructor of PriceStore at the default store path.
+   */
+  public PriceStore() {
+    this(defaultStorePath);
+  }
+
+  /**
+   * Constructor of PriceStore at the given store path.
+   *
+   * @param storePath directory to keep price files in.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public PriceStore(String storePath) throws IllegalArgumentException {
+    if (storePath == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.storeDir = new File(storePath);
+  }
+
+  /**
+   * Map the stored history of the given ticker symbol if it covers the given date.
+   * A history downloaded on or before the date may miss it, so it is treated as absent, and so
+   * is the history of an invalid ticker symbol, which cannot name a price file.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param coverDate    date the stored history has to cover.
+   * @return memory-mapped PriceColumn, or null if no usable history is stored.
+   */
+  public PriceColumn read(String tickerSymbol, LocalDate coverDate) {
+    if (!TickerSymbols.isValid(tickerSymbol)) {
+      return null;
+    }
+    File storeFile = storeFile(tickerSymbol);
+    if (!storeFile.isFile()) {
+      return null;
+    }
+    try (RandomAccessFile file = new RandomAccessFile(storeFile, "r");
+         FileChannel channel = file.getChannel()) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < headerSize || buffer.getInt(0) != storeMagic
+              || buffer.getInt(4) != storeVersion) {
+        return null;
+      }
+      int size = buffer.getInt(8);
+      int fetchEpochDay = buffer.getInt(12);
+      if (size < 0 || buffer.limit() != headerSize + size * 12L
+              || coverDate.toEpochDay() >= fetchEpochDay) {
+        return null;
+      }
+      buffer.position(headerSize);
+      IntBuffer epochDays = buffer.slice().asIntBuffer();
+      epochDays.limit(size);
+      buffer.position(headerSize + size * 4);
+      LongBuffer closes = buffer.slice().asLongBuffer();
+      return new PriceColumn(epochDays, closes);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Write the full history of the given ticker symbol, replacing any stored one.
+   * Failing to write only costs a later download, so errors are ignored, and the history of an
+   * invalid ticker symbol, which cannot name a price file, is not written.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @param column       full price history of the stock.
+   */
+  public void write(String tickerSymbol, PriceColumn column) {
+    if (!TickerSymbols.isValid(tickerSymbol)) {
+      return;
+    }
+    if (!storeDir.isDirectory() && !storeDir.mkdirs()) {
+      return;
+    }
+    int size = column.size();
+    ByteBuffer buffer = ByteBuffer.allocate(headerSize + size * 12);
+    buffer.putInt(storeMagic).putInt(storeVersion).putInt(size)
+            .putInt((int) LocalDate.now().toEpochDay());
+    buffer.asIntBuffer().put(column.epochDays());
+    buffer.position(headerSize + size * 4);
+    buffer.asLongBuffer().put(column.closes());
+    buffer.rewind();
+    File storeFile = storeFile(tickerSymbol);
+    File tempFile = new File(storeDir, tickerSymbol + storeFileSuffix + ".tmp");
+    try (RandomAccessFile file = new RandomAccessFile(tempFile, "rw");
+         FileChannel channel = file.getChannel()) {
+      channel.truncate(0);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException | RuntimeException e) {
+      tempFile.delete();
+      return;
+    }
+    try {
+      Files.move(tempFile.toPath(), storeFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      tempFile.delete();
+    }
+  }
+
+  /**
+   * private helper to locate the store file of a ticker symbol, which has to be valid.
+   *
+   * @param tickerSymbol stock tickerSymbol.
+   * @return store file.
+   */
+  private File storeFile(String tickerSymbol) {
+    return new File(storeDir, tickerSymbol + storeFileSuffix);
+  }
+}
@@ -0,0 +1,184 @@
+package trader.util;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32;
+
+import trader.ErrorMsg;
+
+/**
+ * This class reads and writes versioned binary snapshot files. A snapshot is a header of magic,
+ * version, kind, payload length and CRC32 of the payload, followed by the payload. It is written
+ * to a temporary file that then replaces the snapshot, and read back with one bulk read. Numeric
+ * columns are stored as zigzag variable-length longs, so small values take a single byte.
+ */
+public final class SnapshotFile {
+  /**
+   * Kind of the snapshot of a portfolio.
+   */
+  public static final int portfolioKind = 1;
+  /**
+   * Kind of the snapshot of a strategy.
+   */
+  public static final int strategyKind = 2;
+  private static final int snapshotMagic = 0x42415350;
+  private static final int snapshotVersion = 1;
+  private static final int headerSize = 20;
+
+  /**
+   * Constructor of SnapshotFile, not to be instantiated.
+   */
+  private SnapshotFile() {
+  }
+
+  /**
+   * Write a snapshot file.
+   *
+   * @param filePath path of the snapshot file.
+   * @param kind     kind of the snapshot.
+   * @param payload  payload of the snapshot.
+   * @throws IllegalArgumentException if invalid input or write fails.
+   */
+  public static void write(String filePath, int kind, byte[] payload)
+          throws IllegalArgumentException {
+    if (filePath == null || payload == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+    ByteBuffer snapshot = ByteBuffer.allocate(headerSize + payload.length);
+    snapshot.putInt(snapshotMagic).putInt(snapshotVersion).putInt(kind)
+            .putInt(payload.length).putInt((int) crc.getValue()).put(payload);
+    Path target = new File(filePath).toPath();
+    Path temporary = new File(filePath + ".tmp").toPath();
+    try {
+      Files.write(temporary, snapshot.array());
+      try {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_SNAPSHOT.getMsg());
+    }
+  }
+
+  /**
+   * Read a snapshot file and check its header and checksum.
+   *
+   * @param filePath path of the snapshot file.
+   * @param kind     expected kind of the snapshot.
+   * @return payload of the snapshot.
+   * @throws IllegalArgumentException if invalid input, or the snapshot cannot be read or is
+   *                                  corrupted.
+   */
+  public static ByteBuffer read(String filePath, int kind) throws IllegalArgumentException {
+    if (filePath == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    byte[] snapshot;
+    try {
+      snapshot = Files.readAllBytes(new File(filePath).toPath());
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(snapshot);
+    if (snapshot.length < headerSize || buffer.getInt() != snapshotMagic
+            || buffer.getInt() != snapshotVersion || buffer.getInt() != kind) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    int payloadLength = buffer.getInt();
+    int checksum = buffer.getInt();
+    if (payloadLength != snapshot.length - headerSize) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    CRC32 crc = new CRC32();
+    crc.update(snapshot, headerSize, payloadLength);
+    if ((int) crc.getValue() != checksum) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    return buffer.slice();
+  }
+
+  /**
+   * Write a string to a snapshot payload as its UTF-8 length and bytes.
+   *
+   * @param out   payload to write to.
+   * @param value string to write.
+   * @throws IOException if write fails.
+   */
+  public static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Read a string written by writeString from a snapshot payload.
+   *
+   * @param payload payload to read from.
+   * @return string read.
+   * @throws IllegalArgumentException if the payload is corrupted.
+   */
+  public static String readString(ByteBuffer payload) throws IllegalArgumentException {
+    try {
+      int length = payload.getInt();
+      if (length < 0 || length > payload.remaining()) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      byte[] bytes = new byte[length];
+      payload.get(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+  }
+
+  /**
+   * Write a long to a snapshot payload as a zigzag variable-length long of one to ten bytes.
+   *
+   * @param out   payload to write to.
+   * @param value long to write.
+   * @throws IOException if write fails.
+   */
+  public static void writeVarLong(DataOutputStream out, long value) throws IOException {
+    long zigzag = (value << 1) ^ (value >> 63);
+    while ((zigzag & ~0x7fL) != 0) {
+      out.writeByte((int) ((zigzag & 0x7f) | 0x80));
+      zigzag >>>= 7;
+    }
+    out.writeByte((int) zigzag);
+  }
+
+  /**
+   * Read a long written by writeVarLong from a snapshot payload.
+   *
+   * @param payload payload to read from.
+   * @return long read.
+   * @throws IllegalArgumentException if the payload is corrupted.
+   */
+  public static long readVarLong(ByteBuffer payload) throws IllegalArgumentException {
+    try {
+      long zigzag = 0;
+      for (int shift = 0; shift < Long.SIZE; shift += 7) {
+        byte b = payload.get();
+        zigzag |= (long) (b & 0x7f) << shift;
+        if (b >= 0) {
+          return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+      }
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+  }
+}
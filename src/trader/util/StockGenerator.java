@@ -1,15 +1,21 @@
 package trader.util;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import trader.ErrorMsg;
 import trader.util.equity.Equity;
@@ -19,23 +25,43 @@ import trader.util.equity.USStock;
  * This class implements a stock generator implementing EquityGenerator.
  */
 public class StockGenerator implements EquityGenerator {
-  private static final String urlDailyPrefix =
-          "https://www.alphavantage"
-                  + ".co/query?function=TIME_SERIES_DAILY"
-                  + "&outputsize=full";
-  private static final String[] apiKeys = new String[]{"BF756129MBEV817Y", "NR2HJDUJC95IT1BH",
-    "76EFTN30DULF7VOE", "GO9JIZFXN8MKNYC4", "YPQG08FAN5U46T5E"};
-  private static final String errorIndicator = "Error";
-  private static final String invalidApiKeyError = "\"Note\": \"Thank you for " +
-          "using Alpha Vantage! " +
-          "Our standard API call frequency is 5 calls per minute and 500 calls per day. " +
-          "Please visit https://www.alphavantage.co/premium/ " +
-          "if you would like to target a higher API call frequency.\"";
-  private static int counter = 0;
-  private static int realCounter = 0;
-  private static final int maxRealCounter = apiKeys.length;
-  private static final Map<String, Map<String, USDPrice>> dailyStockCache = new HashMap<>();
-  private static final String timeRegex = "^(\n)*([0-9]+\\-[0-9]+\\-[0-9]+)(\n)*$";
+  private static final int prefetchThreads = 5;
+  private static final int maxCachedCalendars = 256;
+  private static final ExecutorService prefetchExecutor =
+          Executors.newFixedThreadPool(prefetchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "stock-prefetch");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final PriceSource priceSource;
+  private final Map<String, PriceColumn> dailyStockCache;
+  private final Map<String, Long> fetchDays;
+  private final Map<String, CompletableFuture<PriceColumn>> inFlightLoads;
+  private final Map<Set<String>, TradingCalendar> tradingCalendars;
+
+  /**
+   * Constructor of StockGenerator over the Alpha Vantage price source.
+   */
+  public StockGenerator() {
+    this(new AlphaVantagePriceSource());
+  }
+
+  /**
+   * Constructor of StockGenerator over the given price source.
+   *
+   * @param priceSource source of daily price histories.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public StockGenerator(PriceSource priceSource) throws IllegalArgumentException {
+    if (priceSource == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.priceSource = priceSource;
+    this.dailyStockCache = new ConcurrentHashMap<>();
+    this.fetchDays = new ConcurrentHashMap<>();
+    this.inFlightLoads = new ConcurrentHashMap<>();
+    this.tradingCalendars = new ConcurrentHashMap<>();
+  }
 
   /**
    * Generate the past equity given tickerSymbol, timeStamp and time.
@@ -55,165 +81,195 @@ public class StockGenerator implements EquityGenerator {
     if (!(timeStamp instanceof TradeTimeStamp)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    if (realCounter > maxRealCounter) {
-      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
-    }
-    String apiKey = apiKeys[counter];
-    TradeTimeStamp tradeTimeStamp = (TradeTimeStamp) timeStamp;
-    updateApiCounter();
-    URL url = buildUrl(tickerSymbol, apiKey);
-    try {
-      Equity res = generateEquityHelper(url, tickerSymbol, tradeTimeStamp, shares);
-      realCounter = 0;
-      return res;
-    } catch (IllegalArgumentException e) {
-      if (e.getMessage().equals(ErrorMsg.FAIL_CRAW_DATA_INVALID_API_KEY.getMsg())) {
-        try {
-          TimeUnit.MINUTES.sleep(1);
-          return generateEquity(tickerSymbol, timeStamp, shares);
-        } catch (Exception err) {
-          throw new IllegalArgumentException(err.getMessage());
-        }
-      } else {
-        realCounter = 0;
-        throw new IllegalArgumentException(e.getMessage());
-      }
-    }
+    return new USStock(tickerSymbol, lookupPrice(tickerSymbol, timeStamp).priceOrThrow(),
+            (TradeTimeStamp) timeStamp, shares);
   }
 
   /**
-   * private helper function to generate equity.
+   * Look up the close of a stock on the given timeStamp, loading its price history if it is not
+   * cached. A day without a close is reported in the result rather than thrown.
    *
-   * @param url          api url.
-   * @param tickerSymbol equity tickerSymbol.
-   * @param timeStamp    buy in timeStamp.
-   * @param shares       shares to generate.
-   * @return Equity generated.
-   * @throws IllegalArgumentException if invalid input.
+   * @param tickerSymbol stock tickerSymbol.
+   * @param timeStamp    timestamp to look up.
+   * @return lookup result.
+   * @throws IllegalArgumentException if invalid input or loading the history failed.
    */
-  private Equity generateEquityHelper(URL url, String tickerSymbol,
-                                      TradeTimeStamp timeStamp, BigInteger shares)
+  @Override
+  public PriceLookup lookupPrice(String tickerSymbol, TimeStamp timeStamp)
           throws IllegalArgumentException {
-    if (dailyStockCache.containsKey(tickerSymbol)) {
-      return extractStockCache(tickerSymbol, timeStamp, shares);
-    }
-    InputStream inputStream;
-    StringBuilder output = new StringBuilder();
-    LocalDate matchDate = LocalDate.parse(timeStamp.toString());
-    Equity res = null;
-    try {
-      inputStream = url.openStream();
-      int ch;
-      while ((ch = inputStream.read()) != -1) {
-        if ((char) ch == '\n') {
-          String line = output.toString();
-          if (line.contains(errorIndicator)) {
-            throw new IllegalArgumentException(
-                    ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg());
-          }
-          if (line.contains(invalidApiKeyError)) {
-            throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_INVALID_API_KEY.getMsg());
-          }
-          String[] stockData = line.split(",");
-          String toMatchTime = stockData[0].replace("\n", "").trim();
-          if (toMatchTime.matches(timeRegex)) {
-            LocalDate cacheDate = LocalDate.parse(toMatchTime);
-            USDPrice price = generatePrice(stockData);
-            updateStockCache(tickerSymbol, cacheDate.toString(), price);
-            if (matchDate.compareTo(cacheDate) == 0) {
-              res = new USStock(tickerSymbol, generatePrice(stockData), timeStamp, shares);
-            } else if (matchDate.compareTo(cacheDate) > 0 && res == null) {
-              throw new IllegalArgumentException(
-                      ErrorMsg.FAIL_CRAW_DATA_HOLIDAY_TIME_STAMP.getMsg());
-            }
-          }
-          output = new StringBuilder();
-        }
-        output.append((char) ch);
-      }
-    } catch (IOException e) {
-      throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_NO_DATA_FOUND.getMsg());
+    if (tickerSymbol == null || timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (res != null) {
-      return res;
+    if (!(timeStamp instanceof TradeTimeStamp)) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_FUTURE_TIME_STAMP.getMsg());
+    TradeTimeStamp tradeTimeStamp = (TradeTimeStamp) timeStamp;
+    return PriceLookup.of(loadColumn(tickerSymbol, tradeTimeStamp), tradeTimeStamp.epochDay());
   }
 
   /**
-   * private helper function to update api counter.
+   * Load the price histories of the given ticker symbols into the cache, concurrently,
+   * so that they are covered up to yesterday.
+   *
+   * @param tickerSymbols ticker symbols to load.
+   * @throws IllegalArgumentException if invalid input.
    */
-  private static void updateApiCounter() {
-    counter++;
-    realCounter++;
-    if (counter == apiKeys.length) {
-      counter = 0;
-    }
+  @Override
+  public void prefetch(Collection<String> tickerSymbols) throws IllegalArgumentException {
+    prefetch(tickerSymbols, TradeTimeStamp.of(LocalDate.now().minusDays(1)));
   }
 
   /**
-   * private helper function to build url.
+   * Load the price histories of the given ticker symbols into the cache, concurrently,
+   * so that they are covered up to the given timeStamp. Tickers that fail to load are left
+   * out; generating equity from them reports the failure.
    *
-   * @param tickerSymbol tickerSymbol.
-   * @param apiKey       apiKey.
-   * @return URL.
-   * @throws RuntimeException if MalformedURL.
+   * @param tickerSymbols ticker symbols to load.
+   * @param timeStamp     latest timestamp the histories have to cover.
+   * @throws IllegalArgumentException if invalid input.
    */
-  private URL buildUrl(String tickerSymbol, String apiKey)
-          throws RuntimeException {
-    URL url;
-    try {
-      url = new URL(urlDailyPrefix + "&symbol=" + tickerSymbol +
-              "&apikey=" + apiKey + "&datatype=csv");
-    } catch (MalformedURLException e) {
-      throw new RuntimeException(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg());
+  @Override
+  public void prefetch(Collection<String> tickerSymbols, TimeStamp timeStamp)
+          throws IllegalArgumentException {
+    if (tickerSymbols == null || timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    List<Future<PriceColumn>> loads = new ArrayList<>();
+    for (String tickerSymbol : new LinkedHashSet<>(tickerSymbols)) {
+      PriceColumn column = dailyStockCache.get(tickerSymbol);
+      if (column == null || isStale(tickerSymbol, column, timeStamp)) {
+        loads.add(prefetchExecutor.submit(() -> loadColumn(tickerSymbol, timeStamp)));
+      }
+    }
+    for (Future<PriceColumn> load : loads) {
+      try {
+        load.get();
+      } catch (ExecutionException e) {
+        continue;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
     }
-    return url;
   }
 
   /**
-   * private helper to generatePrice.
+   * Get the daily price history of a stock from the cache, or else load it up to the given
+   * timeStamp.
    *
-   * @param stockData stockData.
-   * @return Price generated with given stockData.
+   * @param tickerSymbol stock tickerSymbol.
+   * @param timeStamp    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if invalid input or loading failed.
    */
-  private USDPrice generatePrice(String[] stockData) {
-    BigDecimal close = new BigDecimal(stockData[4]);
-    return new USDPrice(close);
+  @Override
+  public PriceColumn priceColumn(String tickerSymbol, TimeStamp timeStamp)
+          throws IllegalArgumentException {
+    if (tickerSymbol == null || timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    return loadColumn(tickerSymbol, timeStamp);
   }
 
   /**
-   * update StockCache to prevent excessive api calls.
+   * Build the trading calendar shared by the given ticker symbols, loading their price
+   * histories up to the given timeStamp first. Calendars are cached per set of ticker symbols
+   * until one of their histories is loaded again.
    *
-   * @param tickerSymbol   tickerSymbol of Stock.
-   * @param cacheTimeStamp timeStamp to store.
-   * @param unitPrice      price of stock.
+   * @param tickerSymbols ticker symbols of the calendar.
+   * @param timeStamp     latest timestamp the histories have to cover.
+   * @return trading days shared by every ticker symbol.
+   * @throws IllegalArgumentException if invalid input or loading failed.
    */
-  private void updateStockCache(String tickerSymbol,
-                                String cacheTimeStamp, USDPrice unitPrice) {
-    dailyStockCache.putIfAbsent(tickerSymbol, new HashMap<>());
-    Map<String, USDPrice> stockMap = dailyStockCache.get(tickerSymbol);
-    stockMap.put(cacheTimeStamp, unitPrice);
+  @Override
+  public TradingCalendar tradingCalendar(Collection<String> tickerSymbols, TimeStamp timeStamp)
+          throws IllegalArgumentException {
+    if (tickerSymbols == null || timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    Set<String> calendarTickerSymbols = new HashSet<>(tickerSymbols);
+    prefetch(calendarTickerSymbols, timeStamp);
+    TradingCalendar tradingCalendar = tradingCalendars.get(calendarTickerSymbols);
+    if (tradingCalendar != null) {
+      return tradingCalendar;
+    }
+    List<PriceColumn> columns = new ArrayList<>();
+    for (String tickerSymbol : calendarTickerSymbols) {
+      columns.add(loadColumn(tickerSymbol, timeStamp));
+    }
+    tradingCalendar = new TradingCalendar(columns);
+    if (tradingCalendars.size() >= maxCachedCalendars) {
+      tradingCalendars.clear();
+    }
+    tradingCalendars.put(calendarTickerSymbols, tradingCalendar);
+    return tradingCalendar;
   }
 
   /**
-   * private helper function to extract stock from cache.
+   * private helper function to get the price history of a stock from the cache, or else load
+   * it from the price source. A cached history that is stale for the given timestamp is loaded
+   * again, and the calendars built from it are dropped. Concurrent callers for the same ticker
+   * symbol share one in-flight load.
    *
-   * @param tickerSymbol stock tickerSymbol.
-   * @param timeStamp    time stamp to init.
-   * @param shares       shares to init.
-   * @return Equity generated from cache.
-   * @throws IllegalArgumentException if stock queried on holiday.
+   * @param tickerSymbol equity tickerSymbol.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return price history of the stock.
+   * @throws IllegalArgumentException if loading failed.
    */
-  private Equity extractStockCache(String tickerSymbol,
-                                   TradeTimeStamp timeStamp, BigInteger shares)
+  private PriceColumn loadColumn(String tickerSymbol, TimeStamp coverTime)
           throws IllegalArgumentException {
-    Map<String, USDPrice> stockMap = dailyStockCache.get(tickerSymbol);
-    String matchingDate = timeStamp.toString();
-    if (stockMap.containsKey(matchingDate)) {
-      USDPrice unitPrice = stockMap.get(matchingDate);
-      return new USStock(tickerSymbol, unitPrice, timeStamp, shares);
+    PriceColumn column = dailyStockCache.get(tickerSymbol);
+    if (column != null && !isStale(tickerSymbol, column, coverTime)) {
+      return column;
+    }
+    CompletableFuture<PriceColumn> load = new CompletableFuture<>();
+    CompletableFuture<PriceColumn> inFlightLoad = inFlightLoads.putIfAbsent(tickerSymbol, load);
+    if (inFlightLoad != null) {
+      try {
+        return inFlightLoad.join();
+      } catch (CompletionException e) {
+        throw new IllegalArgumentException(e.getCause().getMessage());
+      }
+    }
+    try {
+      column = dailyStockCache.get(tickerSymbol);
+      if (column == null || isStale(tickerSymbol, column, coverTime)) {
+        boolean reload = column != null;
+        column = priceSource.load(tickerSymbol, coverTime);
+        fetchDays.put(tickerSymbol, LocalDate.now().toEpochDay());
+        dailyStockCache.put(tickerSymbol, column);
+        if (reload) {
+          tradingCalendars.keySet().removeIf(calendar -> calendar.contains(tickerSymbol));
+        }
+      }
+      load.complete(column);
+      return column;
+    } catch (RuntimeException e) {
+      load.completeExceptionally(e);
+      throw e;
+    } finally {
+      inFlightLoads.remove(tickerSymbol, load);
+    }
+  }
+
+  /**
+   * private helper to check whether a cached price history has to be loaded again to cover the
+   * given timestamp. It does if it ends before the timestamp and was fetched on an earlier day
+   * than today, no later than the timestamp, since prices for the timestamp may have arrived
+   * after it was fetched. A history is fetched at most once a day.
+   *
+   * @param tickerSymbol equity tickerSymbol.
+   * @param column       cached price history.
+   * @param coverTime    latest timestamp the history has to cover.
+   * @return whether the history is stale.
+   */
+  private boolean isStale(String tickerSymbol, PriceColumn column, TimeStamp coverTime) {
+    long coverDay = coverTime.getLocalDate().toEpochDay();
+    if (column.size() > 0 && column.epochDay(column.size() - 1) >= coverDay) {
+      return false;
     }
-    throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_HOLIDAY_TIME_STAMP.getMsg());
+    Long fetchDay = fetchDays.get(tickerSymbol);
+    return fetchDay == null
+            || (fetchDay <= coverDay && fetchDay < LocalDate.now().toEpochDay());
   }
 }
@@ -0,0 +1,28 @@
+package trader.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * This class checks ticker symbols before they are used to name local files. A valid ticker
+ * symbol starts with a letter or digit and holds only letters, digits, dots and dashes, so it
+ * can never name a path outside the directory it is joined to.
+ */
+public final class TickerSymbols {
+  private static final Pattern tickerSymbolPattern = Pattern.compile("[A-Za-z0-9][A-Za-z0-9.\\-]*");
+
+  /**
+   * Constructor of TickerSymbols, which only has static helpers.
+   */
+  private TickerSymbols() {
+  }
+
+  /**
+   * Check whether the given string is a valid ticker symbol.
+   *
+   * @param tickerSymbol string to check.
+   * @return whether it is a valid ticker symbol.
+   */
+  public static boolean isValid(String tickerSymbol) {
+    return tickerSymbol != null && tickerSymbolPattern.matcher(tickerSymbol).matches();
+  }
+}
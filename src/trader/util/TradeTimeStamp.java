@@ -2,13 +2,21 @@ package trader.util;
 
 import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import trader.ErrorMsg;
 
 /**
- * This class represents a general timestamp.
+ * This class represents a general timestamp. The date is kept as an epoch-day, so comparing,
+ * equating and hashing timestamps never allocate. Timestamps of common dates are interned by
+ * the of factories.
  */
 public class TradeTimeStamp implements TimeStamp {
+  private static final long firstInternedDay = LocalDate.of(1990, 1, 1).toEpochDay();
+  private static final long lastInternedDay = LocalDate.of(2049, 12, 31).toEpochDay();
+  private static final AtomicReferenceArray<TradeTimeStamp> internedTimeStamps =
+          new AtomicReferenceArray<>((int) (lastInternedDay - firstInternedDay + 1));
+  private final long epochDay;
   private final LocalDate localDate;
 
   /**
@@ -26,6 +34,7 @@ public class TradeTimeStamp implements TimeStamp {
     } catch (DateTimeException e) {
       throw new IllegalArgumentException(ErrorMsg.FAIL_TIME_STAMP_INIT_INVALID_DATETIME.getMsg());
     }
+    this.epochDay = localDate.toEpochDay();
   }
 
   /**
@@ -39,6 +48,7 @@ public class TradeTimeStamp implements TimeStamp {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     this.localDate = date;
+    this.epochDay = date.toEpochDay();
   }
 
   /**
@@ -51,7 +61,49 @@ public class TradeTimeStamp implements TimeStamp {
     if (timeStamp == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    this.localDate = timeStamp.getLocalDate();
+    this.localDate = timeStamp.localDate;
+    this.epochDay = timeStamp.epochDay;
+  }
+
+  /**
+   * Get the TradeTimeStamp of the given epoch-day, interned if the date is a common one.
+   *
+   * @param epochDay days since 1970-01-01.
+   * @return TradeTimeStamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public static TradeTimeStamp of(long epochDay) throws IllegalArgumentException {
+    if (epochDay < firstInternedDay || epochDay > lastInternedDay) {
+      try {
+        return new TradeTimeStamp(LocalDate.ofEpochDay(epochDay));
+      } catch (DateTimeException e) {
+        throw new IllegalArgumentException(
+                ErrorMsg.FAIL_TIME_STAMP_INIT_INVALID_DATETIME.getMsg());
+      }
+    }
+    int index = (int) (epochDay - firstInternedDay);
+    TradeTimeStamp timeStamp = internedTimeStamps.get(index);
+    if (timeStamp == null) {
+      timeStamp = new TradeTimeStamp(LocalDate.ofEpochDay(epochDay));
+      if (!internedTimeStamps.compareAndSet(index, null, timeStamp)) {
+        timeStamp = internedTimeStamps.get(index);
+      }
+    }
+    return timeStamp;
+  }
+
+  /**
+   * Get the TradeTimeStamp of the given date, interned if the date is a common one.
+   *
+   * @param date LocalDate of the timestamp.
+   * @return TradeTimeStamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public static TradeTimeStamp of(LocalDate date) throws IllegalArgumentException {
+    if (date == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    return of(date.toEpochDay());
   }
 
   /**
@@ -61,7 +113,16 @@ public class TradeTimeStamp implements TimeStamp {
    */
   @Override
   public LocalDate getLocalDate() {
-    return LocalDate.of(localDate.getYear(), localDate.getMonth(), localDate.getDayOfMonth());
+    return localDate;
+  }
+
+  /**
+   * Get the date as an epoch-day.
+   *
+   * @return days since 1970-01-01.
+   */
+  public long epochDay() {
+    return epochDay;
   }
 
   /**
@@ -76,9 +137,33 @@ public class TradeTimeStamp implements TimeStamp {
     if (toBeCompared == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
+    if (toBeCompared instanceof TradeTimeStamp) {
+      return Long.compare(epochDay, ((TradeTimeStamp) toBeCompared).epochDay);
+    }
     return this.localDate.compareTo(toBeCompared.getLocalDate());
   }
 
+  /**
+   * Override equals for TradeTimeStamp.
+   *
+   * @param other object to compare with.
+   * @return true if other is a TradeTimeStamp of the same date.
+   */
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof TradeTimeStamp && ((TradeTimeStamp) other).epochDay == epochDay;
+  }
+
+  /**
+   * Override hashCode for TradeTimeStamp.
+   *
+   * @return hash code.
+   */
+  @Override
+  public int hashCode() {
+    return Long.hashCode(epochDay);
+  }
+
   /**
    * Override toString for TradeTimeStamp.
    *
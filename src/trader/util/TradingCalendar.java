@@ -0,0 +1,152 @@
+package trader.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import trader.ErrorMsg;
+
+/**
+ * This class represents the trading days shared by a set of stocks, as one ascending
+ * epoch-day array. A day is a trading day when every stock of the set has a close on it, so
+ * holidays and days before any of the histories start are left out. Lookups are binary
+ * searches and never allocate.
+ */
+public class TradingCalendar {
+  /**
+   * Epoch-day returned when there is no trading day to answer with.
+   */
+  public static final int noTradingDay = Integer.MIN_VALUE;
+  private final int[] tradingDays;
+  private final int firstCoveredDay;
+
+  /**
+   * Constructor of TradingCalendar as the intersection of the given price histories.
+   *
+   * @param columns price histories of the stocks.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public TradingCalendar(Collection<PriceColumn> columns) throws IllegalArgumentException {
+    if (columns == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    int latestStart = noTradingDay;
+    for (PriceColumn column : columns) {
+      if (column == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      if (column.size() > 0) {
+        latestStart = Math.max(latestStart, column.epochDay(0));
+      }
+    }
+    int[] days = null;
+    int size = 0;
+    int lastPartialDay = noTradingDay;
+    for (PriceColumn column : columns) {
+      int startIndex = column.indexOf(latestStart);
+      int previousRow = (startIndex >= 0 ? startIndex : -startIndex - 1) - 1;
+      if (previousRow >= 0) {
+        lastPartialDay = Math.max(lastPartialDay, column.epochDay(previousRow));
+      }
+      if (days == null) {
+        days = new int[column.size()];
+        for (int i = 0; i < days.length; i++) {
+          days[i] = column.epochDay(i);
+        }
+        size = days.length;
+      } else {
+        size = intersect(days, size, column);
+      }
+    }
+    tradingDays = days == null ? new int[0] : Arrays.copyOf(days, size);
+    if (tradingDays.length == 0) {
+      firstCoveredDay = noTradingDay;
+    } else if (lastPartialDay == noTradingDay) {
+      firstCoveredDay = latestStart;
+    } else {
+      firstCoveredDay = lastPartialDay + 1;
+    }
+  }
+
+  /**
+   * Get number of trading days in the calendar.
+   *
+   * @return number of trading days.
+   */
+  public int size() {
+    return tradingDays.length;
+  }
+
+  /**
+   * Get the first day covered by every price history. Holidays right before the first trading
+   * day are covered, days on which only some of the stocks traded are not.
+   *
+   * @return epoch-day of the first covered day, or noTradingDay if the calendar is empty.
+   */
+  public int firstCoveredDay() {
+    return firstCoveredDay;
+  }
+
+  /**
+   * Check whether the given day is a trading day.
+   *
+   * @param epochDay epoch-day to check.
+   * @return true if every stock has a close on the day.
+   */
+  public boolean isTradingDay(int epochDay) {
+    return Arrays.binarySearch(tradingDays, epochDay) >= 0;
+  }
+
+  /**
+   * Find the next trading day on or after the given day.
+   *
+   * @param epochDay epoch-day to start from.
+   * @return epoch-day of the next trading day, or noTradingDay if there is none.
+   */
+  public int nextTradingDay(int epochDay) {
+    int index = Arrays.binarySearch(tradingDays, epochDay);
+    if (index < 0) {
+      index = -index - 1;
+    }
+    return index < tradingDays.length ? tradingDays[index] : noTradingDay;
+  }
+
+  /**
+   * Find the last trading day on or before the given day.
+   *
+   * @param epochDay epoch-day to start from.
+   * @return epoch-day of the previous trading day, or noTradingDay if there is none.
+   */
+  public int previousTradingDay(int epochDay) {
+    int index = Arrays.binarySearch(tradingDays, epochDay);
+    if (index < 0) {
+      index = -index - 2;
+    }
+    return index >= 0 ? tradingDays[index] : noTradingDay;
+  }
+
+  /**
+   * private helper to keep only the days that the column also trades on, in place.
+   *
+   * @param days   ascending days kept so far.
+   * @param size   number of days kept so far.
+   * @param column price history to intersect with.
+   * @return number of days kept.
+   */
+  private static int intersect(int[] days, int size, PriceColumn column) {
+    int kept = 0;
+    int row = 0;
+    for (int i = 0; i < size && row < column.size(); ) {
+      int columnDay = column.epochDay(row);
+      if (columnDay < days[i]) {
+        row++;
+      } else if (columnDay > days[i]) {
+        i++;
+      } else {
+        days[kept++] = days[i];
+        i++;
+        row++;
+      }
+    }
+    return kept;
+  }
+}
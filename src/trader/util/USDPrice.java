@@ -9,7 +9,7 @@ import trader.ErrorMsg;
  * This class represent price in USD format.
  */
 public class USDPrice implements Price {
-  private final BigDecimal priceAmount;
+  private final Money priceAmount;
   private static final NumberFormat format = NumberFormat.getCurrencyInstance();
 
   /**
@@ -19,10 +19,20 @@ public class USDPrice implements Price {
    * @throws IllegalArgumentException if invalid input.
    */
   public USDPrice(BigDecimal priceAmount) throws IllegalArgumentException {
+    this(Money.of(priceAmount));
+  }
+
+  /**
+   * Constructor of USDPrice given priceAmount as Money.
+   *
+   * @param priceAmount the price to be passed to the constructor.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public USDPrice(Money priceAmount) throws IllegalArgumentException {
     if (priceAmount == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (priceAmount.compareTo(new BigDecimal("0")) < 0) {
+    if (priceAmount.micros() < 0) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_NEGATIVE.getMsg());
     }
     this.priceAmount = priceAmount;
@@ -38,10 +48,7 @@ public class USDPrice implements Price {
     if (price == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (price.getAmount().compareTo(new BigDecimal("0")) < 0) {
-      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_NEGATIVE.getMsg());
-    }
-    this.priceAmount = new BigDecimal(price.getAmount().toString());
+    this.priceAmount = price.priceAmount;
   }
 
   /**
@@ -49,7 +56,16 @@ public class USDPrice implements Price {
    */
   @Override
   public BigDecimal getAmount() {
-    return new BigDecimal(priceAmount.toString());
+    return priceAmount.toBigDecimal();
+  }
+
+  /**
+   * Get price amount as Money.
+   *
+   * @return price amount.
+   */
+  public Money getMoney() {
+    return priceAmount;
   }
 
   /**
@@ -59,7 +75,7 @@ public class USDPrice implements Price {
    */
   @Override
   public String toString() {
-    return format.format(priceAmount);
+    return format.format(priceAmount.toBigDecimal());
   }
 
   /**
@@ -74,7 +90,10 @@ public class USDPrice implements Price {
     if (other == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    return priceAmount.compareTo(other.getAmount());
+    if (other instanceof USDPrice) {
+      return priceAmount.compareTo(((USDPrice) other).priceAmount);
+    }
+    return priceAmount.toBigDecimal().compareTo(other.getAmount());
   }
 
   /**
@@ -92,7 +111,6 @@ public class USDPrice implements Price {
     if (!(increment instanceof USDPrice)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    BigDecimal newAmount = priceAmount.add(increment.getAmount());
-    return new USDPrice(newAmount);
+    return new USDPrice(priceAmount.plus(((USDPrice) increment).priceAmount));
   }
 }
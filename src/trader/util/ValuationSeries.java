@@ -0,0 +1,92 @@
+package trader.util;
+
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+
+/**
+ * This class represents the daily values of a portfolio over a range of trading days, as two
+ * parallel columns: an ascending epoch-day int column and a fixed-point long value column with
+ * the Money scale.
+ */
+public class ValuationSeries {
+  private final int[] epochDays;
+  private final long[] values;
+
+  /**
+   * Constructor of ValuationSeries given its columns.
+   *
+   * @param epochDays ascending epoch-day of each value.
+   * @param values    value in micro-units of each day.
+   * @param size      number of days in use.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public ValuationSeries(int[] epochDays, long[] values, int size)
+          throws IllegalArgumentException {
+    if (epochDays == null || values == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (size < 0 || size > epochDays.length || size > values.length) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
+    }
+    this.epochDays = Arrays.copyOf(epochDays, size);
+    this.values = Arrays.copyOf(values, size);
+  }
+
+  /**
+   * Get number of days in the series.
+   *
+   * @return number of days.
+   */
+  public int size() {
+    return epochDays.length;
+  }
+
+  /**
+   * Get epoch-day of the given day of the series.
+   *
+   * @param index day index.
+   * @return epoch-day.
+   */
+  public int epochDay(int index) {
+    return epochDays[index];
+  }
+
+  /**
+   * Get value of the given day of the series.
+   *
+   * @param index day index.
+   * @return value in micro-units.
+   */
+  public long value(int index) {
+    return values[index];
+  }
+
+  /**
+   * Get value of the given day of the series as a USDPrice.
+   *
+   * @param index day index.
+   * @return value.
+   */
+  public USDPrice price(int index) {
+    return new USDPrice(Money.ofMicros(values[index]));
+  }
+
+  /**
+   * Override toString for ValuationSeries.
+   *
+   * @return one line of date and value per day.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < epochDays.length; i++) {
+      if (i > 0) {
+        sb.append("\n");
+      }
+      sb.append(TradeTimeStamp.of(epochDays[i]).toString()).append(" : ")
+              .append(price(i).toString());
+    }
+    return sb.toString();
+  }
+}
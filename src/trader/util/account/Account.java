@@ -1,8 +1,11 @@
 package trader.util.account;
 
+import java.util.Set;
+
 import trader.util.equity.Equity;
 import trader.util.Price;
 import trader.util.TimeStamp;
+import trader.util.ValuationSeries;
 
 /**
  * This interface represents a trader account.
@@ -71,6 +74,40 @@ public interface Account {
   Price evaluatePortfolio(TimeStamp timeStamp, String portfolioNameTag)
           throws IllegalArgumentException;
 
+  /**
+   * Get the ticker symbols held in any portfolio of the account at the given time, so that they
+   * can be prefetched before the account is evaluated.
+   *
+   * @param timeStamp time to be evaluated.
+   * @return held ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  Set<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException;
+
+  /**
+   * Get the ticker symbols held in a portfolio at the given time, so that they can be
+   * prefetched before the portfolio is evaluated.
+   *
+   * @param timeStamp        time to be evaluated.
+   * @param portfolioNameTag portfolio to be evaluated.
+   * @return held ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  Set<String> getHeldTickerSymbols(TimeStamp timeStamp, String portfolioNameTag)
+          throws IllegalArgumentException;
+
+  /**
+   * Evaluate the portfolio on every trading day in the given range.
+   *
+   * @param startTime        first timestamp of the range.
+   * @param endTime          last timestamp of the range.
+   * @param portfolioNameTag portfolio to be evaluated.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime,
+                                  String portfolioNameTag) throws IllegalArgumentException;
+
   /**
    * Get all the cost in the account.
    *
@@ -0,0 +1,713 @@
+package trader.util.account;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import trader.ErrorMsg;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.equity.USStock;
+
+/**
+ * This class is an append-only binary journal of the changes made to an account. Every change
+ * is appended as a length and checksum framed record, and commit makes the appended records
+ * durable with group commit: the first committer writes and forces every pending record at once
+ * while later committers wait for it. On open, the records are replayed and a torn tail left by
+ * a crash is cut off. Replay stops at the first record that cannot be replayed, and that record
+ * and the ones after it are moved to a rejected file next to the journal instead of failing the
+ * open. Once the changes are saved elsewhere, a checkpoint replaces the journal with only the
+ * records of what is still unsaved.
+ */
+public class AccountJournal implements Closeable {
+  private static final int journalMagic = 0x42414a4c;
+  private static final int journalVersion = 1;
+  private static final int headerSize = 8;
+  private static final int recordHeaderSize = 8;
+  private static final int maxRecordSize = 1 << 20;
+  private static final byte addPortfolioRecord = 1;
+  private static final byte addEquityRecord = 2;
+  private static final byte buyRecord = 3;
+  private static final byte addStrategyRecord = 4;
+  private static final byte resumeStrategyRecord = 5;
+  private static final byte savePortfolioRecord = 6;
+  private final Path journalFile;
+  private FileChannel channel;
+  private final ReentrantLock lock;
+  private final Condition committed;
+  private ByteArrayOutputStream pending;
+  private long appendedRecords;
+  private long durableRecords;
+  private long durableEnd;
+  private boolean committing;
+  private long rejectedRecords;
+
+  /**
+   * Handler of the records replayed from a journal.
+   */
+  public interface Replayer {
+    /**
+     * Replay an added portfolio.
+     *
+     * @param portfolioNameTag portfolio added.
+     */
+    void addPortfolio(String portfolioNameTag);
+
+    /**
+     * Replay an equity added to a portfolio.
+     *
+     * @param portfolioNameTag portfolio added to.
+     * @param tickerSymbol     equity added.
+     */
+    void addEquity(String portfolioNameTag, String tickerSymbol);
+
+    /**
+     * Replay a bought lot.
+     *
+     * @param portfolioNameTag portfolio bought in.
+     * @param tickerSymbol     stock bought.
+     * @param epochDay         epoch-day the stock was bought.
+     * @param priceMicros      fixed-point unit price.
+     * @param shares           shares bought.
+     * @param commissionMicros fixed-point commission paid.
+     */
+    void buy(String portfolioNameTag, String tickerSymbol, int epochDay, long priceMicros,
+             long shares, long commissionMicros);
+
+    /**
+     * Replay an added strategy.
+     *
+     * @param strategyNameTag strategy added.
+     * @param strategyRow     strategy as the row of its strategy file.
+     */
+    void addStrategy(String strategyNameTag, String strategyRow);
+
+    /**
+     * Replay the progress of a strategy in a portfolio.
+     *
+     * @param strategyNameTag   strategy applied.
+     * @param portfolioNameTag  portfolio applied to.
+     * @param nextInvestmentDay next scheduled investment epoch-day.
+     */
+    void resumeStrategy(String strategyNameTag, String portfolioNameTag, int nextInvestmentDay);
+
+    /**
+     * Replay a saved portfolio, whose files hold every change to it replayed so far.
+     *
+     * @param portfolioNameTag portfolio saved.
+     */
+    void savePortfolio(String portfolioNameTag);
+  }
+
+  /**
+   * Open the journal at the given path, creating it if absent, and replay its records. The
+   * records from the first one the replayer fails on are moved to the rejected file.
+   *
+   * @param journalPath path of the journal file.
+   * @param replayer    handler of the replayed records.
+   * @throws IllegalArgumentException if invalid input or the journal cannot be opened.
+   */
+  public AccountJournal(String journalPath, Replayer replayer) throws IllegalArgumentException {
+    if (journalPath == null || replayer == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    File file = new File(journalPath);
+    File journalDir = file.getAbsoluteFile().getParentFile();
+    if (journalDir != null) {
+      journalDir.mkdirs();
+    }
+    journalFile = file.toPath();
+    lock = new ReentrantLock();
+    committed = lock.newCondition();
+    pending = new ByteArrayOutputStream();
+    try {
+      channel = openChannel();
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+    }
+    try {
+      durableEnd = replay(replayer);
+      channel.truncate(durableEnd);
+      channel.position(durableEnd);
+    } catch (IOException | RuntimeException e) {
+      closeQuietly();
+      if (e instanceof IllegalArgumentException) {
+        throw (IllegalArgumentException) e;
+      }
+      throw new IllegalArgumentException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+    }
+  }
+
+  /**
+   * Get the number of records that could not be replayed on open, which were moved to the
+   * rejected file.
+   *
+   * @return rejected records.
+   */
+  public long getRejectedRecords() {
+    return rejectedRecords;
+  }
+
+  /**
+   * Get the path of the rejected file, which holds the records that could not be replayed as a
+   * journal of its own.
+   *
+   * @return path of the rejected file.
+   */
+  public String getRejectedPath() {
+    return rejectedFile().toString();
+  }
+
+  /**
+   * Append an added portfolio.
+   *
+   * @param portfolioNameTag portfolio added.
+   */
+  public void appendAddPortfolio(String portfolioNameTag) {
+    RecordWriter record = new RecordWriter(addPortfolioRecord);
+    record.writeString(portfolioNameTag);
+    append(record);
+  }
+
+  /**
+   * Append an equity added to a portfolio.
+   *
+   * @param portfolioNameTag portfolio added to.
+   * @param tickerSymbol     equity added.
+   */
+  public void appendAddEquity(String portfolioNameTag, String tickerSymbol) {
+    RecordWriter record = new RecordWriter(addEquityRecord);
+    record.writeString(portfolioNameTag);
+    record.writeString(tickerSymbol);
+    append(record);
+  }
+
+  /**
+   * Append a bought lot.
+   *
+   * @param portfolioNameTag portfolio bought in.
+   * @param tickerSymbol     stock bought.
+   * @param epochDay         epoch-day the stock was bought.
+   * @param priceMicros      fixed-point unit price.
+   * @param shares           shares bought.
+   * @param commissionMicros fixed-point commission paid.
+   */
+  public void appendBuy(String portfolioNameTag, String tickerSymbol, int epochDay,
+                        long priceMicros, long shares, long commissionMicros) {
+    RecordWriter record = new RecordWriter(buyRecord);
+    record.writeString(portfolioNameTag);
+    record.writeString(tickerSymbol);
+    record.writeInt(epochDay);
+    record.writeLong(priceMicros);
+    record.writeLong(shares);
+    record.writeLong(commissionMicros);
+    append(record);
+  }
+
+  /**
+   * Append a bought stock. Its shares and epoch-day must fit the fields of the record exactly.
+   *
+   * @param portfolioNameTag portfolio bought in.
+   * @param stock            stock bought.
+   * @param commission       commission paid.
+   * @throws IllegalArgumentException if the shares or the epoch-day are out of range.
+   */
+  public void appendBuy(String portfolioNameTag, USStock stock, USDPrice commission)
+          throws IllegalArgumentException {
+    long shares;
+    int epochDay;
+    try {
+      shares = stock.getVolume().longValueExact();
+      epochDay = Math.toIntExact(((TradeTimeStamp) stock.getTimeStamp()).epochDay());
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_JOURNAL_BUY_OVERFLOW.getMsg());
+    }
+    appendBuy(portfolioNameTag, stock.getEquitySymbol(), epochDay,
+            ((USDPrice) stock.getUnitPrice()).getMoney().micros(), shares,
+            commission.getMoney().micros());
+  }
+
+  /**
+   * Append an added strategy.
+   *
+   * @param strategyNameTag strategy added.
+   * @param strategyRow     strategy as the row of its strategy file.
+   */
+  public void appendAddStrategy(String strategyNameTag, String strategyRow) {
+    RecordWriter record = new RecordWriter(addStrategyRecord);
+    record.writeString(strategyNameTag);
+    record.writeString(strategyRow);
+    append(record);
+  }
+
+  /**
+   * Append the progress of a strategy in a portfolio.
+   *
+   * @param strategyNameTag   strategy applied.
+   * @param portfolioNameTag  portfolio applied to.
+   * @param nextInvestmentDay next scheduled investment epoch-day.
+   */
+  public void appendResumeStrategy(String strategyNameTag, String portfolioNameTag,
+                                   int nextInvestmentDay) {
+    RecordWriter record = new RecordWriter(resumeStrategyRecord);
+    record.writeString(strategyNameTag);
+    record.writeString(portfolioNameTag);
+    record.writeInt(nextInvestmentDay);
+    append(record);
+  }
+
+  /**
+   * Append a saved portfolio.
+   *
+   * @param portfolioNameTag portfolio saved.
+   */
+  public void appendSavePortfolio(String portfolioNameTag) {
+    RecordWriter record = new RecordWriter(savePortfolioRecord);
+    record.writeString(portfolioNameTag);
+    append(record);
+  }
+
+  /**
+   * Make every record appended so far durable. Committers that arrive while a commit is being
+   * forced wait for it and are then covered by the next one, together with every record
+   * appended in between.
+   *
+   * @throws IllegalArgumentException if writing the journal fails.
+   */
+  public void commit() throws IllegalArgumentException {
+    lock.lock();
+    try {
+      long target = appendedRecords;
+      while (durableRecords < target) {
+        if (committing) {
+          committed.awaitUninterruptibly();
+          continue;
+        }
+        committing = true;
+        byte[] batch = pending.toByteArray();
+        long batchRecords = appendedRecords;
+        pending = new ByteArrayOutputStream();
+        lock.unlock();
+        boolean written = false;
+        try {
+          ByteBuffer buffer = ByteBuffer.wrap(batch);
+          while (buffer.hasRemaining()) {
+            channel.write(buffer);
+          }
+          channel.force(false);
+          written = true;
+        } catch (IOException e) {
+          written = false;
+        } finally {
+          lock.lock();
+          committing = false;
+          if (written) {
+            durableRecords = batchRecords;
+            durableEnd += batch.length;
+          } else {
+            ByteArrayOutputStream retry = new ByteArrayOutputStream();
+            retry.write(batch, 0, batch.length);
+            retry.write(pending.toByteArray(), 0, pending.size());
+            pending = retry;
+          }
+          committed.signalAll();
+        }
+        if (!written) {
+          rewind();
+          throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Replace every record with the ones the given action appends, once the state the records
+   * describe is saved elsewhere. Records appended but not committed yet are dropped as well. The
+   * new journal is forced to a file next to the old one and moved over it, so a crash leaves
+   * one of them whole.
+   *
+   * @param retained action appending the records of what is still unsaved.
+   * @throws IllegalArgumentException if invalid input or writing the journal fails.
+   */
+  public void checkpoint(Runnable retained) throws IllegalArgumentException {
+    if (retained == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    lock.lock();
+    try {
+      while (committing) {
+        committed.awaitUninterruptibly();
+      }
+      ByteArrayOutputStream uncommitted = pending;
+      long uncommittedRecords = appendedRecords;
+      pending = new ByteArrayOutputStream();
+      boolean replaced = false;
+      try {
+        retained.run();
+        byte[] batch = pending.toByteArray();
+        replace(batch);
+        replaced = true;
+        durableEnd = headerSize + batch.length;
+        durableRecords = appendedRecords;
+        pending = new ByteArrayOutputStream();
+      } finally {
+        if (!replaced) {
+          pending = uncommitted;
+          appendedRecords = uncommittedRecords;
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * private helper to replace the journal file with a new one holding the given records.
+   *
+   * @param batch framed records of the new journal.
+   * @throws IllegalArgumentException if writing the new journal fails.
+   */
+  private void replace(byte[] batch) throws IllegalArgumentException {
+    Path checkpointFile = journalFile.resolveSibling(journalFile.getFileName() + ".tmp");
+    ByteBuffer buffer = ByteBuffer.allocate(headerSize + batch.length);
+    buffer.putInt(journalMagic).putInt(journalVersion).put(batch).flip();
+    try (FileChannel checkpointChannel = FileChannel.open(checkpointFile,
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      while (buffer.hasRemaining()) {
+        checkpointChannel.write(buffer);
+      }
+      checkpointChannel.force(false);
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+    }
+    closeQuietly();
+    try {
+      Files.move(checkpointFile, journalFile, StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      reopen();
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+    }
+    reopen();
+  }
+
+  /**
+   * Commit the pending records and close the journal.
+   *
+   * @throws IOException if closing the journal fails.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      commit();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * private helper to frame a record and add it to the pending records.
+   *
+   * @param record record to append.
+   */
+  private void append(RecordWriter record) {
+    byte[] payload = record.toByteArray();
+    CRC32 crc = new CRC32();
+    crc.update(payload, 0, payload.length);
+    ByteBuffer header = ByteBuffer.allocate(recordHeaderSize);
+    header.putInt(payload.length).putInt((int) crc.getValue());
+    lock.lock();
+    try {
+      pending.write(header.array(), 0, recordHeaderSize);
+      pending.write(payload, 0, payload.length);
+      appendedRecords++;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * private helper to replay every intact record, writing the file header of a new journal. The
+   * intact records from the first one the replayer fails on are counted and moved to the
+   * rejected file.
+   *
+   * @param replayer handler of the replayed records.
+   * @return end of the last replayed record.
+   * @throws IOException if reading the journal or writing the rejected file fails.
+   */
+  private long replay(Replayer replayer) throws IOException {
+    long size = channel.size();
+    if (size < headerSize) {
+      ByteBuffer header = ByteBuffer.allocate(headerSize);
+      header.putInt(journalMagic).putInt(journalVersion).flip();
+      channel.position(0);
+      while (header.hasRemaining()) {
+        channel.write(header);
+      }
+      channel.force(false);
+      return headerSize;
+    }
+    ByteBuffer header = ByteBuffer.allocate(headerSize);
+    readFully(header, 0);
+    if (header.getInt(0) != journalMagic || header.getInt(4) != journalVersion) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+    }
+    long position = headerSize;
+    long replayedEnd = -1;
+    ByteBuffer recordHeader = ByteBuffer.allocate(recordHeaderSize);
+    while (position + recordHeaderSize <= size) {
+      recordHeader.clear();
+      readFully(recordHeader, position);
+      int length = recordHeader.getInt(0);
+      if (length <= 0 || length > maxRecordSize
+              || position + recordHeaderSize + length > size) {
+        break;
+      }
+      ByteBuffer payload = ByteBuffer.allocate(length);
+      readFully(payload, position + recordHeaderSize);
+      CRC32 crc = new CRC32();
+      crc.update(payload.array(), 0, length);
+      if ((int) crc.getValue() != recordHeader.getInt(4)) {
+        break;
+      }
+      if (replayedEnd < 0) {
+        try {
+          replayRecord(payload.array(), replayer);
+        } catch (IOException | RuntimeException e) {
+          replayedEnd = position;
+        }
+      }
+      if (replayedEnd >= 0) {
+        rejectedRecords++;
+      }
+      position += recordHeaderSize + length;
+    }
+    if (replayedEnd < 0) {
+      return position;
+    }
+    reject(replayedEnd, position);
+    return replayedEnd;
+  }
+
+  /**
+   * private helper to append the records between the given positions to the rejected file,
+   * writing its file header first if it is new, and force it.
+   *
+   * @param start start of the first rejected record.
+   * @param end   end of the last rejected record.
+   * @throws IOException if reading the journal or writing the rejected file fails.
+   */
+  private void reject(long start, long end) throws IOException {
+    ByteBuffer records = ByteBuffer.allocate((int) (end - start));
+    readFully(records, start);
+    records.flip();
+    try (FileChannel rejectedChannel = FileChannel.open(rejectedFile(),
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      if (rejectedChannel.size() < headerSize) {
+        rejectedChannel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(journalMagic).putInt(journalVersion).flip();
+        while (header.hasRemaining()) {
+          rejectedChannel.write(header);
+        }
+      }
+      while (records.hasRemaining()) {
+        rejectedChannel.write(records);
+      }
+      rejectedChannel.force(false);
+    }
+  }
+
+  /**
+   * private helper to get the rejected file next to the journal.
+   *
+   * @return rejected file.
+   */
+  private Path rejectedFile() {
+    return journalFile.resolveSibling(journalFile.getFileName() + ".rejected");
+  }
+
+  /**
+   * private helper to hand one record to the replayer.
+   *
+   * @param payload  payload of the record.
+   * @param replayer handler of the replayed records.
+   * @throws IOException if the payload is malformed.
+   */
+  private static void replayRecord(byte[] payload, Replayer replayer) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+    byte type = in.readByte();
+    if (type == addPortfolioRecord) {
+      replayer.addPortfolio(in.readUTF());
+    } else if (type == addEquityRecord) {
+      replayer.addEquity(in.readUTF(), in.readUTF());
+    } else if (type == buyRecord) {
+      replayer.buy(in.readUTF(), in.readUTF(), in.readInt(), in.readLong(), in.readLong(),
+              in.readLong());
+    } else if (type == addStrategyRecord) {
+      replayer.addStrategy(in.readUTF(), in.readUTF());
+    } else if (type == resumeStrategyRecord) {
+      replayer.resumeStrategy(in.readUTF(), in.readUTF(), in.readInt());
+    } else if (type == savePortfolioRecord) {
+      replayer.savePortfolio(in.readUTF());
+    } else {
+      throw new IOException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+    }
+  }
+
+  /**
+   * private helper to fill a buffer from the given position of the journal.
+   *
+   * @param buffer   buffer to fill.
+   * @param position position to read from.
+   * @throws IOException if the journal ends first.
+   */
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new IOException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+      }
+    }
+  }
+
+  /**
+   * private helper to drop a partly written batch, so that its records are written again after
+   * the last durable one by the next commit.
+   */
+  private void rewind() {
+    try {
+      channel.truncate(durableEnd);
+      channel.position(durableEnd);
+    } catch (IOException e) {
+      return;
+    }
+  }
+
+  /**
+   * private helper to open the journal file.
+   *
+   * @return channel of the journal file.
+   * @throws IOException if opening fails.
+   */
+  private FileChannel openChannel() throws IOException {
+    return FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+  }
+
+  /**
+   * private helper to open the journal file again after it was replaced, at its end.
+   *
+   * @throws IllegalArgumentException if opening fails.
+   */
+  private void reopen() throws IllegalArgumentException {
+    try {
+      channel = openChannel();
+      channel.position(channel.size());
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_OPEN_JOURNAL.getMsg());
+    }
+  }
+
+  /**
+   * private helper to close the journal file, ignoring failures.
+   */
+  private void closeQuietly() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      return;
+    }
+  }
+
+  /**
+   * Payload of one record under construction.
+   */
+  private static class RecordWriter {
+    private final ByteArrayOutputStream bytes;
+    private final DataOutputStream out;
+
+    /**
+     * Constructor of RecordWriter.
+     *
+     * @param type record type.
+     */
+    RecordWriter(byte type) {
+      bytes = new ByteArrayOutputStream();
+      out = new DataOutputStream(bytes);
+      try {
+        out.writeByte(type);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+      }
+    }
+
+    /**
+     * Write a string field.
+     *
+     * @param value field value.
+     * @throws IllegalArgumentException if invalid input.
+     */
+    void writeString(String value) throws IllegalArgumentException {
+      if (value == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      try {
+        out.writeUTF(value);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+      }
+    }
+
+    /**
+     * Write an int field.
+     *
+     * @param value field value.
+     */
+    void writeInt(int value) {
+      try {
+        out.writeInt(value);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+      }
+    }
+
+    /**
+     * Write a long field.
+     *
+     * @param value field value.
+     */
+    void writeLong(long value) {
+      try {
+        out.writeLong(value);
+      } catch (IOException e) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_JOURNAL.getMsg());
+      }
+    }
+
+    /**
+     * Get the payload written so far.
+     *
+     * @return payload bytes.
+     */
+    byte[] toByteArray() {
+      return bytes.toByteArray();
+    }
+  }
+}
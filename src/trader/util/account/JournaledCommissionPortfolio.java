@@ -0,0 +1,209 @@
+package trader.util.account;
+
+import java.util.List;
+import java.util.Set;
+
+import trader.ErrorMsg;
+import trader.util.Money;
+import trader.util.Price;
+import trader.util.TimeStamp;
+import trader.util.USDPrice;
+import trader.util.ValuationSeries;
+import trader.util.equity.Equity;
+import trader.util.equity.USStock;
+import trader.util.portfolio.CommissionPortfolio;
+
+/**
+ * This class wraps a commission portfolio so that every stock bought through it, such as by a
+ * strategy, is appended to an account journal. Everything else is passed through.
+ */
+class JournaledCommissionPortfolio implements CommissionPortfolio {
+  private final CommissionPortfolio portfolio;
+  private final AccountJournal journal;
+
+  /**
+   * Constructor of JournaledCommissionPortfolio.
+   *
+   * @param portfolio portfolio to wrap.
+   * @param journal   journal to append the bought stocks to.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  JournaledCommissionPortfolio(CommissionPortfolio portfolio, AccountJournal journal)
+          throws IllegalArgumentException {
+    if (portfolio == null || journal == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.portfolio = portfolio;
+    this.journal = journal;
+  }
+
+  /**
+   * Add stock to portfolio.
+   *
+   * @param tickerSymbol stock ticker symbol to add.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void add(String tickerSymbol) throws IllegalArgumentException {
+    portfolio.add(tickerSymbol);
+    journal.appendAddEquity(portfolio.getNameTag(), tickerSymbol);
+  }
+
+  /**
+   * Buy stock to portfolio.
+   *
+   * @param target stock to buy.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buy(Equity target) throws IllegalArgumentException {
+    portfolio.buy(target);
+    journal.appendBuy(portfolio.getNameTag(), (USStock) target, new USDPrice(Money.zero));
+  }
+
+  /**
+   * Add equity with commission fee.
+   *
+   * @param target     target equity.
+   * @param commission commission fee to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buyWithCommission(Equity target, Price commission)
+          throws IllegalArgumentException {
+    portfolio.buyWithCommission(target, commission);
+    journal.appendBuy(portfolio.getNameTag(), (USStock) target, (USDPrice) commission);
+  }
+
+  /**
+   * View the current portfolio.
+   *
+   * @return view.
+   */
+  @Override
+  public String view() {
+    return portfolio.view();
+  }
+
+  /**
+   * Evaluate the value of portfolio in USD given a timestamp.
+   *
+   * @param timeStamp timeStamp want to be evaluated.
+   * @return value of the portfolio in price.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price evaluate(TimeStamp timeStamp) throws IllegalArgumentException {
+    return portfolio.evaluate(timeStamp);
+  }
+
+  /**
+   * Get the total cost basis of the portfolio.
+   *
+   * @return cost basis as Price.
+   */
+  @Override
+  public Price getCost() {
+    return portfolio.getCost();
+  }
+
+  /**
+   * Get the cost basis of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return cost basis as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price getCost(String tickerSymbol) throws IllegalArgumentException {
+    return portfolio.getCost(tickerSymbol);
+  }
+
+  /**
+   * Get commission cost of the portfolio.
+   *
+   * @return commission cost as Price.
+   */
+  @Override
+  public Price getCommissionCost() {
+    return portfolio.getCommissionCost();
+  }
+
+  /**
+   * Get commission cost of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return commission cost as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price getCommissionCost(String tickerSymbol) throws IllegalArgumentException {
+    return portfolio.getCommissionCost(tickerSymbol);
+  }
+
+  /**
+   * Get total cost equals to portfolio cost plus commission cost.
+   *
+   * @return totalCost as Price.
+   */
+  @Override
+  public Price getTotalCost() {
+    return portfolio.getTotalCost();
+  }
+
+  /**
+   * Get the name tag of the portfolio.
+   *
+   * @return name tag as string.
+   */
+  @Override
+  public String getNameTag() {
+    return portfolio.getNameTag();
+  }
+
+  /**
+   * Get all the name of the equity in the portfolio.
+   *
+   * @return name of equities in the portfolio.
+   */
+  @Override
+  public String getEquityNameTags() {
+    return portfolio.getEquityNameTags();
+  }
+
+  /**
+   * Get the ticker symbols of all the equities in the portfolio.
+   *
+   * @return ticker symbols.
+   */
+  @Override
+  public Set<String> getTickerSymbols() {
+    return portfolio.getTickerSymbols();
+  }
+
+  /**
+   * Get the ticker symbols of the equities held in the portfolio at the given timeStamp.
+   *
+   * @param timeStamp timestamp to look at.
+   * @return ticker symbols held at the timestamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public List<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException {
+    return portfolio.getHeldTickerSymbols(timeStamp);
+  }
+
+  /**
+   * Evaluate the value of portfolio on every trading day in the given range.
+   *
+   * @param startTime first timestamp of the range.
+   * @param endTime   last timestamp of the range.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime)
+          throws IllegalArgumentException {
+    return portfolio.valuationSeries(startTime, endTime);
+  }
+}
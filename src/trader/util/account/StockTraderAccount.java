@@ -1,36 +1,56 @@
 package trader.util.account;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import trader.ErrorMsg;
 import trader.util.equity.Equity;
 import trader.util.equity.USStock;
+import trader.util.EquityGenerator;
+import trader.util.Money;
 import trader.util.Price;
 import trader.util.TimeStamp;
 import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
+import trader.util.ValuationSeries;
 import trader.util.portfolio.StockPortfolio;
 
 /**
  * This class represents a stock trader account.
  */
 public class StockTraderAccount implements Account {
-  List<StockPortfolio> traderAccount;
-  Set<String> portfolioNameSet;
+  Map<String, StockPortfolio> traderAccount;
+  final EquityGenerator generator;
   static String defaultNameTag = "Investment";
+  private static final int evaluationThreads = 4;
+  private static final ExecutorService evaluationExecutor =
+          Executors.newFixedThreadPool(evaluationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-evaluation");
+            thread.setDaemon(true);
+            return thread;
+          });
 
   /**
    * Constructor for StockTraderAccount.
+   *
+   * @param generator generator of the stocks in the account.
+   * @throws IllegalArgumentException if invalid input.
    */
-  public StockTraderAccount() {
-    traderAccount = new ArrayList<>();
-    portfolioNameSet = new HashSet<>();
-    traderAccount.add(new StockPortfolio(defaultNameTag));
-    portfolioNameSet.add(defaultNameTag);
+  public StockTraderAccount(EquityGenerator generator) throws IllegalArgumentException {
+    if (generator == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.generator = generator;
+    traderAccount = new LinkedHashMap<>();
+    traderAccount.put(defaultNameTag, new StockPortfolio(defaultNameTag, generator));
   }
 
   /**
@@ -46,13 +66,11 @@ public class StockTraderAccount implements Account {
     if (tickerSymbol == null || portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        portfolio.add(tickerSymbol);
-        return;
-      }
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    portfolio.add(tickerSymbol);
   }
 
   /**
@@ -70,16 +88,11 @@ public class StockTraderAccount implements Account {
     if (!(equity instanceof USStock)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_BUY_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        portfolio.buy(equity);
-        return;
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_BUY_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    portfolio.buy(equity);
   }
 
   /**
@@ -90,11 +103,10 @@ public class StockTraderAccount implements Account {
    */
   @Override
   public void addPortfolio(String portfolioNameTag) throws IllegalArgumentException {
-    if (portfolioNameSet.contains(portfolioNameTag)) {
+    if (traderAccount.containsKey(portfolioNameTag)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_DUPLICATE_NAMETAG.getMsg());
     }
-    traderAccount.add(new StockPortfolio(portfolioNameTag));
-    portfolioNameSet.add(portfolioNameTag);
+    traderAccount.put(portfolioNameTag, new StockPortfolio(portfolioNameTag, generator));
   }
 
   /**
@@ -106,7 +118,7 @@ public class StockTraderAccount implements Account {
   public String viewAccount() {
     StringBuilder sb = new StringBuilder();
     sb.append("Account Portfolios:");
-    for (StockPortfolio portfolio : traderAccount) {
+    for (StockPortfolio portfolio : traderAccount.values()) {
       sb.append("\n").append(portfolio.view());
     }
     return sb.toString();
@@ -124,20 +136,19 @@ public class StockTraderAccount implements Account {
     if (portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_VIEW_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        return portfolio.view();
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_VIEW_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    return portfolio.view();
   }
 
   /**
-   * Evaluate all the portfolio in the account.
+   * Evaluate all the portfolio in the account. The held histories of every portfolio are
+   * loaded together first, then the portfolios are evaluated in parallel on evaluation threads
+   * of their own, since a price missed by the prefetch is loaded by blocking on its source.
+   * Values are summed and failures reported in portfolio order, as a sequential evaluation would.
    *
    * @param timeStamp time to be evaluated.
    * @return totalValue as Price.
@@ -151,12 +162,84 @@ public class StockTraderAccount implements Account {
     if (!(timeStamp instanceof TradeTimeStamp)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    BigDecimal totalValue = new BigDecimal("0");
-    for (StockPortfolio portfolio : traderAccount) {
-      USDPrice currentPortfolioValue = (USDPrice) portfolio.evaluate(timeStamp);
-      totalValue = totalValue.add(currentPortfolioValue.getAmount());
+    if (traderAccount.size() == 1) {
+      return traderAccount.values().iterator().next().evaluate(timeStamp);
+    }
+    generator.prefetch(getHeldTickerSymbols(timeStamp), timeStamp);
+    List<CompletableFuture<Price>> evaluations = new ArrayList<>();
+    for (StockPortfolio portfolio : traderAccount.values()) {
+      evaluations.add(CompletableFuture.supplyAsync(() -> portfolio.evaluate(timeStamp),
+              evaluationExecutor));
+    }
+    long totalMicros = 0;
+    for (CompletableFuture<Price> evaluation : evaluations) {
+      USDPrice currentPortfolioValue = (USDPrice) awaitEvaluation(evaluation);
+      totalMicros = Money.addMicros(totalMicros, currentPortfolioValue.getMoney().micros());
+    }
+    return new USDPrice(Money.ofMicros(totalMicros));
+  }
+
+  /**
+   * private helper to wait for a portfolio evaluation, rethrowing what it failed with.
+   *
+   * @param evaluation portfolio evaluation submitted to the evaluation threads.
+   * @return value of the portfolio.
+   * @throws IllegalArgumentException if the evaluation failed or waiting is interrupted.
+   */
+  private static Price awaitEvaluation(CompletableFuture<Price> evaluation)
+          throws IllegalArgumentException {
+    try {
+      return evaluation.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalArgumentException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Get the ticker symbols held in any portfolio of the account at the given time.
+   *
+   * @param timeStamp time to be evaluated.
+   * @return held ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Set<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException {
+    if (timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    Set<String> heldTickerSymbols = new HashSet<>();
+    for (StockPortfolio portfolio : traderAccount.values()) {
+      heldTickerSymbols.addAll(portfolio.getHeldTickerSymbols(timeStamp));
     }
-    return new USDPrice(totalValue);
+    return heldTickerSymbols;
+  }
+
+  /**
+   * Get the ticker symbols held in a portfolio at the given time.
+   *
+   * @param timeStamp        time to be evaluated.
+   * @param portfolioNameTag portfolio to be evaluated.
+   * @return held ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Set<String> getHeldTickerSymbols(TimeStamp timeStamp, String portfolioNameTag)
+          throws IllegalArgumentException {
+    if (portfolioNameTag == null || timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
+      throw new IllegalArgumentException(
+              ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    }
+    return new HashSet<>(portfolio.getHeldTickerSymbols(timeStamp));
   }
 
   /**
@@ -176,16 +259,36 @@ public class StockTraderAccount implements Account {
     if (!(timeStamp instanceof TradeTimeStamp)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        return portfolio.evaluate(timeStamp);
-      }
+    return portfolio.evaluate(timeStamp);
+  }
+
+  /**
+   * Evaluate the portfolio on every trading day in the given range.
+   *
+   * @param startTime        first timestamp of the range.
+   * @param endTime          last timestamp of the range.
+   * @param portfolioNameTag portfolio to be evaluated.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime,
+                                         String portfolioNameTag)
+          throws IllegalArgumentException {
+    if (startTime == null || endTime == null || portfolioNameTag == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
+      throw new IllegalArgumentException(
+              ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    }
+    return portfolio.valuationSeries(startTime, endTime);
   }
 
   /**
@@ -195,12 +298,12 @@ public class StockTraderAccount implements Account {
    */
   @Override
   public Price getAccountCost() {
-    BigDecimal totalValue = new BigDecimal("0");
-    for (StockPortfolio portfolio : traderAccount) {
-      Price currentPortfolioValue = portfolio.getCost();
-      totalValue = totalValue.add(currentPortfolioValue.getAmount());
+    long totalMicros = 0;
+    for (StockPortfolio portfolio : traderAccount.values()) {
+      USDPrice currentPortfolioValue = (USDPrice) portfolio.getCost();
+      totalMicros = Money.addMicros(totalMicros, currentPortfolioValue.getMoney().micros());
     }
-    return new USDPrice(totalValue);
+    return new USDPrice(Money.ofMicros(totalMicros));
   }
 
   /**
@@ -215,16 +318,12 @@ public class StockTraderAccount implements Account {
     if (portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        return portfolio.getCost();
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    return portfolio.getCost();
   }
 
   /**
@@ -236,7 +335,7 @@ public class StockTraderAccount implements Account {
   public String viewAllPortfolioTag() {
     StringBuilder sb = new StringBuilder();
     sb.append("Portfolio NameTags:");
-    for (String nameTag : portfolioNameSet) {
+    for (String nameTag : traderAccount.keySet()) {
       sb.append("\n").append(nameTag);
     }
     return sb.toString();
@@ -251,15 +350,11 @@ public class StockTraderAccount implements Account {
     if (portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_GET_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      if (portfolio.getNameTag().equals(portfolioNameTag)) {
-        return portfolio;
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_GET_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    return portfolio;
   }
 }
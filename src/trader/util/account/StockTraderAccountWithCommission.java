@@ -1,12 +1,12 @@
 package trader.util.account;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 
 import trader.ErrorMsg;
 import trader.util.equity.Equity;
 import trader.util.equity.USStock;
+import trader.util.EquityGenerator;
+import trader.util.Money;
 import trader.util.portfolio.CommissionPortfolio;
 import trader.util.portfolio.StockCommissionPortfolio;
 import trader.util.Price;
@@ -21,12 +21,15 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
 
   /**
    * Constructor for trader account with commission.
+   *
+   * @param generator generator of the stocks in the account.
+   * @throws IllegalArgumentException if invalid input.
    */
-  public StockTraderAccountWithCommission() {
-    traderAccount = new ArrayList<>();
-    portfolioNameSet = new HashSet<>();
-    traderAccount.add(new StockCommissionPortfolio(defaultNameTag));
-    portfolioNameSet.add(defaultNameTag);
+  public StockTraderAccountWithCommission(EquityGenerator generator)
+          throws IllegalArgumentException {
+    super(generator);
+    traderAccount = new LinkedHashMap<>();
+    traderAccount.put(defaultNameTag, new StockCommissionPortfolio(defaultNameTag, generator));
   }
 
   /**
@@ -45,17 +48,11 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
     if (!(commission instanceof USDPrice) || !(equity instanceof USStock)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      CommissionPortfolio commissionPortfolio = (CommissionPortfolio) portfolio;
-      if (commissionPortfolio.getNameTag().equals(portfolioNameTag)) {
-        commissionPortfolio.buyWithCommission(equity, commission);
-        return;
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    ((CommissionPortfolio) portfolio).buyWithCommission(equity, commission);
   }
 
   /**
@@ -66,11 +63,10 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
    */
   @Override
   public void addPortfolio(String portfolioNameTag) throws IllegalArgumentException {
-    if (portfolioNameSet.contains(portfolioNameTag)) {
+    if (traderAccount.containsKey(portfolioNameTag)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_ADD_PORTFOLIO_DUPLICATE_NAMETAG.getMsg());
     }
-    traderAccount.add(new StockCommissionPortfolio(portfolioNameTag));
-    portfolioNameSet.add(portfolioNameTag);
+    traderAccount.put(portfolioNameTag, new StockCommissionPortfolio(portfolioNameTag, generator));
   }
 
   /**
@@ -80,13 +76,13 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
    */
   @Override
   public Price getAccountCommissionCost() {
-    BigDecimal totalValue = new BigDecimal("0");
-    for (StockPortfolio portfolio : traderAccount) {
+    long totalMicros = 0;
+    for (StockPortfolio portfolio : traderAccount.values()) {
       CommissionPortfolio commissionPortfolio = ((CommissionPortfolio) portfolio);
       USDPrice currentPortfolioValue = (USDPrice) commissionPortfolio.getCommissionCost();
-      totalValue = totalValue.add(currentPortfolioValue.getAmount());
+      totalMicros = Money.addMicros(totalMicros, currentPortfolioValue.getMoney().micros());
     }
-    return new USDPrice(totalValue);
+    return new USDPrice(Money.ofMicros(totalMicros));
   }
 
   /**
@@ -96,13 +92,13 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
    */
   @Override
   public Price getAccountTotalCost() {
-    BigDecimal totalValue = new BigDecimal("0");
-    for (StockPortfolio portfolio : traderAccount) {
+    long totalMicros = 0;
+    for (StockPortfolio portfolio : traderAccount.values()) {
       CommissionPortfolio commissionPortfolio = ((CommissionPortfolio) portfolio);
       USDPrice currentPortfolioValue = (USDPrice) commissionPortfolio.getTotalCost();
-      totalValue = totalValue.add(currentPortfolioValue.getAmount());
+      totalMicros = Money.addMicros(totalMicros, currentPortfolioValue.getMoney().micros());
     }
-    return new USDPrice(totalValue);
+    return new USDPrice(Money.ofMicros(totalMicros));
   }
 
   /**
@@ -117,17 +113,12 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
     if (portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      CommissionPortfolio commissionPortfolio = ((CommissionPortfolio) portfolio);
-      if (commissionPortfolio.getNameTag().equals(portfolioNameTag)) {
-        return commissionPortfolio.getTotalCost();
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    return ((CommissionPortfolio) portfolio).getTotalCost();
   }
 
   /**
@@ -141,16 +132,11 @@ public class StockTraderAccountWithCommission extends StockTraderAccount
     if (portfolioNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioNameTag);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      CommissionPortfolio commissionPortfolio = ((CommissionPortfolio) portfolio);
-      if (commissionPortfolio.getNameTag().equals(portfolioNameTag)) {
-        return commissionPortfolio.getCommissionCost();
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_EVAL_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
+    return ((CommissionPortfolio) portfolio).getCommissionCost();
   }
 }
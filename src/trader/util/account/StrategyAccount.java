@@ -1,5 +1,8 @@
 package trader.util.account;
 
+import java.util.Map;
+import java.util.Set;
+
 import trader.util.strategy.Strategy;
 
 /**
@@ -23,6 +26,35 @@ public interface StrategyAccount extends AccountWithCommission {
   void applyStrategy(String portfolioNameTag, String strategyNameTag)
           throws IllegalArgumentException;
 
+  /**
+   * Get the ticker symbols a strategy invests in, so that they can be prefetched before it is
+   * applied.
+   * @param strategyNameTag strategy to get ticker symbols of.
+   * @return ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  Set<String> getStrategyTickerSymbols(String strategyNameTag) throws IllegalArgumentException;
+
+  /**
+   * Get the ticker symbols of the strategies with an investment due in a portfolio they were
+   * applied to.
+   * @return ticker symbols due.
+   */
+  Set<String> getDueTickerSymbols();
+
+  /**
+   * Apply every strategy to each portfolio it was applied to and has an investment due in.
+   * @return number of strategy and portfolio pairs applied.
+   */
+  int applyDueStrategies();
+
+  /**
+   * Get the error of each strategy in each portfolio it failed in on the last call to
+   * applyDueStrategies.
+   * @return error messages by portfolio name tag, by strategy name tag.
+   */
+  Map<String, Map<String, String>> getStrategyFailures();
+
   /**
    * View the strategy given strategy name.
    * @param strategyNameTag strategy to view.
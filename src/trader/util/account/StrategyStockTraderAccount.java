@@ -6,21 +6,37 @@ import java.io.FileReader;
 import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
+import trader.util.Price;
+import trader.util.SnapshotFile;
 import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
+import trader.util.equity.Equity;
 import trader.util.equity.USStock;
 import trader.util.portfolio.CommissionPortfolio;
+import trader.util.portfolio.LazyCommissionPortfolio;
+import trader.util.portfolio.PortfolioSnapshot;
 import trader.util.portfolio.RetrievableCommissionPortfolio;
+import trader.util.portfolio.StockCommissionPortfolio;
 import trader.util.portfolio.StockPortfolio;
 import trader.util.strategy.DACStockStrategy;
 import trader.util.strategy.FrequencyNode;
@@ -34,24 +50,143 @@ import trader.util.strategy.WeightedStockStrategy;
 public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
         implements RetrievableStrategyAccount {
   private final List<Strategy> strategies;
-  private final Set<String> strategyNameSet;
+  private final Map<String, Strategy> strategyIndex;
+  private final Map<String, Strategy> savedStrategies;
+  private final Map<String, Map<String, String>> strategyFailures;
+  private final AccountJournal journal;
+  private final boolean lazyRetrieval;
+  private static final int retrievalThreads = 4;
+  private static final ExecutorService retrievalExecutor =
+          Executors.newFixedThreadPool(retrievalThreads, runnable -> {
+            Thread thread = new Thread(runnable, "portfolio-retrieval");
+            thread.setDaemon(true);
+            return thread;
+          });
   private static final String portfolioFilePath = "res/Portfolios";
   private static final String strategyFilePath = "res/Strategies";
   private static final String equityNamePath = "equityNames.csv";
   private static final String equitiesPath = "equities.csv";
+  private static final String snapshotPath = "snapshot.bin";
 
   /**
    * Constructor for StrategyStockTraderAccount.
+   *
+   * @param generator generator of the stocks in the account.
+   * @throws IllegalArgumentException if invalid input.
    */
-  public StrategyStockTraderAccount() {
-    strategies = new LinkedList<>();
-    strategyNameSet = new HashSet<>();
+  public StrategyStockTraderAccount(EquityGenerator generator) throws IllegalArgumentException {
+    this(generator, null);
+  }
+
+  /**
+   * Constructor for StrategyStockTraderAccount that journals every change to the account. The
+   * changes already in the journal are replayed first.
+   *
+   * @param generator   generator of the stocks in the account.
+   * @param journalPath path of the account journal, or null to not journal.
+   * @throws IllegalArgumentException if invalid input or the journal cannot be opened.
+   */
+  public StrategyStockTraderAccount(EquityGenerator generator, String journalPath)
+          throws IllegalArgumentException {
+    this(generator, journalPath, false);
+  }
+
+  /**
+   * Constructor for StrategyStockTraderAccount that journals every change to the account, and
+   * optionally retrieves all portfolios lazily: they are registered by name, and the equities
+   * of each are loaded from its files the first time it is used. Journal records that fail to
+   * replay are moved to the rejected file of the journal and reported on standard error.
+   *
+   * @param generator     generator of the stocks in the account.
+   * @param journalPath   path of the account journal, or null to not journal.
+   * @param lazyRetrieval whether to retrieve all portfolios lazily.
+   * @throws IllegalArgumentException if invalid input or the journal cannot be opened.
+   */
+  public StrategyStockTraderAccount(EquityGenerator generator, String journalPath,
+                                    boolean lazyRetrieval) throws IllegalArgumentException {
+    super(generator);
+    this.lazyRetrieval = lazyRetrieval;
+    strategies = new ArrayList<>();
+    strategyIndex = new LinkedHashMap<>();
+    savedStrategies = new HashMap<>();
+    strategyFailures = new LinkedHashMap<>();
     File res = new File("res");
     res.mkdir();
     File portfolioDir = new File(portfolioFilePath);
     portfolioDir.mkdir();
     File strategyDir = new File(strategyFilePath);
     strategyDir.mkdir();
+    journal = journalPath == null ? null : new AccountJournal(journalPath, new JournalReplayer());
+    if (journal != null && journal.getRejectedRecords() > 0) {
+      System.err.println(ErrorMsg.REJECTED_JOURNAL_RECORDS.getMsg() + " "
+              + journal.getRejectedRecords() + " to " + journal.getRejectedPath());
+    }
+  }
+
+  /**
+   * Add equity to the portfolio.
+   *
+   * @param tickerSymbol     equity to be added.
+   * @param portfolioNameTag portfolio to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void addEquity(String tickerSymbol, String portfolioNameTag)
+          throws IllegalArgumentException {
+    super.addEquity(tickerSymbol, portfolioNameTag);
+    if (journal != null) {
+      journal.appendAddEquity(portfolioNameTag, tickerSymbol);
+      commitJournal();
+    }
+  }
+
+  /**
+   * Buy equity to the portfolio.
+   *
+   * @param equity           equity to be bought.
+   * @param portfolioNameTag portfolio to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buyEquity(Equity equity, String portfolioNameTag) throws IllegalArgumentException {
+    super.buyEquity(equity, portfolioNameTag);
+    if (journal != null) {
+      journal.appendBuy(portfolioNameTag, (USStock) equity, new USDPrice(Money.zero));
+      commitJournal();
+    }
+  }
+
+  /**
+   * Buy Equity with commission cost.
+   *
+   * @param equity           equity to be added.
+   * @param commission       commission in this transaction.
+   * @param portfolioNameTag portfolio to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buyEquityWithCommission(Equity equity, Price commission, String portfolioNameTag)
+          throws IllegalArgumentException {
+    super.buyEquityWithCommission(equity, commission, portfolioNameTag);
+    if (journal != null) {
+      journal.appendBuy(portfolioNameTag, (USStock) equity, (USDPrice) commission);
+      commitJournal();
+    }
+  }
+
+  /**
+   * Add an empty portfolio with the portfolioNameTag.
+   *
+   * @param portfolioNameTag portfolio to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void addPortfolio(String portfolioNameTag) throws IllegalArgumentException {
+    super.addPortfolio(portfolioNameTag);
+    if (journal != null) {
+      journal.appendAddPortfolio(portfolioNameTag);
+      commitJournal();
+    }
   }
 
   /**
@@ -65,8 +200,33 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (strategy == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
+    registerStrategy(strategy);
+    if (journal != null) {
+      appendStrategy(strategy);
+      commitJournal();
+    }
+  }
+
+  /**
+   * private helper to add a strategy to the account without journaling it.
+   *
+   * @param strategy strategy to add.
+   */
+  private void registerStrategy(Strategy strategy) {
     strategies.add(strategy);
-    strategyNameSet.add(strategy.getNameTag());
+    strategyIndex.putIfAbsent(strategy.getNameTag(), strategy);
+  }
+
+  /**
+   * private helper to journal a strategy as it is now, without committing the journal.
+   *
+   * @param strategy strategy to journal.
+   */
+  private void appendStrategy(Strategy strategy) {
+    if (strategy instanceof RetrievableStrategy) {
+      journal.appendAddStrategy(strategy.getNameTag(),
+              ((RetrievableStrategy) strategy).toCsvRow());
+    }
   }
 
   /**
@@ -82,22 +242,156 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (portfolioNameTag == null || strategyNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!strategyNameSet.contains(strategyNameTag)) {
+    Strategy strategy = strategyIndex.get(strategyNameTag);
+    if (strategy == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_APPLY_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
     }
-    if (!portfolioNameSet.contains(portfolioNameTag)) {
+    if (!traderAccount.containsKey(portfolioNameTag)) {
       addPortfolio(portfolioNameTag);
     }
+    try {
+      executeStrategy(strategy, portfolioNameTag);
+    } finally {
+      commitJournal();
+    }
+  }
+
+  /**
+   * Get the ticker symbols a strategy invests in, so that they can be prefetched before it is
+   * applied.
+   *
+   * @param strategyNameTag strategy to get ticker symbols of.
+   * @return ticker symbols.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Set<String> getStrategyTickerSymbols(String strategyNameTag)
+          throws IllegalArgumentException {
+    if (strategyNameTag == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    Strategy strategy = strategyIndex.get(strategyNameTag);
+    if (strategy == null) {
+      throw new IllegalArgumentException(
+              ErrorMsg.INVALID_APPLY_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
+    }
+    return new LinkedHashSet<>(strategy.getTickerSymbols());
+  }
+
+  /**
+   * Get the ticker symbols of every dollar averaging cost strategy with an investment due in a
+   * portfolio it was applied to, so that they can be prefetched at once.
+   *
+   * @return ticker symbols due.
+   */
+  @Override
+  public Set<String> getDueTickerSymbols() {
+    Set<String> tickerSymbols = new LinkedHashSet<>();
+    for (Strategy strategy : strategyIndex.values()) {
+      if (!(strategy instanceof DACStockStrategy)) {
+        continue;
+      }
+      DACStockStrategy dacStrategy = (DACStockStrategy) strategy;
+      for (String portfolioNameTag : dacStrategy.getScheduledPortfolioNameTags()) {
+        if (traderAccount.containsKey(portfolioNameTag) && dacStrategy.isDue(portfolioNameTag)) {
+          tickerSymbols.addAll(dacStrategy.getTickerSymbols());
+          break;
+        }
+      }
+    }
+    return tickerSymbols;
+  }
+
+  /**
+   * Apply every dollar averaging cost strategy to each portfolio of the account it was applied
+   * to and has an investment due in, and commit the journal once for all of them. A strategy
+   * that fails in a portfolio is left due there, to be applied again on the next call, and its
+   * error is recorded until then.
+   *
+   * @return number of strategy and portfolio pairs applied.
+   */
+  @Override
+  public int applyDueStrategies() {
+    int applied = 0;
+    strategyFailures.clear();
+    try {
+      for (Map.Entry<String, Strategy> entry : strategyIndex.entrySet()) {
+        if (!(entry.getValue() instanceof DACStockStrategy)) {
+          continue;
+        }
+        DACStockStrategy strategy = (DACStockStrategy) entry.getValue();
+        for (String portfolioNameTag
+                : new ArrayList<>(strategy.getScheduledPortfolioNameTags())) {
+          if (!traderAccount.containsKey(portfolioNameTag) || !strategy.isDue(portfolioNameTag)) {
+            continue;
+          }
+          try {
+            executeStrategy(strategy, portfolioNameTag);
+            applied++;
+          } catch (IllegalArgumentException e) {
+            strategyFailures.computeIfAbsent(entry.getKey(), k -> new LinkedHashMap<>())
+                    .put(portfolioNameTag, e.getMessage());
+          }
+        }
+      }
+    } finally {
+      commitJournal();
+    }
+    return applied;
+  }
+
+  /**
+   * Get the error of each strategy in each portfolio it failed in on the last call to
+   * applyDueStrategies.
+   *
+   * @return error messages by portfolio name tag, by strategy name tag.
+   */
+  @Override
+  public Map<String, Map<String, String>> getStrategyFailures() {
+    Map<String, Map<String, String>> failures = new LinkedHashMap<>();
+    for (Map.Entry<String, Map<String, String>> entry : strategyFailures.entrySet()) {
+      failures.put(entry.getKey(), new LinkedHashMap<>(entry.getValue()));
+    }
+    return failures;
+  }
+
+  /**
+   * private helper to execute a strategy in a portfolio of the account, journaling the buys and
+   * the progress of the strategy without committing the journal. A strategy that was saved is
+   * journaled whole first, since a checkpoint keeps only the strategies that are not saved, and
+   * progress is journaled only if the next investment moved.
+   *
+   * @param strategy         strategy to execute.
+   * @param portfolioNameTag portfolio to execute in.
+   * @throws IllegalArgumentException if executing fails.
+   */
+  private void executeStrategy(Strategy strategy, String portfolioNameTag)
+          throws IllegalArgumentException {
     CommissionPortfolio portfolio = (CommissionPortfolio) getPortfolio(portfolioNameTag);
-    for (Strategy strategy : strategies) {
-      String strategyName = strategy.getNameTag();
-      if (strategyName.equals(strategyNameTag)) {
-        strategy.executeStrategy(portfolio);
-        return;
+    boolean saved = savedStrategies.remove(strategy.getNameTag()) != null;
+    if (journal == null) {
+      strategy.executeStrategy(portfolio);
+      return;
+    }
+    if (saved) {
+      appendStrategy(strategy);
+    }
+    DACStockStrategy dacStrategy = strategy instanceof DACStockStrategy
+            ? (DACStockStrategy) strategy : null;
+    boolean scheduled = dacStrategy != null
+            && dacStrategy.getScheduledPortfolioNameTags().contains(portfolioNameTag);
+    long nextInvestmentDay = dacStrategy == null ? 0
+            : dacStrategy.getNextInvestmentTime(portfolioNameTag).epochDay();
+    try {
+      strategy.executeStrategy(new JournaledCommissionPortfolio(portfolio, journal));
+    } finally {
+      if (dacStrategy != null && (saved || !scheduled || nextInvestmentDay
+              != dacStrategy.getNextInvestmentTime(portfolioNameTag).epochDay())) {
+        journal.appendResumeStrategy(strategy.getNameTag(), portfolioNameTag,
+                (int) dacStrategy.getNextInvestmentTime(portfolioNameTag).epochDay());
       }
     }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_APPLY_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
   }
 
   /**
@@ -112,17 +406,12 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (strategyNameTag == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    if (!strategyNameSet.contains(strategyNameTag)) {
+    Strategy strategy = strategyIndex.get(strategyNameTag);
+    if (strategy == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_VIEW_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (Strategy strategy : strategies) {
-      String strategyName = strategy.getNameTag();
-      if (strategyName.equals(strategyNameTag)) {
-        return strategy.view();
-      }
-    }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_VIEW_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
+    return strategy.view();
   }
 
   /**
@@ -156,49 +445,55 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
   }
 
   /**
-   * Save all portfolios.
+   * Save all portfolios. The journal is then checkpointed down to the strategies that are not
+   * saved, since the portfolio files hold every other change it records.
    */
   @Override
   public void saveAllPortfolio() {
-    for (StockPortfolio portfolio : traderAccount) {
+    for (StockPortfolio portfolio : traderAccount.values()) {
       RetrievableCommissionPortfolio commissionPortfolio =
               (RetrievableCommissionPortfolio) portfolio;
       commissionPortfolio.write(portfolioFilePath);
     }
+    if (journal != null) {
+      journal.checkpoint(() -> {
+        for (Strategy strategy : strategies) {
+          if (savedStrategies.get(strategy.getNameTag()) != strategy) {
+            appendStrategy(strategy);
+          }
+        }
+      });
+    }
   }
 
   /**
-   * Save the portfolio given name.
+   * Save the portfolio given name, and journal that its files hold every change to it so far.
    *
    * @param portfolioName portfolio to save.
    * @throws IllegalArgumentException if failed save.
    */
   @Override
   public void savePortfolio(String portfolioName) throws IllegalArgumentException {
-    if (!portfolioNameSet.contains(portfolioName)) {
+    StockPortfolio portfolio = traderAccount.get(portfolioName);
+    if (portfolio == null) {
       throw new IllegalArgumentException(
               ErrorMsg.INVALID_SAVE_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (StockPortfolio portfolio : traderAccount) {
-      RetrievableCommissionPortfolio commissionPortfolio =
-              (RetrievableCommissionPortfolio) portfolio;
-      if (commissionPortfolio.getNameTag().equals(portfolioName)) {
-        commissionPortfolio.write(portfolioFilePath);
-        return;
-      }
+    ((RetrievableCommissionPortfolio) portfolio).write(portfolioFilePath);
+    if (journal != null) {
+      journal.appendSavePortfolio(portfolioName);
+      commitJournal();
     }
-    throw new IllegalArgumentException(
-            ErrorMsg.INVALID_SAVE_PORTFOLIO_NAMETAG_NOT_FOUND.getMsg());
   }
 
   /**
-   * Save all strategies.
+   * Save all strategies. A strategy is skipped only while its files hold it as it is now, which
+   * stops being so once it is executed and its next investments move.
    */
   @Override
   public void saveAllStrategy() {
     for (Strategy strategy : strategies) {
-      RetrievableStrategy retrievableStrategy = (RetrievableStrategy) strategy;
-      retrievableStrategy.write(strategyFilePath);
+      writeStrategy(strategy);
     }
   }
 
@@ -210,21 +505,37 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
    */
   @Override
   public void saveStrategy(String strategyName) throws IllegalArgumentException {
-    if (!strategyNameSet.contains(strategyName)) {
+    Strategy strategy = strategyIndex.get(strategyName);
+    if (strategy == null) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_SAVE_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
     }
-    for (Strategy strategy : strategies) {
-      RetrievableStrategy retrievableStrategy = (RetrievableStrategy) strategy;
-      if (retrievableStrategy.getNameTag().equals(strategyName)) {
-        retrievableStrategy.write(strategyFilePath);
-        return;
-      }
+    writeStrategy(strategy);
+  }
+
+  /**
+   * private helper to write a strategy to its files, unless they hold it as it is now, which is
+   * when it was saved or retrieved and not executed since.
+   *
+   * @param strategy strategy to write.
+   */
+  private void writeStrategy(Strategy strategy) {
+    String strategyName = strategy.getNameTag();
+    if (savedStrategies.get(strategyName) == strategy
+            && new File(strategyFilePath + "/" + strategyName + ".csv").exists()
+            && new File(strategyFilePath + "/" + strategyName + ".bin").exists()) {
+      return;
     }
-    throw new IllegalArgumentException(ErrorMsg.INVALID_SAVE_STRATEGY_NAMETAG_NOT_FOUND.getMsg());
+    savedStrategies.remove(strategyName);
+    ((RetrievableStrategy) strategy).write(strategyFilePath);
+    savedStrategies.put(strategyName, strategy);
   }
 
   /**
-   * Retrieve all portfolio.
+   * Retrieve all portfolio. The portfolio files are read concurrently on retrieval threads of
+   * their own, since reading blocks on the disk, and then added to the account in order. With
+   * lazy retrieval, portfolios not in the account yet are only registered, and read the first
+   * time they are used. Retrieved portfolios are not journaled, since their files already hold
+   * them, and lazy portfolios already in the account are skipped.
    */
   @Override
   public void retrieveAllPortfolio() {
@@ -233,23 +544,38 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (portfolioFiles == null) {
       return;
     }
+    List<String> portfolioNames = new ArrayList<>();
+    Map<String, CompletableFuture<PortfolioFiles>> reads = new HashMap<>();
     for (File file : portfolioFiles) {
       String portfolioName = file.getPath().split("[\\\\|/]")[2];
-      try {
-        addPortfolio(portfolioName);
+      StockPortfolio portfolio = traderAccount.get(portfolioName);
+      if (portfolio instanceof LazyCommissionPortfolio) {
+        continue;
       }
-      catch (IllegalArgumentException e) {
-        if (!e.getMessage().equals(ErrorMsg.INVALID_ADD_PORTFOLIO_DUPLICATE_NAMETAG.getMsg())) {
-          throw e;
-        }
+      portfolioNames.add(portfolioName);
+      if (!lazyRetrieval || portfolio != null) {
+        reads.put(portfolioName, CompletableFuture.supplyAsync(
+                () -> readPortfolioFiles(portfolioName), retrievalExecutor));
+      }
+    }
+    Set<String> tickerSymbols = new HashSet<>();
+    for (String portfolioName : portfolioNames) {
+      CompletableFuture<PortfolioFiles> read = reads.get(portfolioName);
+      if (read == null) {
+        addLazyPortfolio(portfolioName);
+        continue;
       }
-      retrieveEquityNames(portfolioName);
-      retrieveEquities(portfolioName);
+      retrievePortfolioFiles(portfolioName, awaitRead(read));
+      tickerSymbols.addAll(getPortfolio(portfolioName).getTickerSymbols());
+    }
+    if (!tickerSymbols.isEmpty()) {
+      generator.prefetch(tickerSymbols);
     }
   }
 
   /**
-   * Retrieve the given portfolio.
+   * Retrieve the given portfolio. It is not journaled, since its files already hold it, and a
+   * lazy portfolio already in the account is left as it is.
    *
    * @param portfolioName portfolio to retrieve.
    * @throws IllegalArgumentException if failed load.
@@ -259,23 +585,153 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (portfolioName == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    try {
-      addPortfolio(portfolioName);
+    if (traderAccount.get(portfolioName) instanceof LazyCommissionPortfolio) {
+      return;
+    }
+    retrievePortfolioFiles(portfolioName, readPortfolioFiles(portfolioName));
+  }
+
+  /**
+   * private helper to make the journaled changes durable.
+   */
+  private void commitJournal() {
+    if (journal != null) {
+      journal.commit();
+    }
+  }
+
+  /**
+   * private helper to add what was read from the files of a portfolio to it, adding the
+   * portfolio first if it is not in the account. A portfolio that was empty before is then
+   * exactly what its files hold, so it is marked as saved.
+   *
+   * @param portfolioName  portfolio name.
+   * @param portfolioFiles content of the portfolio files.
+   */
+  private void retrievePortfolioFiles(String portfolioName, PortfolioFiles portfolioFiles) {
+    if (!traderAccount.containsKey(portfolioName)) {
+      super.addPortfolio(portfolioName);
     }
-    catch (IllegalArgumentException e) {
-      if (!e.getMessage().equals(ErrorMsg.INVALID_ADD_PORTFOLIO_DUPLICATE_NAMETAG.getMsg())) {
-        throw e;
+    StockCommissionPortfolio portfolio = (StockCommissionPortfolio) getPortfolio(portfolioName);
+    boolean empty = portfolio.getTickerSymbols().isEmpty();
+    fillPortfolio(portfolio, portfolioFiles);
+    if (empty) {
+      portfolio.markSaved(portfolioFilePath);
+    }
+  }
+
+  /**
+   * private helper to add the equities read from the files of a portfolio to it directly,
+   * bypassing the journal.
+   *
+   * @param portfolio      portfolio to fill.
+   * @param portfolioFiles content of the portfolio files.
+   */
+  private static void fillPortfolio(StockCommissionPortfolio portfolio,
+                                    PortfolioFiles portfolioFiles) {
+    for (String tickerSymbol : portfolioFiles.tickerSymbols) {
+      portfolio.add(tickerSymbol);
+    }
+    for (int i = 0; i < portfolioFiles.stocks.size(); i++) {
+      portfolio.buyWithCommission(portfolioFiles.stocks.get(i), portfolioFiles.commissions.get(i));
+    }
+  }
+
+  /**
+   * private helper to register a portfolio whose files are read the first time it is used.
+   * Neither the registration nor the equities read then are journaled, since the files already
+   * hold them.
+   *
+   * @param portfolioName portfolio name.
+   */
+  private void addLazyPortfolio(String portfolioName) {
+    LazyCommissionPortfolio.Loader loader = portfolio -> {
+      fillPortfolio(portfolio, readPortfolioFiles(portfolioName));
+      portfolio.markSaved(portfolioFilePath);
+    };
+    traderAccount.put(portfolioName,
+            new LazyCommissionPortfolio(portfolioName, generator, loader));
+  }
+
+  /**
+   * private helper to wait for the files of a portfolio to be read.
+   *
+   * @param read read of the portfolio files.
+   * @return content of the portfolio files.
+   * @throws IllegalArgumentException if the read failed.
+   */
+  private static PortfolioFiles awaitRead(CompletableFuture<PortfolioFiles> read)
+          throws IllegalArgumentException {
+    try {
+      return read.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
+      throw new IllegalArgumentException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalArgumentException(e);
     }
-    retrieveEquityNames(portfolioName);
-    retrieveEquities(portfolioName);
   }
 
   /**
-   * private helper to retrieve equity name file.
+   * private helper to read the files of a portfolio: its binary snapshot if it is usable, or
+   * else the equity name file and the equities file. It does not touch the account, so
+   * portfolios can be read concurrently.
+   *
    * @param portfolioName portfolio name.
+   * @return content of the portfolio files.
+   * @throws IllegalArgumentException if failed load.
    */
-  private void retrieveEquityNames(String portfolioName) {
+  private static PortfolioFiles readPortfolioFiles(String portfolioName)
+          throws IllegalArgumentException {
+    PortfolioFiles portfolioFiles = readPortfolioSnapshot(portfolioName);
+    if (portfolioFiles != null) {
+      return portfolioFiles;
+    }
+    portfolioFiles = new PortfolioFiles();
+    readEquityNames(portfolioName, portfolioFiles);
+    readEquities(portfolioName, portfolioFiles);
+    return portfolioFiles;
+  }
+
+  /**
+   * private helper to read the binary snapshot of a portfolio. The snapshot is not used if it is
+   * missing, corrupted, or older than the equities file.
+   *
+   * @param portfolioName portfolio name.
+   * @return content of the portfolio files, or null if the snapshot is not usable.
+   */
+  private static PortfolioFiles readPortfolioSnapshot(String portfolioName) {
+    String filePath = portfolioFilePath + "/" + portfolioName + "/";
+    File snapshotFile = new File(filePath + snapshotPath);
+    if (!snapshotFile.exists()
+            || snapshotFile.lastModified() < new File(filePath + equitiesPath).lastModified()) {
+      return null;
+    }
+    try {
+      PortfolioSnapshot snapshot = PortfolioSnapshot.read(snapshotFile.getPath());
+      PortfolioFiles portfolioFiles = new PortfolioFiles();
+      portfolioFiles.tickerSymbols.addAll(snapshot.getTickerSymbols());
+      for (int i = 0; i < snapshot.lotCount(); i++) {
+        portfolioFiles.stocks.add(new USStock(snapshot.tickerSymbol(i),
+                new USDPrice(Money.ofMicros(snapshot.price(i))),
+                TradeTimeStamp.of(snapshot.buyDay(i)), BigInteger.valueOf(snapshot.shares(i))));
+        portfolioFiles.commissions.add(new USDPrice(Money.ofMicros(snapshot.commission(i))));
+      }
+      return portfolioFiles;
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * private helper to read equity name file.
+   * @param portfolioName  portfolio name.
+   * @param portfolioFiles content of the portfolio files to read into.
+   */
+  private static void readEquityNames(String portfolioName, PortfolioFiles portfolioFiles) {
     String filePath = portfolioFilePath + "/" + portfolioName + "/" + equityNamePath;
     BufferedReader fileReader;
     try {
@@ -283,7 +739,7 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
       fileReader = new BufferedReader(new FileReader(filePath));
       fileReader.readLine();
       while ((line = fileReader.readLine()) != null) {
-        addEquity(line, portfolioName);
+        portfolioFiles.tickerSymbols.add(line);
       }
     } catch (Exception e) {
       throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_PORTFOLIO.getMsg());
@@ -296,10 +752,11 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
   }
 
   /**
-   * private helper to retrieve equities file.
-   * @param portfolioName portfolio name.
+   * private helper to read equities file.
+   * @param portfolioName  portfolio name.
+   * @param portfolioFiles content of the portfolio files to read into.
    */
-  private void retrieveEquities(String portfolioName) {
+  private static void readEquities(String portfolioName, PortfolioFiles portfolioFiles) {
     String filePath = portfolioFilePath + "/" + portfolioName + "/" + equitiesPath;
     BufferedReader fileReader;
     try {
@@ -309,12 +766,12 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
       while ((line = fileReader.readLine()) != null) {
         String[] stockStr = line.split(",");
         String tickerSymbol = stockStr[0];
-        TradeTimeStamp tradeTimeStamp = new TradeTimeStamp(LocalDate.parse(stockStr[1]));
+        TradeTimeStamp tradeTimeStamp = TradeTimeStamp.of(LocalDate.parse(stockStr[1]));
         USDPrice price = new USDPrice(new BigDecimal(stockStr[2]));
         BigInteger shares = new BigInteger(stockStr[3]);
         USDPrice commission = new USDPrice(new BigDecimal(stockStr[4]));
-        USStock stock = new USStock(tickerSymbol, price, tradeTimeStamp, shares);
-        buyEquityWithCommission(stock, commission, portfolioName);
+        portfolioFiles.stocks.add(new USStock(tickerSymbol, price, tradeTimeStamp, shares));
+        portfolioFiles.commissions.add(commission);
       }
     } catch (Exception e) {
       System.out.println(e.getMessage());
@@ -328,7 +785,7 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
   }
 
   /**
-   * Retrieve all strategies.
+   * Retrieve all strategies, without journaling them.
    */
   @Override
   public void retrieveAllStrategy() {
@@ -337,21 +794,41 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     if (portfolioFiles == null) {
       return;
     }
+    Set<String> strategyNames = new LinkedHashSet<>();
     for (File file : portfolioFiles) {
-      String strategyName = file.getPath().split("[\\\\|/]")[2]
-              .replace(".csv", "");
+      String fileName = file.getPath().split("[\\\\|/]")[2];
+      if (fileName.endsWith(".tmp")) {
+        continue;
+      }
+      strategyNames.add(fileName.endsWith(".bin")
+              ? fileName.substring(0, fileName.length() - ".bin".length())
+              : fileName.replace(".csv", ""));
+    }
+    for (String strategyName : strategyNames) {
       retrieveStrategy(strategyName);
     }
   }
 
   /**
-   * Retrieve the given strategy.
+   * Retrieve the given strategy, from its binary snapshot if it is usable. It is not journaled,
+   * since its files already hold it. A strategy already in the account is kept as it is, since
+   * it was replayed from the journal or executed since its files were written, and its next
+   * investments are newer than the ones its files hold.
    *
    * @param strategyName strategy to retrieve.
    * @throws IllegalArgumentException if failed load.
    */
   @Override
   public void retrieveStrategy(String strategyName) {
+    if (strategyIndex.containsKey(strategyName)) {
+      return;
+    }
+    Strategy snapshotStrategy = readStrategySnapshot(strategyName);
+    if (snapshotStrategy != null) {
+      registerStrategy(snapshotStrategy);
+      savedStrategies.put(strategyName, snapshotStrategy);
+      return;
+    }
     String filePath = strategyFilePath + "/" + strategyName + ".csv";
     BufferedReader fileReader;
     try {
@@ -359,12 +836,10 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
       fileReader = new BufferedReader(new FileReader(filePath));
       fileReader.readLine();
       while ((line = fileReader.readLine()) != null) {
-        String[] strategyStr = line.split(",");
-        String strategyType = strategyStr[0];
-        if (strategyType.equals("WeightedInvestment")) {
-          addStrategy(parseWeightInvestmentStrategy(strategyName, strategyStr));
-        } else if (strategyType.equals("DACInvestment")) {
-          addStrategy(parseDACInvestmentStrategy(strategyName, strategyStr));
+        Strategy strategy = parseStrategy(strategyName, line);
+        if (strategy != null) {
+          registerStrategy(strategy);
+          savedStrategies.put(strategyName, strategy);
         }
       }
     } catch (Exception e) {
@@ -378,6 +853,94 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     }
   }
 
+  /**
+   * Private helper to read the binary snapshot of a strategy. The snapshot is not used if it is
+   * missing, corrupted, of an unknown strategy type, or older than the strategy csv file.
+   * @param strategyName strategy name.
+   * @return Strategy, or null if the snapshot is not usable.
+   */
+  private Strategy readStrategySnapshot(String strategyName) {
+    File snapshotFile = new File(strategyFilePath + "/" + strategyName + ".bin");
+    File csvFile = new File(strategyFilePath + "/" + strategyName + ".csv");
+    if (!snapshotFile.exists() || snapshotFile.lastModified() < csvFile.lastModified()) {
+      return null;
+    }
+    try {
+      ByteBuffer payload = SnapshotFile.read(snapshotFile.getPath(), SnapshotFile.strategyKind);
+      return parseStrategySnapshot(strategyName, payload);
+    } catch (IllegalArgumentException | BufferUnderflowException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Private helper to parse the snapshot payload of a strategy.
+   * @param strategyName strategy name.
+   * @param payload snapshot payload.
+   * @return Strategy, or null if the strategy type is unknown.
+   * @throws IllegalArgumentException if the payload is corrupted.
+   */
+  private Strategy parseStrategySnapshot(String strategyName, ByteBuffer payload)
+          throws IllegalArgumentException {
+    String strategyType = SnapshotFile.readString(payload);
+    int stockCount = payload.getInt();
+    if (stockCount < 0 || stockCount > payload.remaining() / Integer.BYTES) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+    List<String> tickerSymbols = new ArrayList<>(stockCount);
+    for (int i = 0; i < stockCount; i++) {
+      tickerSymbols.add(SnapshotFile.readString(payload));
+    }
+    Map<String, BigDecimal> stockWeights = new HashMap<>();
+    for (String tickerSymbol : tickerSymbols) {
+      stockWeights.put(tickerSymbol, new BigDecimal(SnapshotFile.readString(payload)));
+    }
+    if (strategyType.equals("WeightedInvestment")) {
+      TradeTimeStamp investmentTime = TradeTimeStamp.of(payload.getInt());
+      USDPrice capital = new USDPrice(Money.ofMicros(payload.getLong()));
+      USDPrice commission = new USDPrice(Money.ofMicros(payload.getLong()));
+      return new WeightedStockStrategy(strategyName, stockWeights,
+              investmentTime, capital, commission, generator);
+    } else if (strategyType.equals("DACInvestment")) {
+      TradeTimeStamp startTime = TradeTimeStamp.of(payload.getInt());
+      boolean hasEndTime = payload.get() != 0;
+      int endDay = payload.getInt();
+      TradeTimeStamp endTime = hasEndTime ? TradeTimeStamp.of(endDay) : null;
+      FrequencyNode frequencyNode = new FrequencyNode(payload.getChar(), payload.getLong());
+      USDPrice capitalPerInvestment = new USDPrice(Money.ofMicros(payload.getLong()));
+      USDPrice commission = new USDPrice(Money.ofMicros(payload.getLong()));
+      DACStockStrategy strategy = new DACStockStrategy(strategyName, stockWeights, startTime,
+              endTime, frequencyNode, capitalPerInvestment, commission, generator);
+      int portfolioCount = payload.hasRemaining() ? payload.getInt() : 0;
+      if (portfolioCount < 0 || portfolioCount > payload.remaining() / Integer.BYTES) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      for (int i = 0; i < portfolioCount; i++) {
+        String portfolioNameTag = SnapshotFile.readString(payload);
+        strategy.resumeInvestment(portfolioNameTag, TradeTimeStamp.of(payload.getInt()));
+      }
+      return strategy;
+    }
+    return null;
+  }
+
+  /**
+   * Private helper to parse a row of a strategy file.
+   * @param strategyName strategy name.
+   * @param line strategy row.
+   * @return Strategy, or null if the strategy type is unknown.
+   */
+  private Strategy parseStrategy(String strategyName, String line) {
+    String[] strategyStr = line.split(",");
+    String strategyType = strategyStr[0];
+    if (strategyType.equals("WeightedInvestment")) {
+      return parseWeightInvestmentStrategy(strategyName, strategyStr);
+    } else if (strategyType.equals("DACInvestment")) {
+      return parseDACInvestmentStrategy(strategyName, strategyStr);
+    }
+    return null;
+  }
+
   /**
    * Private helper to parse weighted investment strategy.
    * @param strategyName strategy name.
@@ -386,11 +949,11 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
    */
   private Strategy parseWeightInvestmentStrategy(String strategyName, String[] strategyStr) {
     Map<String, BigDecimal> stockWeights = parseStockMapStr(strategyStr[1]);
-    TradeTimeStamp investmentTime = new TradeTimeStamp(LocalDate.parse(strategyStr[2]));
+    TradeTimeStamp investmentTime = TradeTimeStamp.of(LocalDate.parse(strategyStr[2]));
     USDPrice capital = new USDPrice(new BigDecimal(strategyStr[3]));
     USDPrice commission = new USDPrice(new BigDecimal(strategyStr[4]));
     return new WeightedStockStrategy(strategyName, stockWeights,
-            investmentTime, capital, commission);
+            investmentTime, capital, commission, generator);
   }
 
   /**
@@ -401,17 +964,24 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
    */
   private Strategy parseDACInvestmentStrategy(String strategyName, String[] strategyStr) {
     Map<String, BigDecimal> stockWeights = parseStockMapStr(strategyStr[1]);
-    TradeTimeStamp startTime = new TradeTimeStamp(LocalDate.parse(strategyStr[2]));
+    TradeTimeStamp startTime = TradeTimeStamp.of(LocalDate.parse(strategyStr[2]));
     TradeTimeStamp endTime = null;
     if (!strategyStr[3].equals("NA")) {
-      endTime = new TradeTimeStamp(LocalDate.parse(strategyStr[3]));
+      endTime = TradeTimeStamp.of(LocalDate.parse(strategyStr[3]));
     }
     FrequencyNode frequencyNode = new FrequencyNode(strategyStr[4].charAt(0),
             Long.parseLong(strategyStr[5]));
     USDPrice capitalPerInvestment = new USDPrice(new BigDecimal(strategyStr[6]));
     USDPrice commission = new USDPrice(new BigDecimal(strategyStr[7]));
-    return new DACStockStrategy(strategyName, stockWeights, startTime, endTime, frequencyNode,
-            capitalPerInvestment, commission);
+    DACStockStrategy strategy = new DACStockStrategy(strategyName, stockWeights, startTime,
+            endTime, frequencyNode, capitalPerInvestment, commission, generator);
+    if (strategyStr.length > 8) {
+      for (Map.Entry<Object, Object> entry : parseMapStr(strategyStr[8]).entrySet()) {
+        strategy.resumeInvestment((String) entry.getKey(),
+                TradeTimeStamp.of(LocalDate.parse((String) entry.getValue())));
+      }
+    }
+    return strategy;
   }
 
   /**
@@ -421,6 +991,20 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
    * @throws IllegalArgumentException if parse failed.
    */
   private Map<String, BigDecimal> parseStockMapStr(String mapStr) throws IllegalArgumentException {
+    Map<String, BigDecimal> stockWeightMap = new HashMap<>();
+    for (Map.Entry<Object, Object> entry : parseMapStr(mapStr).entrySet()) {
+      stockWeightMap.put((String) entry.getKey(), new BigDecimal((String) entry.getValue()));
+    }
+    return stockWeightMap;
+  }
+
+  /**
+   * Parse a map written by Map.toString with its commas replaced by ampersands.
+   * @param mapStr map Str.
+   * @return map entries.
+   * @throws IllegalArgumentException if parse failed.
+   */
+  private Properties parseMapStr(String mapStr) throws IllegalArgumentException {
     Properties props = new Properties();
     try {
       props.load(new StringReader(mapStr.substring(1, mapStr.length() - 1)
@@ -428,10 +1012,125 @@ public class StrategyStockTraderAccount extends StockTraderAccountWithCommission
     } catch (Exception e) {
       throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_STRATEGY_INVALID_MAP_STR.getMsg());
     }
-    Map<String, BigDecimal> stockWeightMap = new HashMap<>();
-    for (Map.Entry<Object, Object> entry : props.entrySet()) {
-      stockWeightMap.put((String) entry.getKey(), new BigDecimal((String) entry.getValue()));
+    return props;
+  }
+
+  /**
+   * Replays the changes of the account journal into the account. The journal only holds the
+   * changes made since a portfolio was last saved, so a portfolio with files is registered
+   * lazily and the replayed changes are made on top of what its files hold. The changes are
+   * made through the methods that do not journal, since the journal already holds them.
+   */
+  private class JournalReplayer implements AccountJournal.Replayer {
+    /**
+     * Replay an added portfolio.
+     *
+     * @param portfolioNameTag portfolio added.
+     */
+    @Override
+    public void addPortfolio(String portfolioNameTag) {
+      replayPortfolio(portfolioNameTag);
     }
-    return stockWeightMap;
+
+    /**
+     * Replay an equity added to a portfolio.
+     *
+     * @param portfolioNameTag portfolio added to.
+     * @param tickerSymbol     equity added.
+     */
+    @Override
+    public void addEquity(String portfolioNameTag, String tickerSymbol) {
+      replayPortfolio(portfolioNameTag);
+      StrategyStockTraderAccount.super.addEquity(tickerSymbol, portfolioNameTag);
+    }
+
+    /**
+     * Replay a bought lot.
+     *
+     * @param portfolioNameTag portfolio bought in.
+     * @param tickerSymbol     stock bought.
+     * @param epochDay         epoch-day the stock was bought.
+     * @param priceMicros      fixed-point unit price.
+     * @param shares           shares bought.
+     * @param commissionMicros fixed-point commission paid.
+     */
+    @Override
+    public void buy(String portfolioNameTag, String tickerSymbol, int epochDay, long priceMicros,
+                    long shares, long commissionMicros) {
+      USStock stock = new USStock(tickerSymbol, new USDPrice(Money.ofMicros(priceMicros)),
+              TradeTimeStamp.of(epochDay), BigInteger.valueOf(shares));
+      replayPortfolio(portfolioNameTag);
+      StrategyStockTraderAccount.super.buyEquityWithCommission(stock,
+              new USDPrice(Money.ofMicros(commissionMicros)), portfolioNameTag);
+    }
+
+    /**
+     * Replay an added strategy.
+     *
+     * @param strategyNameTag strategy added.
+     * @param strategyRow     strategy as the row of its strategy file.
+     */
+    @Override
+    public void addStrategy(String strategyNameTag, String strategyRow) {
+      Strategy strategy = parseStrategy(strategyNameTag, strategyRow);
+      if (strategy != null) {
+        registerStrategy(strategy);
+      }
+    }
+
+    /**
+     * Replay the progress of a strategy in a portfolio.
+     *
+     * @param strategyNameTag   strategy applied.
+     * @param portfolioNameTag  portfolio applied to.
+     * @param nextInvestmentDay next scheduled investment epoch-day.
+     */
+    @Override
+    public void resumeStrategy(String strategyNameTag, String portfolioNameTag,
+                               int nextInvestmentDay) {
+      Strategy strategy = strategyIndex.get(strategyNameTag);
+      if (strategy instanceof DACStockStrategy) {
+        ((DACStockStrategy) strategy).resumeInvestment(portfolioNameTag,
+                TradeTimeStamp.of(nextInvestmentDay));
+      }
+    }
+
+    /**
+     * Replay a saved portfolio. The changes replayed so far are dropped, since its files hold
+     * them.
+     *
+     * @param portfolioNameTag portfolio saved.
+     */
+    @Override
+    public void savePortfolio(String portfolioNameTag) {
+      traderAccount.remove(portfolioNameTag);
+    }
+
+    /**
+     * private helper to add a replayed portfolio unless it is in the account already, lazily
+     * over its files if it has any.
+     *
+     * @param portfolioNameTag portfolio replayed.
+     */
+    private void replayPortfolio(String portfolioNameTag) {
+      if (traderAccount.containsKey(portfolioNameTag)) {
+        return;
+      }
+      if (new File(portfolioFilePath + "/" + portfolioNameTag).isDirectory()) {
+        addLazyPortfolio(portfolioNameTag);
+      } else {
+        StrategyStockTraderAccount.super.addPortfolio(portfolioNameTag);
+      }
+    }
+  }
+
+  /**
+   * Content of the files of a portfolio: its ticker symbols, and each bought stock with its
+   * commission.
+   */
+  private static final class PortfolioFiles {
+    private final List<String> tickerSymbols = new ArrayList<>();
+    private final List<USStock> stocks = new ArrayList<>();
+    private final List<USDPrice> commissions = new ArrayList<>();
   }
 }
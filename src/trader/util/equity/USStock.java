@@ -1,6 +1,5 @@
 package trader.util.equity;
 
-import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import trader.ErrorMsg;
@@ -17,6 +16,7 @@ public class USStock implements Equity {
   private final USDPrice stockPrice;
   private final BigInteger shares;
   private final TradeTimeStamp buyInTime;
+  private final USDPrice totalValue;
 
   /**
    * Constructor for a USStock.
@@ -39,6 +39,7 @@ public class USStock implements Equity {
     this.stockPrice = price;
     this.buyInTime = time;
     this.shares = volume;
+    this.totalValue = new USDPrice(price.getMoney().times(volume));
   }
 
   /**
@@ -51,9 +52,10 @@ public class USStock implements Equity {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     this.tickerSymbol = copy.getEquitySymbol();
-    this.stockPrice = (USDPrice) copy.getUnitPrice();
-    this.buyInTime = (TradeTimeStamp) copy.getTimeStamp();
-    this.shares = copy.getVolume();
+    this.stockPrice = copy.stockPrice;
+    this.buyInTime = copy.buyInTime;
+    this.shares = copy.shares;
+    this.totalValue = copy.totalValue;
   }
 
   /**
@@ -73,7 +75,7 @@ public class USStock implements Equity {
    */
   @Override
   public BigInteger getVolume() {
-    return new BigInteger(shares.toString());
+    return shares;
   }
 
   /**
@@ -83,7 +85,7 @@ public class USStock implements Equity {
    */
   @Override
   public Price getUnitPrice() {
-    return new USDPrice(stockPrice);
+    return stockPrice;
   }
 
   /**
@@ -93,8 +95,7 @@ public class USStock implements Equity {
    */
   @Override
   public Price getTotalValue() {
-    BigDecimal priceAmount = stockPrice.getAmount().multiply(new BigDecimal(shares));
-    return new USDPrice(priceAmount);
+    return totalValue;
   }
 
   /**
@@ -104,7 +105,7 @@ public class USStock implements Equity {
    */
   @Override
   public TimeStamp getTimeStamp() {
-    return new TradeTimeStamp(buyInTime);
+    return buyInTime;
   }
 
   /**
@@ -119,7 +120,7 @@ public class USStock implements Equity {
     sb.append(" | Trade Time: ").append(buyInTime.toString());
     sb.append(" | Price per Share: ").append(stockPrice.toString());
     sb.append(" | Shares: ").append(shares.toString());
-    sb.append(" | Total Value: ").append(getTotalValue().toString());
+    sb.append(" | Total Value: ").append(totalValue.toString());
     return sb.toString();
   }
 }
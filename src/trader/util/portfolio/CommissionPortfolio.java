@@ -23,6 +23,15 @@ public interface CommissionPortfolio extends Portfolio {
    */
   Price getCommissionCost();
 
+  /**
+   * Get commission cost of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return commission cost as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  Price getCommissionCost(String tickerSymbol) throws IllegalArgumentException;
+
   /**
    * Get total cost equals to portfolio cost plus commission cost.
    *
@@ -0,0 +1,265 @@
+package trader.util.portfolio;
+
+import java.util.List;
+import java.util.Set;
+
+import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Price;
+import trader.util.TimeStamp;
+import trader.util.ValuationSeries;
+import trader.util.equity.Equity;
+
+/**
+ * This class is a commission portfolio registered by name only, whose equities are loaded by a
+ * loader the first time the portfolio is used.
+ */
+public class LazyCommissionPortfolio extends StockCommissionPortfolio {
+  private Loader loader;
+
+  /**
+   * Loader of the equities of a lazy portfolio.
+   */
+  public interface Loader {
+    /**
+     * Load the equities of the given portfolio into it.
+     *
+     * @param portfolio portfolio to load.
+     * @throws IllegalArgumentException if loading fails.
+     */
+    void load(StockCommissionPortfolio portfolio) throws IllegalArgumentException;
+  }
+
+  /**
+   * Constructor for a lazy commission portfolio.
+   *
+   * @param portfolioTag   name of the portfolio.
+   * @param stockGenerator generator to evaluate the stocks with.
+   * @param loader         loader of the equities of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public LazyCommissionPortfolio(String portfolioTag, EquityGenerator stockGenerator,
+                                 Loader loader) throws IllegalArgumentException {
+    super(portfolioTag, stockGenerator);
+    if (loader == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    this.loader = loader;
+  }
+
+  /**
+   * Check whether the equities of the portfolio are loaded.
+   *
+   * @return whether the portfolio is loaded.
+   */
+  public synchronized boolean isLoaded() {
+    return loader == null;
+  }
+
+  /**
+   * Load the equities of the portfolio unless they are loaded already. If the loader fails,
+   * whatever it loaded is removed and the portfolio is left unloaded, so that it is loaded
+   * again the next time it is used.
+   *
+   * @throws IllegalArgumentException if loading fails.
+   */
+  public synchronized void load() throws IllegalArgumentException {
+    if (loader == null) {
+      return;
+    }
+    Loader portfolioLoader = loader;
+    loader = null;
+    try {
+      portfolioLoader.load(this);
+    } catch (RuntimeException e) {
+      clear();
+      loader = portfolioLoader;
+      throw e;
+    }
+  }
+
+  /**
+   * Add stock to portfolio.
+   *
+   * @param tickerSymbol stock ticker symbol to add.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void add(String tickerSymbol) throws IllegalArgumentException {
+    load();
+    super.add(tickerSymbol);
+  }
+
+  /**
+   * Buy stock to portfolio.
+   *
+   * @param target stock to buy.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buy(Equity target) throws IllegalArgumentException {
+    load();
+    super.buy(target);
+  }
+
+  /**
+   * Add equity with commission fee.
+   *
+   * @param target     target equity.
+   * @param commission commission fee to be added.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void buyWithCommission(Equity target, Price commission) throws IllegalArgumentException {
+    load();
+    super.buyWithCommission(target, commission);
+  }
+
+  /**
+   * View the current portfolio of the account.
+   *
+   * @return view.
+   */
+  @Override
+  public String view() {
+    load();
+    return super.view();
+  }
+
+  /**
+   * Evaluate the value of portfolio in USD given a timestamp.
+   *
+   * @param timeStamp timeStamp want to be evaluated.
+   * @return value of the portfolio in price.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price evaluate(TimeStamp timeStamp) throws IllegalArgumentException {
+    load();
+    return super.evaluate(timeStamp);
+  }
+
+  /**
+   * Evaluate the value of portfolio on every trading day in the given range.
+   *
+   * @param startTime first timestamp of the range.
+   * @param endTime   last timestamp of the range.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime)
+          throws IllegalArgumentException {
+    load();
+    return super.valuationSeries(startTime, endTime);
+  }
+
+  /**
+   * Get cost of the portfolio.
+   *
+   * @return cost as Price.
+   */
+  @Override
+  public Price getCost() {
+    load();
+    return super.getCost();
+  }
+
+  /**
+   * Get cost of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return cost as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price getCost(String tickerSymbol) throws IllegalArgumentException {
+    load();
+    return super.getCost(tickerSymbol);
+  }
+
+  /**
+   * Get all the name of the equity in the portfolio.
+   *
+   * @return name of equities in the portfolio.
+   */
+  @Override
+  public String getEquityNameTags() {
+    load();
+    return super.getEquityNameTags();
+  }
+
+  /**
+   * Get the ticker symbols of all the equities in the portfolio.
+   *
+   * @return ticker symbols.
+   */
+  @Override
+  public Set<String> getTickerSymbols() {
+    load();
+    return super.getTickerSymbols();
+  }
+
+  /**
+   * Get the ticker symbols of the equities held in the portfolio at the given timeStamp.
+   *
+   * @param timeStamp timestamp to look at.
+   * @return ticker symbols held at the timestamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public List<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException {
+    load();
+    return super.getHeldTickerSymbols(timeStamp);
+  }
+
+  /**
+   * Get commission cost of the portfolio.
+   *
+   * @return commission cost as Price.
+   */
+  @Override
+  public Price getCommissionCost() {
+    load();
+    return super.getCommissionCost();
+  }
+
+  /**
+   * Get commission cost of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return commission cost as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price getCommissionCost(String tickerSymbol) throws IllegalArgumentException {
+    load();
+    return super.getCommissionCost(tickerSymbol);
+  }
+
+  /**
+   * Get total cost equals to portfolio cost plus commission cost.
+   *
+   * @return total cost as Price.
+   */
+  @Override
+  public Price getTotalCost() {
+    load();
+    return super.getTotalCost();
+  }
+
+  /**
+   * Write current portfolio to dest file. A portfolio that is not loaded is exactly what its
+   * files hold, so it is not written.
+   *
+   * @param filePath filePath to write.
+   * @throws IllegalArgumentException if write fails.
+   */
+  @Override
+  public synchronized void write(String filePath) throws IllegalArgumentException {
+    if (!isLoaded()) {
+      return;
+    }
+    super.write(filePath);
+  }
+}
@@ -0,0 +1,219 @@
+package trader.util.portfolio;
+
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+import trader.util.Money;
+
+/**
+ * This class keeps the lots of one ticker as parallel primitive columns ordered by buy date:
+ * buy epoch-day, fixed-point unit price, shares, fixed-point commission and the running share
+ * total, so the shares held on any date are found with one binary search. The cost basis and
+ * commission of the ticker are kept as running totals. The table also remembers how many of its
+ * leading lots are already saved, so that a save only has to add the lots after them.
+ */
+class LotTable {
+  private static final int initialCapacity = 8;
+  private int[] buyDays;
+  private long[] prices;
+  private long[] shares;
+  private long[] commissions;
+  private long[] runningShares;
+  private int size;
+  private long costMicros;
+  private long commissionMicros;
+  private int savedLots;
+  private boolean savedInOrder;
+
+  /**
+   * Constructor of an empty LotTable.
+   */
+  LotTable() {
+    buyDays = new int[initialCapacity];
+    prices = new long[initialCapacity];
+    shares = new long[initialCapacity];
+    commissions = new long[initialCapacity];
+    runningShares = new long[initialCapacity];
+    size = 0;
+    costMicros = 0;
+    commissionMicros = 0;
+    savedLots = 0;
+    savedInOrder = true;
+  }
+
+  /**
+   * Record a lot. Lots bought in date order are appended, older ones are inserted after the
+   * lots of the same day. Nothing is recorded if a total goes out of range.
+   *
+   * @param buyDay     epoch-day the lot was bought.
+   * @param price      fixed-point unit price of the lot.
+   * @param lotShares  shares of the lot.
+   * @param commission fixed-point commission of the lot.
+   * @throws IllegalArgumentException if a total is out of range.
+   */
+  void add(int buyDay, long price, long lotShares, long commission)
+          throws IllegalArgumentException {
+    long newCostMicros = Money.addMicros(costMicros, Money.multiplyMicros(price, lotShares));
+    long newCommissionMicros = Money.addMicros(commissionMicros, commission);
+    try {
+      Math.addExact(size == 0 ? 0 : runningShares[size - 1], lotShares);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_INIT_STOCK_INVALID_VOLUME.getMsg());
+    }
+    if (size == buyDays.length) {
+      int capacity = size * 2;
+      buyDays = Arrays.copyOf(buyDays, capacity);
+      prices = Arrays.copyOf(prices, capacity);
+      shares = Arrays.copyOf(shares, capacity);
+      commissions = Arrays.copyOf(commissions, capacity);
+      runningShares = Arrays.copyOf(runningShares, capacity);
+    }
+    int index = heldLots(buyDay);
+    if (index < savedLots) {
+      savedInOrder = false;
+    }
+    int moved = size - index;
+    System.arraycopy(buyDays, index, buyDays, index + 1, moved);
+    System.arraycopy(prices, index, prices, index + 1, moved);
+    System.arraycopy(shares, index, shares, index + 1, moved);
+    System.arraycopy(commissions, index, commissions, index + 1, moved);
+    System.arraycopy(runningShares, index, runningShares, index + 1, moved);
+    buyDays[index] = buyDay;
+    prices[index] = price;
+    shares[index] = lotShares;
+    commissions[index] = commission;
+    runningShares[index] = (index == 0 ? 0 : runningShares[index - 1]) + lotShares;
+    for (int i = index + 1; i <= size; i++) {
+      runningShares[i] += lotShares;
+    }
+    size++;
+    costMicros = newCostMicros;
+    commissionMicros = newCommissionMicros;
+  }
+
+  /**
+   * Get number of lots.
+   *
+   * @return number of lots.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Get the buy day of the given lot in date order.
+   *
+   * @param index lot index.
+   * @return epoch-day the lot was bought.
+   */
+  int buyDay(int index) {
+    return buyDays[index];
+  }
+
+  /**
+   * Get the unit price of the given lot in date order.
+   *
+   * @param index lot index.
+   * @return fixed-point unit price.
+   */
+  long price(int index) {
+    return prices[index];
+  }
+
+  /**
+   * Get the shares of the given lot in date order.
+   *
+   * @param index lot index.
+   * @return shares of the lot.
+   */
+  long shares(int index) {
+    return shares[index];
+  }
+
+  /**
+   * Get the commission of the given lot in date order.
+   *
+   * @param index lot index.
+   * @return fixed-point commission.
+   */
+  long commission(int index) {
+    return commissions[index];
+  }
+
+  /**
+   * Get the total shares of the lots up to and including the given one in date order.
+   *
+   * @param index lot index.
+   * @return running share total.
+   */
+  long runningShares(int index) {
+    return runningShares[index];
+  }
+
+  /**
+   * Get the cost basis of every lot.
+   *
+   * @return fixed-point cost basis.
+   */
+  long costMicros() {
+    return costMicros;
+  }
+
+  /**
+   * Get the commission of every lot.
+   *
+   * @return fixed-point commission.
+   */
+  long commissionMicros() {
+    return commissionMicros;
+  }
+
+  /**
+   * Count the lots bought on or before the given day.
+   *
+   * @param epochDay epoch-day to count up to.
+   * @return number of lots held on the day.
+   */
+  int heldLots(long epochDay) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (buyDays[mid] <= epochDay) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Get the shares held on the given day.
+   *
+   * @param epochDay epoch-day to count up to.
+   * @return total shares of the lots bought on or before the day.
+   */
+  long heldShares(long epochDay) {
+    int lots = heldLots(epochDay);
+    return lots == 0 ? 0 : runningShares[lots - 1];
+  }
+
+  /**
+   * Get the index of the first lot not saved yet, as long as the saved lots are still the
+   * leading ones.
+   *
+   * @return index of the first unsaved lot, or -1 if a lot was inserted before a saved one.
+   */
+  int unsavedFrom() {
+    return savedInOrder ? savedLots : -1;
+  }
+
+  /**
+   * Record that every lot of the table is saved.
+   */
+  void markSaved() {
+    savedLots = size;
+    savedInOrder = true;
+  }
+}
@@ -1,8 +1,12 @@
 package trader.util.portfolio;
 
+import java.util.List;
+import java.util.Set;
+
 import trader.util.equity.Equity;
 import trader.util.Price;
 import trader.util.TimeStamp;
+import trader.util.ValuationSeries;
 
 /**
  * Allow a user to create one or more portfolios and examine its composition. Buy shares of some
@@ -49,6 +53,15 @@ public interface Portfolio {
    */
   Price getCost();
 
+  /**
+   * Get the cost basis of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return cost basis as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  Price getCost(String tickerSymbol) throws IllegalArgumentException;
+
   /**
    * Get the name tag of the portfolio.
    *
@@ -62,4 +75,32 @@ public interface Portfolio {
    * @return name of equities in the portfolio.
    */
   String getEquityNameTags();
+
+  /**
+   * Get the ticker symbols of all the equities in the portfolio.
+   *
+   * @return ticker symbols.
+   */
+  Set<String> getTickerSymbols();
+
+  /**
+   * Get the ticker symbols of the equities held in the portfolio at the given timeStamp.
+   *
+   * @param timeStamp timestamp to look at.
+   * @return ticker symbols held at the timestamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  List<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException;
+
+  /**
+   * Evaluate the value of portfolio on every trading day in the given range. Days on which a
+   * held equity has no price are left out.
+   *
+   * @param startTime first timestamp of the range.
+   * @param endTime   last timestamp of the range.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime)
+          throws IllegalArgumentException;
 }
@@ -0,0 +1,266 @@
+package trader.util.portfolio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import trader.ErrorMsg;
+import trader.util.SnapshotFile;
+
+/**
+ * This class is the binary snapshot of a portfolio: its ticker symbols, followed by its lots as
+ * one column per field, which are the ticker symbol index, buy epoch-day, fixed-point unit price,
+ * shares and fixed-point commission of every lot. The buy day, price and commission columns
+ * store the difference to the previous lot, which is small since lots are ordered by date.
+ */
+public class PortfolioSnapshot {
+  private static final int columnCount = 5;
+  private final List<String> tickerSymbols;
+  private final int[] tickerIndexes;
+  private final int[] buyDays;
+  private final long[] prices;
+  private final long[] shares;
+  private final long[] commissions;
+
+  /**
+   * Constructor of PortfolioSnapshot given its columns.
+   *
+   * @param tickerSymbols ticker symbols of the portfolio.
+   * @param tickerIndexes ticker symbol index of every lot.
+   * @param buyDays       buy epoch-day of every lot.
+   * @param prices        fixed-point unit price of every lot.
+   * @param shares        shares of every lot.
+   * @param commissions   fixed-point commission of every lot.
+   */
+  private PortfolioSnapshot(List<String> tickerSymbols, int[] tickerIndexes, int[] buyDays,
+                            long[] prices, long[] shares, long[] commissions) {
+    this.tickerSymbols = tickerSymbols;
+    this.tickerIndexes = tickerIndexes;
+    this.buyDays = buyDays;
+    this.prices = prices;
+    this.shares = shares;
+    this.commissions = commissions;
+  }
+
+  /**
+   * Write the snapshot of the given lot tables.
+   *
+   * @param filePath  path of the snapshot file.
+   * @param lotTables lot table of every ticker symbol of the portfolio.
+   * @throws IllegalArgumentException if write fails.
+   */
+  static void write(String filePath, Map<String, LotTable> lotTables)
+          throws IllegalArgumentException {
+    int lotCount = 0;
+    for (LotTable lotTable : lotTables.values()) {
+      lotCount += lotTable.size();
+    }
+    long[] tickerIndexes = new long[lotCount];
+    long[] buyDays = new long[lotCount];
+    long[] prices = new long[lotCount];
+    long[] shares = new long[lotCount];
+    long[] commissions = new long[lotCount];
+    int lot = 0;
+    int tickerIndex = 0;
+    for (LotTable lotTable : lotTables.values()) {
+      for (int i = 0; i < lotTable.size(); i++) {
+        tickerIndexes[lot] = tickerIndex;
+        buyDays[lot] = lotTable.buyDay(i);
+        prices[lot] = lotTable.price(i);
+        shares[lot] = lotTable.shares(i);
+        commissions[lot] = lotTable.commission(i);
+        lot++;
+      }
+      tickerIndex++;
+    }
+    ByteArrayOutputStream payload = new ByteArrayOutputStream(64 + lotCount * 8);
+    DataOutputStream out = new DataOutputStream(payload);
+    try {
+      out.writeInt(lotTables.size());
+      for (String tickerSymbol : lotTables.keySet()) {
+        SnapshotFile.writeString(out, tickerSymbol);
+      }
+      out.writeInt(lotCount);
+      writeColumn(out, tickerIndexes, false);
+      writeColumn(out, buyDays, true);
+      writeColumn(out, prices, true);
+      writeColumn(out, shares, false);
+      writeColumn(out, commissions, true);
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_SNAPSHOT.getMsg());
+    }
+    SnapshotFile.write(filePath, SnapshotFile.portfolioKind, payload.toByteArray());
+  }
+
+  /**
+   * Read the snapshot of a portfolio.
+   *
+   * @param filePath path of the snapshot file.
+   * @return snapshot read.
+   * @throws IllegalArgumentException if invalid input, or the snapshot cannot be read or is
+   *                                  corrupted.
+   */
+  public static PortfolioSnapshot read(String filePath) throws IllegalArgumentException {
+    ByteBuffer payload = SnapshotFile.read(filePath, SnapshotFile.portfolioKind);
+    try {
+      int tickerCount = payload.getInt();
+      if (tickerCount < 0 || tickerCount > payload.remaining() / Integer.BYTES) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      List<String> tickerSymbols = new ArrayList<>(tickerCount);
+      for (int i = 0; i < tickerCount; i++) {
+        tickerSymbols.add(SnapshotFile.readString(payload));
+      }
+      int lotCount = payload.getInt();
+      if (lotCount < 0 || lotCount > payload.remaining() / columnCount) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      int[] tickerIndexes = toInts(readColumn(payload, lotCount, false), 0, tickerCount - 1);
+      int[] buyDays = toInts(readColumn(payload, lotCount, true), Integer.MIN_VALUE,
+              Integer.MAX_VALUE);
+      long[] prices = readColumn(payload, lotCount, true);
+      long[] shares = readColumn(payload, lotCount, false);
+      long[] commissions = readColumn(payload, lotCount, true);
+      if (payload.hasRemaining()) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      return new PortfolioSnapshot(Collections.unmodifiableList(tickerSymbols), tickerIndexes,
+              buyDays, prices, shares, commissions);
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+    }
+  }
+
+  /**
+   * private helper to write a column of variable-length longs.
+   *
+   * @param out    payload to write to.
+   * @param column column to write.
+   * @param delta  whether to write the difference to the previous value.
+   * @throws IOException if write fails.
+   */
+  private static void writeColumn(DataOutputStream out, long[] column, boolean delta)
+          throws IOException {
+    long previous = 0;
+    for (long value : column) {
+      SnapshotFile.writeVarLong(out, delta ? value - previous : value);
+      previous = value;
+    }
+  }
+
+  /**
+   * private helper to read a column of variable-length longs.
+   *
+   * @param payload payload to read from.
+   * @param count   number of values.
+   * @param delta   whether the column holds the difference to the previous value.
+   * @return column read.
+   * @throws IllegalArgumentException if the payload is corrupted.
+   */
+  private static long[] readColumn(ByteBuffer payload, int count, boolean delta)
+          throws IllegalArgumentException {
+    long[] column = new long[count];
+    long previous = 0;
+    for (int i = 0; i < count; i++) {
+      long value = SnapshotFile.readVarLong(payload);
+      column[i] = delta ? previous + value : value;
+      previous = column[i];
+    }
+    return column;
+  }
+
+  /**
+   * private helper to narrow a column to ints within the given range.
+   *
+   * @param column column to narrow.
+   * @param min    smallest value allowed.
+   * @param max    largest value allowed.
+   * @return narrowed column.
+   * @throws IllegalArgumentException if a value is out of range.
+   */
+  private static int[] toInts(long[] column, int min, int max) throws IllegalArgumentException {
+    int[] ints = new int[column.length];
+    for (int i = 0; i < column.length; i++) {
+      if (column[i] < min || column[i] > max) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg());
+      }
+      ints[i] = (int) column[i];
+    }
+    return ints;
+  }
+
+  /**
+   * Get the ticker symbols of the portfolio.
+   *
+   * @return ticker symbols.
+   */
+  public List<String> getTickerSymbols() {
+    return tickerSymbols;
+  }
+
+  /**
+   * Get number of lots.
+   *
+   * @return number of lots.
+   */
+  public int lotCount() {
+    return buyDays.length;
+  }
+
+  /**
+   * Get the ticker symbol of the given lot.
+   *
+   * @param index lot index.
+   * @return ticker symbol.
+   */
+  public String tickerSymbol(int index) {
+    return tickerSymbols.get(tickerIndexes[index]);
+  }
+
+  /**
+   * Get the buy day of the given lot.
+   *
+   * @param index lot index.
+   * @return epoch-day the lot was bought.
+   */
+  public int buyDay(int index) {
+    return buyDays[index];
+  }
+
+  /**
+   * Get the unit price of the given lot.
+   *
+   * @param index lot index.
+   * @return fixed-point unit price.
+   */
+  public long price(int index) {
+    return prices[index];
+  }
+
+  /**
+   * Get the shares of the given lot.
+   *
+   * @param index lot index.
+   * @return shares of the lot.
+   */
+  public long shares(int index) {
+    return shares[index];
+  }
+
+  /**
+   * Get the commission of the given lot.
+   *
+   * @param index lot index.
+   * @return fixed-point commission.
+   */
+  public long commission(int index) {
+    return commissions[index];
+  }
+}
@@ -11,4 +11,13 @@ public interface RetrievableCommissionPortfolio extends CommissionPortfolio {
    * @throws IllegalArgumentException if write fails.
    */
   void write(String filePath) throws IllegalArgumentException;
+
+  /**
+   * Record that the portfolio as it is now is stored under the given path, so that the next
+   * write only has to add what changes after.
+   *
+   * @param filePath filePath the portfolio is stored under.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  void markSaved(String filePath) throws IllegalArgumentException;
 }
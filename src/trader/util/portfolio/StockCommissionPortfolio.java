@@ -2,13 +2,15 @@ package trader.util.portfolio;
 
 import java.io.File;
 import java.io.FileWriter;
-import java.math.BigDecimal;
-import java.util.HashMap;
 import java.util.Map;
 
 import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
 import trader.util.equity.Equity;
+import trader.util.equity.USStock;
 import trader.util.Price;
+import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
 
 /**
@@ -16,18 +18,73 @@ import trader.util.USDPrice;
  */
 public class StockCommissionPortfolio extends StockPortfolio
         implements RetrievableCommissionPortfolio {
-  private USDPrice totalCommissionFee;
-  private Map<Equity, Price> commissionMap;
+  private static final String equityNamesFileName = "equityNames.csv";
+  private static final String equitiesFileName = "equities.csv";
+  private static final String snapshotFileName = "snapshot.bin";
+  private Money totalCommissionFee;
+  private String savedPath;
+  private boolean dirty;
+  private boolean tickerSymbolsChanged;
 
   /**
    * Constructor for a stock portfolio.
    *
-   * @param portfolioTag name of the portfolio.
+   * @param portfolioTag   name of the portfolio.
+   * @param stockGenerator generator to evaluate the stocks with.
    */
-  public StockCommissionPortfolio(String portfolioTag) throws IllegalArgumentException {
-    super(portfolioTag);
-    totalCommissionFee = new USDPrice(new BigDecimal("0"));
-    commissionMap = new HashMap<>();
+  public StockCommissionPortfolio(String portfolioTag, EquityGenerator stockGenerator)
+          throws IllegalArgumentException {
+    super(portfolioTag, stockGenerator);
+    totalCommissionFee = Money.zero;
+    savedPath = null;
+    dirty = true;
+    tickerSymbolsChanged = true;
+  }
+
+  /**
+   * Add stock to portfolio.
+   *
+   * @param tickerSymbol stock ticker symbol to add.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void add(String tickerSymbol) throws IllegalArgumentException {
+    boolean newTickerSymbol = tickerSymbol != null && !lotTables.containsKey(tickerSymbol);
+    super.add(tickerSymbol);
+    if (newTickerSymbol) {
+      dirty = true;
+      tickerSymbolsChanged = true;
+    }
+  }
+
+  /**
+   * Record a bought stock as a lot in the lot table of its ticker, and mark the portfolio as
+   * changed since it was last saved.
+   *
+   * @param stock      stock bought.
+   * @param commission commission paid for the stock.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  void addLot(USStock stock, Money commission) throws IllegalArgumentException {
+    boolean newTickerSymbol = !lotTables.containsKey(stock.getEquitySymbol());
+    super.addLot(stock, commission);
+    dirty = true;
+    if (newTickerSymbol) {
+      tickerSymbolsChanged = true;
+    }
+  }
+
+  /**
+   * Remove every equity and lot from the portfolio, which is then no longer saved anywhere.
+   */
+  @Override
+  void clear() {
+    super.clear();
+    totalCommissionFee = Money.zero;
+    savedPath = null;
+    dirty = true;
+    tickerSymbolsChanged = true;
   }
 
   /**
@@ -59,31 +116,40 @@ public class StockCommissionPortfolio extends StockPortfolio
     if (!(commission instanceof USDPrice)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    super.buy(target);
-    totalCommissionFee = (USDPrice) totalCommissionFee.add(commission);
-    commissionMap.put(target, commission);
+    if (!(target instanceof USStock)) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
+    }
+    Money commissionFee = ((USDPrice) commission).getMoney();
+    Money newTotalCommissionFee = totalCommissionFee.plus(commissionFee);
+    addLot((USStock) target, commissionFee);
+    totalCommissionFee = newTotalCommissionFee;
   }
 
   /**
-   * Buy stock to portfolio.
+   * Get commission cost of the portfolio.
    *
-   * @param target stock to buy.
-   * @throws IllegalArgumentException if invalid input.
+   * @return commission cost as Price.
    */
   @Override
-  public void buy(Equity target) throws IllegalArgumentException {
-    super.buy(target);
-    commissionMap.put(target, new USDPrice(new BigDecimal("0.0")));
+  public Price getCommissionCost() {
+    return new USDPrice(totalCommissionFee);
   }
 
   /**
-   * Get commission cost of the portfolio.
+   * Get commission cost of one equity in the portfolio.
    *
-   * @return commission cost as Price.
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return commission cost as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
    */
   @Override
-  public Price getCommissionCost() {
-    return new USDPrice(totalCommissionFee);
+  public Price getCommissionCost(String tickerSymbol) throws IllegalArgumentException {
+    if (tickerSymbol == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    LotTable lotTable = lotTables.get(tickerSymbol);
+    return new USDPrice(lotTable == null ? Money.zero
+            : Money.ofMicros(lotTable.commissionMicros()));
   }
 
   /**
@@ -91,11 +157,16 @@ public class StockCommissionPortfolio extends StockPortfolio
    */
   @Override
   public Price getTotalCost() {
-    return new USDPrice(super.getCost().add(totalCommissionFee).getAmount());
+    USDPrice cost = (USDPrice) super.getCost();
+    return new USDPrice(cost.getMoney().plus(totalCommissionFee));
   }
 
   /**
-   * Write current portfolio to dest file.
+   * Write current portfolio to dest file, as csv files and a binary snapshot. A portfolio
+   * unchanged since it was last saved to the same place is skipped, and lots bought since then
+   * are appended to the equities file unless one of them was bought before a saved lot of its
+   * ticker. The snapshot is only written when every lot is; appending lots removes it instead,
+   * so that the portfolio is read from the csv files until it is written whole again.
    *
    * @param filePath filePath to write.
    * @throws IllegalArgumentException if write fails.
@@ -103,10 +174,62 @@ public class StockCommissionPortfolio extends StockPortfolio
   @Override
   public void write(String filePath) throws IllegalArgumentException {
     filePath = filePath + "/" + portfolioTag;
+    boolean saved = filePath.equals(savedPath)
+            && new File(filePath + "/" + equityNamesFileName).exists()
+            && new File(filePath + "/" + equitiesFileName).exists();
+    if (saved && !dirty) {
+      return;
+    }
+    boolean append = saved;
+    for (LotTable lotTable : lotTables.values()) {
+      append = append && lotTable.unsavedFrom() >= 0;
+    }
+    savedPath = null;
     File file = new File(filePath);
     file.mkdir();
-    writeEquityName(filePath);
-    writeEquities(filePath);
+    if (!saved || tickerSymbolsChanged) {
+      writeEquityName(filePath);
+    }
+    File snapshotFile = new File(filePath + "/" + snapshotFileName);
+    if (append) {
+      if (snapshotFile.exists() && !snapshotFile.delete()) {
+        throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_SNAPSHOT.getMsg());
+      }
+      writeEquities(filePath, true);
+    } else {
+      writeEquities(filePath, false);
+      PortfolioSnapshot.write(snapshotFile.getPath(), lotTables);
+    }
+    markSavedAt(filePath);
+  }
+
+  /**
+   * Record that the portfolio as it is now is stored under the given path, so that the next
+   * write only has to add what changes after.
+   *
+   * @param filePath filePath the portfolio is stored under.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public void markSaved(String filePath) throws IllegalArgumentException {
+    if (filePath == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    markSavedAt(filePath + "/" + portfolioTag);
+  }
+
+  /**
+   * private helper to record that the portfolio as it is now is stored in the given directory.
+   *
+   * @param portfolioPath directory of the portfolio files.
+   */
+  private void markSavedAt(String portfolioPath) {
+    for (LotTable lotTable : lotTables.values()) {
+      lotTable.markSaved();
+    }
+    savedPath = portfolioPath;
+    dirty = false;
+    tickerSymbolsChanged = false;
   }
 
   /**
@@ -116,13 +239,13 @@ public class StockCommissionPortfolio extends StockPortfolio
    * @throws IllegalArgumentException if write fails.
    */
   private void writeEquityName(String filePath) throws IllegalArgumentException {
-    String equityNamesFile = filePath + "/equityNames.csv";
+    String equityNamesFile = filePath + "/" + equityNamesFileName;
     String equityNameFileHeader = "TickerSymbol";
     FileWriter equityNamesFileWriter;
     try {
       equityNamesFileWriter = new FileWriter(equityNamesFile);
       equityNamesFileWriter.append(equityNameFileHeader).append("\n");
-      for (String tickerSymbol : portfolio.keySet()) {
+      for (String tickerSymbol : lotTables.keySet()) {
         equityNamesFileWriter.append(tickerSymbol).append("\n");
       }
     } catch (Exception e) {
@@ -133,26 +256,34 @@ public class StockCommissionPortfolio extends StockPortfolio
   }
 
   /**
-   * private helper to write equities file.
+   * private helper to write equities file, or to append the lots not saved yet to it.
    *
    * @param filePath filePath to write.
+   * @param append   whether to append the unsaved lots instead of writing every lot.
    * @throws IllegalArgumentException if write fails.
    */
-  private void writeEquities(String filePath) {
-    String equitiesFile = filePath + "/equities.csv";
+  private void writeEquities(String filePath, boolean append) throws IllegalArgumentException {
+    String equitiesFile = filePath + "/" + equitiesFileName;
 
     String equitiesFileHeader = "TickerSymbol,TradeTime,UnitPrice,Shares,Commission";
 
     FileWriter equitiesFileWriter;
     try {
-      equitiesFileWriter = new FileWriter(equitiesFile);
-      equitiesFileWriter.append(equitiesFileHeader).append("\n");
-      for (Equity equity : commissionMap.keySet()) {
-        equitiesFileWriter.append(equity.getEquitySymbol()).append(",");
-        equitiesFileWriter.append(equity.getTimeStamp().toString()).append(",");
-        equitiesFileWriter.append(equity.getUnitPrice().getAmount().toString()).append(",");
-        equitiesFileWriter.append(equity.getVolume().toString()).append(",");
-        equitiesFileWriter.append(commissionMap.get(equity).getAmount().toString()).append("\n");
+      equitiesFileWriter = new FileWriter(equitiesFile, append);
+      if (!append) {
+        equitiesFileWriter.append(equitiesFileHeader).append("\n");
+      }
+      for (Map.Entry<String, LotTable> entry : lotTables.entrySet()) {
+        LotTable lotTable = entry.getValue();
+        for (int i = append ? lotTable.unsavedFrom() : 0; i < lotTable.size(); i++) {
+          equitiesFileWriter.append(entry.getKey()).append(",");
+          equitiesFileWriter.append(TradeTimeStamp.of(lotTable.buyDay(i)).toString()).append(",");
+          equitiesFileWriter.append(Money.ofMicros(lotTable.price(i)).toBigDecimal().toString())
+                  .append(",");
+          equitiesFileWriter.append(Long.toString(lotTable.shares(i))).append(",");
+          equitiesFileWriter.append(Money.ofMicros(lotTable.commission(i)).toBigDecimal()
+                  .toString()).append("\n");
+        }
       }
     } catch (Exception e) {
       System.out.println(e.getMessage());
@@ -1,36 +1,50 @@
 package trader.util.portfolio;
 
-import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
 import trader.util.Price;
-import trader.util.StockGenerator;
+import trader.util.PriceColumn;
 import trader.util.TimeStamp;
 import trader.util.TradeTimeStamp;
+import trader.util.TradingCalendar;
 import trader.util.USDPrice;
+import trader.util.ValuationSeries;
 import trader.util.equity.Equity;
 import trader.util.equity.USStock;
 
 public class StockPortfolio implements Portfolio {
   final String portfolioTag;
-  final Map<String, List<USStock>> portfolio;
+  final Map<String, LotTable> lotTables;
+  final EquityGenerator stockGenerator;
+  private Money totalCost;
 
   /**
    * Constructor for a stock portfolio.
    *
-   * @param portfolioTag name of the portfolio.
+   * @param portfolioTag   name of the portfolio.
+   * @param stockGenerator generator to evaluate the stocks with.
    * @throws IllegalArgumentException if invalid input.
    */
-  public StockPortfolio(String portfolioTag) throws IllegalArgumentException {
-    if (portfolioTag == null) {
+  public StockPortfolio(String portfolioTag, EquityGenerator stockGenerator)
+          throws IllegalArgumentException {
+    if (portfolioTag == null || stockGenerator == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     this.portfolioTag = portfolioTag;
-    portfolio = new HashMap<>();
+    this.stockGenerator = stockGenerator;
+    lotTables = new HashMap<>();
+    totalCost = Money.zero;
   }
 
   /**
@@ -44,7 +58,7 @@ public class StockPortfolio implements Portfolio {
     if (tickerSymbol == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    portfolio.putIfAbsent(tickerSymbol, new LinkedList<>());
+    lotTables.putIfAbsent(tickerSymbol, new LotTable());
   }
 
   /**
@@ -61,10 +75,56 @@ public class StockPortfolio implements Portfolio {
     if (!(target instanceof USStock)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    String tickerSymbol = target.getEquitySymbol();
-    List<USStock> list = portfolio.getOrDefault(tickerSymbol, new LinkedList<>());
-    list.add((USStock) target);
-    portfolio.put(tickerSymbol, list);
+    addLot((USStock) target, Money.zero);
+  }
+
+  /**
+   * Record a bought stock as a lot in the lot table of its ticker.
+   *
+   * @param stock      stock bought.
+   * @param commission commission paid for the stock.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  void addLot(USStock stock, Money commission) throws IllegalArgumentException {
+    BigInteger shares = stock.getVolume();
+    if (shares.bitLength() >= Long.SIZE) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_INIT_STOCK_INVALID_VOLUME.getMsg());
+    }
+    long buyDay = ((TradeTimeStamp) stock.getTimeStamp()).epochDay();
+    if (buyDay != (int) buyDay) {
+      throw new IllegalArgumentException(ErrorMsg.FAIL_INIT_STOCK_INVALID_TIMESTAMP.getMsg());
+    }
+    Money newTotalCost = totalCost.plus(((USDPrice) stock.getTotalValue()).getMoney());
+    String tickerSymbol = stock.getEquitySymbol();
+    LotTable lotTable = lotTables.get(tickerSymbol);
+    if (lotTable == null) {
+      lotTable = new LotTable();
+    }
+    lotTable.add((int) buyDay, ((USDPrice) stock.getUnitPrice()).getMoney().micros(),
+            shares.longValue(), commission.micros());
+    lotTables.put(tickerSymbol, lotTable);
+    totalCost = newTotalCost;
+  }
+
+  /**
+   * Remove every equity and lot from the portfolio.
+   */
+  void clear() {
+    lotTables.clear();
+    totalCost = Money.zero;
+  }
+
+  /**
+   * private helper to rebuild the stock of a lot.
+   *
+   * @param tickerSymbol ticker symbol of the lot.
+   * @param lotTable     lot table of the ticker.
+   * @param index        lot index in date order.
+   * @return stock of the lot.
+   */
+  private static USStock lotStock(String tickerSymbol, LotTable lotTable, int index) {
+    return new USStock(tickerSymbol, new USDPrice(Money.ofMicros(lotTable.price(index))),
+            TradeTimeStamp.of(lotTable.buyDay(index)), BigInteger.valueOf(lotTable.shares(index)));
   }
 
   /**
@@ -77,11 +137,12 @@ public class StockPortfolio implements Portfolio {
     StringBuilder sb = new StringBuilder();
     sb.append("Portfolio Name: ");
     sb.append(portfolioTag);
-    for (String tickerSymbol : portfolio.keySet()) {
-      List<USStock> list = portfolio.get(tickerSymbol);
-      sb.append("\n").append("TickerSymbol: ").append(tickerSymbol);
-      for (int i = 0; i < list.size(); i++) {
-        sb.append("\n").append(i).append(": ").append(list.get(i).toString());
+    for (Map.Entry<String, LotTable> entry : lotTables.entrySet()) {
+      LotTable lotTable = entry.getValue();
+      sb.append("\n").append("TickerSymbol: ").append(entry.getKey());
+      for (int i = 0; i < lotTable.size(); i++) {
+        sb.append("\n").append(i).append(": ")
+                .append(lotStock(entry.getKey(), lotTable, i).toString());
       }
     }
     sb.append("\n").append("Current Cost Basis: ").append(getCost().toString());
@@ -103,21 +164,119 @@ public class StockPortfolio implements Portfolio {
     if (!(timeStamp instanceof TradeTimeStamp)) {
       throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
     }
-    BigDecimal totalAmount = new BigDecimal("0");
+    long totalMicros = 0;
     TradeTimeStamp tradeTimeStamp = (TradeTimeStamp) timeStamp;
-    StockGenerator stockGenerator = new StockGenerator();
-    for (String tickerSymbol : portfolio.keySet()) {
-      List<USStock> list = portfolio.get(tickerSymbol);
-      for (USStock stock : list) {
-        if (stock.getTimeStamp().compareTo(tradeTimeStamp) <= 0) {
-          USStock currentStock = (USStock) stockGenerator.generateEquity(stock.getEquitySymbol(),
-                  timeStamp, stock.getVolume());
-          BigDecimal currentAmount = currentStock.getTotalValue().getAmount();
-          totalAmount = totalAmount.add(currentAmount);
+    long epochDay = tradeTimeStamp.epochDay();
+    List<String> heldTickerSymbols = getHeldTickerSymbols(tradeTimeStamp);
+    if (!heldTickerSymbols.isEmpty()) {
+      TradingCalendar tradingCalendar = stockGenerator.tradingCalendar(heldTickerSymbols,
+              tradeTimeStamp);
+      if (epochDay < tradingCalendar.firstCoveredDay()) {
+        throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_FUTURE_TIME_STAMP.getMsg());
+      }
+      if (!tradingCalendar.isTradingDay((int) epochDay)) {
+        throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_HOLIDAY_TIME_STAMP.getMsg());
+      }
+    }
+    for (String tickerSymbol : heldTickerSymbols) {
+      long heldShares = lotTables.get(tickerSymbol).heldShares(epochDay);
+      long closeMicros = stockGenerator.lookupPrice(tickerSymbol, tradeTimeStamp)
+              .microsOrThrow();
+      totalMicros = Money.addMicros(totalMicros, Money.multiplyMicros(closeMicros, heldShares));
+    }
+    return new USDPrice(Money.ofMicros(totalMicros));
+  }
+
+  /**
+   * Evaluate the value of portfolio on every trading day in the given range, in one sweep over
+   * the price histories and the share histories of its equities. Days on which a held equity
+   * has no price are left out.
+   *
+   * @param startTime first timestamp of the range.
+   * @param endTime   last timestamp of the range.
+   * @return daily values of the portfolio.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public ValuationSeries valuationSeries(TimeStamp startTime, TimeStamp endTime)
+          throws IllegalArgumentException {
+    if (startTime == null || endTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (!(startTime instanceof TradeTimeStamp) || !(endTime instanceof TradeTimeStamp)) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
+    }
+    if (startTime.compareTo(endTime) > 0) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TIME_RANGE.getMsg());
+    }
+    TradeTimeStamp coverTime = TradeTimeStamp.of(LocalDate.now().minusDays(1));
+    if (endTime.compareTo(coverTime) < 0) {
+      coverTime = (TradeTimeStamp) endTime;
+    }
+    long startDay = ((TradeTimeStamp) startTime).epochDay();
+    long endDay = ((TradeTimeStamp) endTime).epochDay();
+    List<String> tickerSymbols = new ArrayList<>();
+    for (Map.Entry<String, LotTable> entry : lotTables.entrySet()) {
+      if (entry.getValue().size() > 0) {
+        tickerSymbols.add(entry.getKey());
+      }
+    }
+    stockGenerator.prefetch(tickerSymbols, coverTime);
+    int tickers = tickerSymbols.size();
+    PriceColumn[] columns = new PriceColumn[tickers];
+    LotTable[] histories = new LotTable[tickers];
+    int[] rows = new int[tickers];
+    int[] heldLots = new int[tickers];
+    for (int i = 0; i < tickers; i++) {
+      columns[i] = stockGenerator.priceColumn(tickerSymbols.get(i), coverTime);
+      histories[i] = lotTables.get(tickerSymbols.get(i));
+      int startRow = columns[i].indexOf((int) Math.max(Math.min(startDay, Integer.MAX_VALUE),
+              Integer.MIN_VALUE));
+      rows[i] = startRow >= 0 ? startRow : -startRow - 1;
+    }
+    int[] days = new int[64];
+    long[] values = new long[64];
+    int size = 0;
+    while (true) {
+      int day = Integer.MAX_VALUE;
+      for (int i = 0; i < tickers; i++) {
+        if (rows[i] < columns[i].size()) {
+          day = Math.min(day, columns[i].epochDay(rows[i]));
         }
       }
+      if (day == Integer.MAX_VALUE || day > endDay) {
+        break;
+      }
+      long value = 0;
+      boolean priced = true;
+      for (int i = 0; i < tickers; i++) {
+        while (heldLots[i] < histories[i].size() && histories[i].buyDay(heldLots[i]) <= day) {
+          heldLots[i]++;
+        }
+        boolean trades = rows[i] < columns[i].size() && columns[i].epochDay(rows[i]) == day;
+        if (heldLots[i] > 0) {
+          if (trades) {
+            value = Money.addMicros(value, Money.multiplyMicros(columns[i].close(rows[i]),
+                    histories[i].runningShares(heldLots[i] - 1)));
+          } else {
+            priced = false;
+          }
+        }
+        if (trades) {
+          rows[i]++;
+        }
+      }
+      if (priced) {
+        if (size == days.length) {
+          days = Arrays.copyOf(days, size * 2);
+          values = Arrays.copyOf(values, size * 2);
+        }
+        days[size] = day;
+        values[size] = value;
+        size++;
+      }
     }
-    return new USDPrice(totalAmount);
+    return new ValuationSeries(days, values, size);
   }
 
   /**
@@ -127,14 +286,23 @@ public class StockPortfolio implements Portfolio {
    */
   @Override
   public Price getCost() {
-    BigDecimal totalAmount = new BigDecimal("0");
-    for (String tickerSymbol : portfolio.keySet()) {
-      List<USStock> list = portfolio.get(tickerSymbol);
-      for (USStock stock : list) {
-        totalAmount = totalAmount.add(stock.getTotalValue().getAmount());
-      }
+    return new USDPrice(totalCost);
+  }
+
+  /**
+   * Get the cost basis of one equity in the portfolio.
+   *
+   * @param tickerSymbol ticker symbol of the equity.
+   * @return cost basis as Price, zero if none of the equity was bought.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public Price getCost(String tickerSymbol) throws IllegalArgumentException {
+    if (tickerSymbol == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    return new USDPrice(totalAmount);
+    LotTable lotTable = lotTables.get(tickerSymbol);
+    return new USDPrice(lotTable == null ? Money.zero : Money.ofMicros(lotTable.costMicros()));
   }
 
   /**
@@ -156,9 +324,44 @@ public class StockPortfolio implements Portfolio {
   public String getEquityNameTags() {
     StringBuilder sb = new StringBuilder();
     sb.append("Current Stocks in Portfolio ").append(portfolioTag).append(": ");
-    for (String tickerSymbol : portfolio.keySet()) {
+    for (String tickerSymbol : lotTables.keySet()) {
       sb.append("\n").append(tickerSymbol);
     }
     return sb.toString();
   }
+
+  /**
+   * Get the ticker symbols of all the equities in the portfolio.
+   *
+   * @return ticker symbols.
+   */
+  @Override
+  public Set<String> getTickerSymbols() {
+    return Collections.unmodifiableSet(lotTables.keySet());
+  }
+
+  /**
+   * Get the ticker symbols of the equities held in the portfolio at the given timeStamp.
+   *
+   * @param timeStamp timestamp to look at.
+   * @return ticker symbols held at the timestamp.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  @Override
+  public List<String> getHeldTickerSymbols(TimeStamp timeStamp) throws IllegalArgumentException {
+    if (timeStamp == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (!(timeStamp instanceof TradeTimeStamp)) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_TYPE_INPUT.getMsg());
+    }
+    long epochDay = ((TradeTimeStamp) timeStamp).epochDay();
+    List<String> heldTickerSymbols = new ArrayList<>();
+    for (Map.Entry<String, LotTable> entry : lotTables.entrySet()) {
+      if (entry.getValue().heldLots(epochDay) > 0) {
+        heldTickerSymbols.add(entry.getKey());
+      }
+    }
+    return heldTickerSymbols;
+  }
 }
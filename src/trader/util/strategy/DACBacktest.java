@@ -0,0 +1,319 @@
+package trader.util.strategy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Map;
+
+import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
+import trader.util.PriceColumn;
+import trader.util.TradeTimeStamp;
+import trader.util.TradingCalendar;
+import trader.util.USDPrice;
+
+/**
+ * This class is a dollar averaging cost backtest run over the price columns of its stocks. The
+ * investment days are scheduled up front with the frequency, each moved to the next trading day
+ * shared by every stock, and the shares bought on each of them are resolved in fixed-point with
+ * one forward cursor per price column. Shares, prices and commissions are kept as primitive
+ * columns with one row per investment day and one entry per stock.
+ */
+public class DACBacktest {
+  private final String[] tickerSymbols;
+  private final int[] investmentDays;
+  private final long[] prices;
+  private final long[] shares;
+  private final long[] totalShares;
+  private final int periods;
+  private final long commissionMicros;
+  private final long costMicros;
+  private final long commissionCostMicros;
+  private final long nextInvestmentDay;
+  private final int valuationDay;
+  private final long valueMicros;
+
+  /**
+   * Constructor of DACBacktest, running the backtest.
+   *
+   * @param tickerSymbols stock ticker symbols.
+   * @param columns       price column of each stock.
+   * @param budgets       fixed-point amount to invest in each stock per investment.
+   * @param commission    fixed-point commission per transaction.
+   * @param calendar      trading days shared by the stocks.
+   * @param startDay      first scheduled investment epoch-day.
+   * @param lastDay       last epoch-day to invest on.
+   * @param frequencyNode frequency of the investments.
+   * @throws IllegalArgumentException if the start is not covered by the price columns, or an
+   *                                  amount goes out of range.
+   */
+  private DACBacktest(String[] tickerSymbols, PriceColumn[] columns, long[] budgets,
+                      long commission, TradingCalendar calendar, long startDay, long lastDay,
+                      FrequencyNode frequencyNode) throws IllegalArgumentException {
+    int tickerCount = tickerSymbols.length;
+    this.tickerSymbols = tickerSymbols;
+    this.commissionMicros = commission;
+    int capacity = 16;
+    int[] days = new int[capacity];
+    long[] dayPrices = new long[capacity * tickerCount];
+    long[] dayShares = new long[capacity * tickerCount];
+    long[] heldShares = new long[tickerCount];
+    int[] rows = new int[tickerCount];
+    long cost = 0;
+    long commissionCost = 0;
+    int count = 0;
+    long scheduledDay = startDay;
+    if (startDay <= lastDay) {
+      if (startDay < calendar.firstCoveredDay()) {
+        throw new IllegalArgumentException(ErrorMsg.FAIL_CRAW_DATA_FUTURE_TIME_STAMP.getMsg());
+      }
+      while (scheduledDay <= lastDay) {
+        int investmentDay = calendar.nextTradingDay((int) scheduledDay);
+        if (investmentDay == TradingCalendar.noTradingDay || investmentDay > lastDay) {
+          break;
+        }
+        if (count == capacity) {
+          capacity *= 2;
+          days = Arrays.copyOf(days, capacity);
+          dayPrices = Arrays.copyOf(dayPrices, capacity * tickerCount);
+          dayShares = Arrays.copyOf(dayShares, capacity * tickerCount);
+        }
+        days[count] = investmentDay;
+        for (int t = 0; t < tickerCount; t++) {
+          PriceColumn column = columns[t];
+          while (column.epochDay(rows[t]) < investmentDay) {
+            rows[t]++;
+          }
+          long price = column.close(rows[t]);
+          if (price <= 0) {
+            throw new IllegalArgumentException(ErrorMsg.FAIL_INIT_STOCK_INVALID_PRICE.getMsg());
+          }
+          long lotShares = budgets[t] / price;
+          dayPrices[count * tickerCount + t] = price;
+          dayShares[count * tickerCount + t] = lotShares;
+          heldShares[t] += lotShares;
+          cost = Money.addMicros(cost, Money.multiplyMicros(price, lotShares));
+          commissionCost = Money.addMicros(commissionCost, commission);
+        }
+        count++;
+        scheduledDay = frequencyNode.advance(investmentDay);
+      }
+    }
+    this.investmentDays = days;
+    this.prices = dayPrices;
+    this.shares = dayShares;
+    this.totalShares = heldShares;
+    this.periods = count;
+    this.costMicros = cost;
+    this.commissionCostMicros = commissionCost;
+    this.nextInvestmentDay = scheduledDay;
+    this.valuationDay = count == 0 ? TradingCalendar.noTradingDay
+            : calendar.previousTradingDay((int) Math.min(lastDay, Integer.MAX_VALUE));
+    long value = 0;
+    for (int t = 0; t < tickerCount && count > 0; t++) {
+      PriceColumn column = columns[t];
+      while (rows[t] + 1 < column.size() && column.epochDay(rows[t] + 1) <= valuationDay) {
+        rows[t]++;
+      }
+      value = Money.addMicros(value, Money.multiplyMicros(column.close(rows[t]), heldShares[t]));
+    }
+    this.valueMicros = value;
+  }
+
+  /**
+   * Run a dollar averaging cost backtest. The price columns and trading calendar come from the
+   * generator, which caches them, so backtests over the same stocks can run concurrently
+   * without loading anything again.
+   *
+   * @param generator            generator of the price columns.
+   * @param weightedStocks       weighted stocks.
+   * @param capitalPerInvestment capital to invest per investment.
+   * @param commission           commission per transaction.
+   * @param startTime            first scheduled investment time.
+   * @param endTime              last time to invest on.
+   * @param frequencyNode        frequency of the investments.
+   * @return backtest run.
+   * @throws IllegalArgumentException if invalid input, the start is not covered by the price
+   *                                  histories, or an amount goes out of range.
+   */
+  public static DACBacktest run(EquityGenerator generator, Map<String, BigDecimal> weightedStocks,
+                                USDPrice capitalPerInvestment, USDPrice commission,
+                                TradeTimeStamp startTime, TradeTimeStamp endTime,
+                                FrequencyNode frequencyNode) throws IllegalArgumentException {
+    if (generator == null || weightedStocks == null || capitalPerInvestment == null
+            || commission == null || startTime == null || endTime == null
+            || frequencyNode == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    WeightedStockStrategy.checkWeights(weightedStocks);
+    int tickerCount = weightedStocks.size();
+    String[] tickerSymbols = new String[tickerCount];
+    long[] budgets = new long[tickerCount];
+    int t = 0;
+    for (Map.Entry<String, BigDecimal> entry : weightedStocks.entrySet()) {
+      tickerSymbols[t] = entry.getKey();
+      budgets[t] = budgetMicros(capitalPerInvestment, entry.getValue());
+      t++;
+    }
+    long startDay = startTime.epochDay();
+    long lastDay = endTime.epochDay();
+    if (startDay > lastDay) {
+      return new DACBacktest(tickerSymbols, new PriceColumn[tickerCount], budgets,
+              commission.getMoney().micros(), null, startDay, lastDay, frequencyNode);
+    }
+    TradingCalendar calendar = generator.tradingCalendar(weightedStocks.keySet(), endTime);
+    PriceColumn[] columns = new PriceColumn[tickerCount];
+    for (t = 0; t < tickerCount; t++) {
+      columns[t] = generator.priceColumn(tickerSymbols[t], endTime);
+    }
+    return new DACBacktest(tickerSymbols, columns, budgets, commission.getMoney().micros(),
+            calendar, startDay, lastDay, frequencyNode);
+  }
+
+  /**
+   * private helper to get the amount to invest in a stock per investment, rounded down to a
+   * whole micro, so that dividing it by a fixed-point price gives the whole shares bought.
+   *
+   * @param capital capital per investment.
+   * @param weight  weight of the stock.
+   * @return fixed-point amount.
+   * @throws IllegalArgumentException if the amount is negative or out of range.
+   */
+  private static long budgetMicros(USDPrice capital, BigDecimal weight)
+          throws IllegalArgumentException {
+    BigDecimal budget = capital.getAmount().multiply(weight);
+    if (budget.signum() < 0) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_NEGATIVE_SHARE.getMsg());
+    }
+    try {
+      return budget.setScale(Money.scale, RoundingMode.FLOOR).unscaledValue().longValueExact();
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_PRICE_AMOUNT_OVERFLOW.getMsg());
+    }
+  }
+
+  /**
+   * Get number of stocks.
+   *
+   * @return number of stocks.
+   */
+  public int tickerCount() {
+    return tickerSymbols.length;
+  }
+
+  /**
+   * Get the ticker symbol of the given stock.
+   *
+   * @param ticker stock index.
+   * @return ticker symbol.
+   */
+  public String tickerSymbol(int ticker) {
+    return tickerSymbols[ticker];
+  }
+
+  /**
+   * Get number of investment days.
+   *
+   * @return number of investment days.
+   */
+  public int periodCount() {
+    return periods;
+  }
+
+  /**
+   * Get the epoch-day of the given investment.
+   *
+   * @param period investment index.
+   * @return epoch-day invested on.
+   */
+  public int investmentDay(int period) {
+    return investmentDays[period];
+  }
+
+  /**
+   * Get the unit price a stock was bought at in the given investment.
+   *
+   * @param period investment index.
+   * @param ticker stock index.
+   * @return fixed-point unit price.
+   */
+  public long price(int period, int ticker) {
+    return prices[period * tickerSymbols.length + ticker];
+  }
+
+  /**
+   * Get the shares of a stock bought in the given investment.
+   *
+   * @param period investment index.
+   * @param ticker stock index.
+   * @return shares bought.
+   */
+  public long shares(int period, int ticker) {
+    return shares[period * tickerSymbols.length + ticker];
+  }
+
+  /**
+   * Get the shares of a stock bought over every investment.
+   *
+   * @param ticker stock index.
+   * @return shares held.
+   */
+  public long totalShares(int ticker) {
+    return totalShares[ticker];
+  }
+
+  /**
+   * Get the commission paid per transaction.
+   *
+   * @return fixed-point commission.
+   */
+  public long commissionMicros() {
+    return commissionMicros;
+  }
+
+  /**
+   * Get the cost basis of every investment.
+   *
+   * @return fixed-point cost basis.
+   */
+  public long costMicros() {
+    return costMicros;
+  }
+
+  /**
+   * Get the commission paid over every investment.
+   *
+   * @return fixed-point commission.
+   */
+  public long commissionCostMicros() {
+    return commissionCostMicros;
+  }
+
+  /**
+   * Get the epoch-day scheduled after the last investment, or the start if nothing was invested.
+   *
+   * @return epoch-day of the next scheduled investment.
+   */
+  public long nextInvestmentDay() {
+    return nextInvestmentDay;
+  }
+
+  /**
+   * Get the last trading day of the backtest, on which the value is taken.
+   *
+   * @return epoch-day of the valuation, or noTradingDay if nothing was invested.
+   */
+  public int valuationDay() {
+    return valuationDay;
+  }
+
+  /**
+   * Get the value of the shares bought on the valuation day.
+   *
+   * @return fixed-point value.
+   */
+  public long valueMicros() {
+    return valueMicros;
+  }
+}
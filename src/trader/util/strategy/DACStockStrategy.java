@@ -1,14 +1,25 @@
 package trader.util.strategy;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.text.DecimalFormat;
 import java.time.LocalDate;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
+import trader.util.SnapshotFile;
 import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
+import trader.util.equity.USStock;
 import trader.util.portfolio.CommissionPortfolio;
 
 /**
@@ -21,8 +32,9 @@ public class DACStockStrategy implements RetrievableStrategy {
   private final USDPrice commission;
   private final TradeTimeStamp startTime;
   private final TradeTimeStamp endTime;
-  private TradeTimeStamp investmentTime;
+  private final Map<String, TradeTimeStamp> nextInvestmentTimes;
   private final FrequencyNode frequencyNode;
+  private final EquityGenerator generator;
 
   /**
    * Constructor for DACStockStrategy.
@@ -34,15 +46,16 @@ public class DACStockStrategy implements RetrievableStrategy {
    * @param frequencyNode        freqNode.
    * @param capitalPerInvestment capital to invest.
    * @param commission           commission per transaction.
+   * @param generator            generator of the stocks to invest in.
    * @throws IllegalArgumentException invalid input.
    */
   public DACStockStrategy(String name, Map<String, BigDecimal> weightedStocks,
                           TradeTimeStamp startTime, TradeTimeStamp endTime,
                           FrequencyNode frequencyNode, USDPrice capitalPerInvestment,
-                          USDPrice commission)
+                          USDPrice commission, EquityGenerator generator)
           throws IllegalArgumentException {
     if (weightedStocks == null || startTime == null
-            || capitalPerInvestment == null || commission == null) {
+            || capitalPerInvestment == null || commission == null || generator == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     this.strategyName = name;
@@ -50,17 +63,19 @@ public class DACStockStrategy implements RetrievableStrategy {
     this.capitalPerInvestment = capitalPerInvestment;
     this.commission = commission;
     this.startTime = startTime;
-    investmentTime = startTime;
+    this.nextInvestmentTimes = new TreeMap<>();
     if (endTime == null) {
       this.endTime = new TradeTimeStamp(LocalDate.MAX);
     } else {
       this.endTime = endTime;
     }
     this.frequencyNode = frequencyNode;
+    this.generator = generator;
   }
 
   /**
-   * Execute Strategy in the given portfolio.
+   * Execute Strategy in the given portfolio, investing only the periods that came due since it
+   * was last executed in that portfolio.
    *
    * @throws IllegalArgumentException if Invalid input.
    */
@@ -68,30 +83,102 @@ public class DACStockStrategy implements RetrievableStrategy {
     if (portfolio == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
-    WeightedStockStrategy weightedStockStrategy = new WeightedStockStrategy(strategyName,
-            weightedStocks, investmentTime, capitalPerInvestment, commission);
-    TradeTimeStamp timeStamp = new TradeTimeStamp(LocalDate.now().minusDays(1));
+    String portfolioNameTag = portfolio.getNameTag();
+    TradeTimeStamp investmentTime = getNextInvestmentTime(portfolioNameTag);
+    TradeTimeStamp timeStamp = lastInvestmentTime();
+    if (investmentTime.compareTo(timeStamp) > 0) {
+      return;
+    }
+    DACBacktest backtest = DACBacktest.run(generator, weightedStocks, capitalPerInvestment,
+            commission, investmentTime, timeStamp, frequencyNode);
+    for (int period = 0; period < backtest.periodCount(); period++) {
+      investmentTime = TradeTimeStamp.of(backtest.investmentDay(period));
+      for (int ticker = 0; ticker < backtest.tickerCount(); ticker++) {
+        USDPrice unitPrice = new USDPrice(Money.ofMicros(backtest.price(period, ticker)));
+        USStock toInvest = new USStock(backtest.tickerSymbol(ticker), unitPrice, investmentTime,
+                BigInteger.valueOf(backtest.shares(period, ticker)));
+        portfolio.buyWithCommission(toInvest, commission);
+      }
+      nextInvestmentTimes.put(portfolioNameTag,
+              TradeTimeStamp.of(frequencyNode.advance(investmentTime.epochDay())));
+    }
+  }
+
+  /**
+   * Get the next scheduled investment time of the strategy in the given portfolio, which is the
+   * start time until the strategy is first executed in it.
+   *
+   * @param portfolioNameTag portfolio name.
+   * @return next scheduled investment time.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public TradeTimeStamp getNextInvestmentTime(String portfolioNameTag)
+          throws IllegalArgumentException {
+    if (portfolioNameTag == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    return nextInvestmentTimes.getOrDefault(portfolioNameTag, startTime);
+  }
+
+  /**
+   * Get the portfolios the strategy was executed in, whose next investments are scheduled.
+   *
+   * @return portfolio names.
+   */
+  public Set<String> getScheduledPortfolioNameTags() {
+    return Collections.unmodifiableSet(nextInvestmentTimes.keySet());
+  }
+
+  /**
+   * Get the ticker symbols the strategy invests in.
+   *
+   * @return ticker symbols.
+   */
+  @Override
+  public Set<String> getTickerSymbols() {
+    return Collections.unmodifiableSet(weightedStocks.keySet());
+  }
+
+  /**
+   * Check whether an investment of the strategy in the given portfolio came due, which is when
+   * its next scheduled investment time is no later than yesterday and the end time.
+   *
+   * @param portfolioNameTag portfolio name.
+   * @return whether an investment is due.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public boolean isDue(String portfolioNameTag) throws IllegalArgumentException {
+    return getNextInvestmentTime(portfolioNameTag).compareTo(lastInvestmentTime()) <= 0;
+  }
+
+  /**
+   * private helper to get the last time the strategy can invest on as of today, which is
+   * yesterday or the end time, whichever is earlier.
+   *
+   * @return last investment time.
+   */
+  private TradeTimeStamp lastInvestmentTime() {
+    TradeTimeStamp timeStamp = TradeTimeStamp.of(LocalDate.now().minusDays(1));
     if (endTime.compareTo(timeStamp) < 0) {
       timeStamp = endTime;
     }
-    while (investmentTime.compareTo(timeStamp) <= 0) {
-      try {
-        weightedStockStrategy.executeStrategy(portfolio);
-      } catch (IllegalArgumentException e) {
-        if (e.getMessage().equals(ErrorMsg.FAIL_CRAW_DATA_HOLIDAY_TIME_STAMP.getMsg())) {
-          LocalDate nextInvestmentTime = investmentTime.getLocalDate().plusDays(1);
-          investmentTime = new TradeTimeStamp(nextInvestmentTime);
-          weightedStockStrategy = new WeightedStockStrategy(strategyName, weightedStocks,
-                  investmentTime, capitalPerInvestment, commission);
-          continue;
-        } else {
-          throw new IllegalArgumentException(e.getMessage());
-        }
-      }
-      investmentTimeIncrementer(frequencyNode.getFreqType(), frequencyNode.getFrequency());
-      weightedStockStrategy = new WeightedStockStrategy(strategyName, weightedStocks,
-              investmentTime, capitalPerInvestment, commission);
+    return timeStamp;
+  }
+
+  /**
+   * Resume the strategy in the given portfolio from the given next scheduled investment time,
+   * as read back from a saved strategy or the account journal.
+   *
+   * @param portfolioNameTag   portfolio name.
+   * @param nextInvestmentTime next scheduled investment time.
+   * @throws IllegalArgumentException if invalid input.
+   */
+  public void resumeInvestment(String portfolioNameTag, TradeTimeStamp nextInvestmentTime)
+          throws IllegalArgumentException {
+    if (portfolioNameTag == null || nextInvestmentTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
+    nextInvestmentTimes.put(portfolioNameTag, nextInvestmentTime);
   }
 
   /**
@@ -135,36 +222,7 @@ public class DACStockStrategy implements RetrievableStrategy {
   }
 
   /**
-   * Increment investmentTime.
-   *
-   * @param freqType  increment frequency type.
-   * @param frequency increment frequency.
-   * @throws IllegalArgumentException if invalid input.
-   */
-  private void investmentTimeIncrementer(char freqType, long frequency)
-          throws IllegalArgumentException {
-    LocalDate nextInvestmentTime;
-    switch (freqType) {
-      case 'D':
-        nextInvestmentTime = investmentTime.getLocalDate().plusDays(frequency);
-        break;
-      case 'W':
-        nextInvestmentTime = investmentTime.getLocalDate().plusWeeks(frequency);
-        break;
-      case 'M':
-        nextInvestmentTime = investmentTime.getLocalDate().plusMonths(frequency);
-        break;
-      case 'Y':
-        nextInvestmentTime = investmentTime.getLocalDate().plusYears(frequency);
-        break;
-      default:
-        throw new IllegalArgumentException(ErrorMsg.INVALID_STRATEGY_FREQUENCY_TYPE.getMsg());
-    }
-    investmentTime = new TradeTimeStamp(nextInvestmentTime);
-  }
-
-  /**
-   * Write current strategy to dest file.
+   * Write current strategy to dest file, as a csv file and a binary snapshot.
    *
    * @param filePath filePath to write.
    * @throws IllegalArgumentException if write fails.
@@ -173,25 +231,12 @@ public class DACStockStrategy implements RetrievableStrategy {
   public void write(String filePath) {
     String strategyFilePath = filePath + "/" + strategyName + ".csv";
     String strategyFileHeader = "StrategyType,StockWeights,StartTime,EndTime," +
-            "FrequencyType,Frequency,CapitalPerInvestment,Commission";
+            "FrequencyType,Frequency,CapitalPerInvestment,Commission,NextInvestmentTimes";
     FileWriter strategyFileWriter;
     try {
       strategyFileWriter = new FileWriter(strategyFilePath);
       strategyFileWriter.append(strategyFileHeader).append("\n");
-      strategyFileWriter.append("DACInvestment").append(",");
-      strategyFileWriter.append(weightedStocks.toString()
-              .replace(",", "&")).append(",");
-      strategyFileWriter.append(startTime.toString()).append(",");
-      if (endTime.getLocalDate().equals(LocalDate.MAX)) {
-        strategyFileWriter.append("NA").append(",");
-      }
-      else {
-        strategyFileWriter.append(endTime.toString()).append(",");
-      }
-      strategyFileWriter.append(frequencyNode.getFreqType()).append(",");
-      strategyFileWriter.append(Long.toString(frequencyNode.getFrequency())).append(",");
-      strategyFileWriter.append(capitalPerInvestment.getAmount().toString()).append(",");
-      strategyFileWriter.append(commission.getAmount().toString()).append("\n");
+      strategyFileWriter.append(toCsvRow()).append("\n");
     } catch (Exception e) {
       System.out.println(e.getMessage());
       throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
@@ -202,5 +247,68 @@ public class DACStockStrategy implements RetrievableStrategy {
     } catch (Exception e) {
       throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
     }
+    SnapshotFile.write(filePath + "/" + strategyName + ".bin", SnapshotFile.strategyKind,
+            toSnapshot());
+  }
+
+  /**
+   * Get the strategy as the row written below the header of its strategy file.
+   *
+   * @return strategy row.
+   */
+  @Override
+  public String toCsvRow() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("DACInvestment").append(",");
+    sb.append(weightedStocks.toString().replace(",", "&")).append(",");
+    sb.append(startTime.toString()).append(",");
+    if (endTime.getLocalDate().equals(LocalDate.MAX)) {
+      sb.append("NA").append(",");
+    }
+    else {
+      sb.append(endTime.toString()).append(",");
+    }
+    sb.append(frequencyNode.getFreqType()).append(",");
+    sb.append(Long.toString(frequencyNode.getFrequency())).append(",");
+    sb.append(capitalPerInvestment.getAmount().toString()).append(",");
+    sb.append(commission.getAmount().toString()).append(",");
+    sb.append(nextInvestmentTimes.toString().replace(",", "&"));
+    return sb.toString();
+  }
+
+  /**
+   * Get the strategy as the payload of its binary snapshot: its type, the stock weights, then
+   * the start epoch-day, whether there is an end, the end epoch-day, the frequency type and
+   * frequency, the fixed-point capital per investment and commission, and the next scheduled
+   * investment epoch-day in every portfolio the strategy was executed in.
+   *
+   * @return snapshot payload.
+   * @throws IllegalArgumentException if write fails.
+   */
+  @Override
+  public byte[] toSnapshot() throws IllegalArgumentException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(payload);
+    try {
+      SnapshotFile.writeString(out, "DACInvestment");
+      WeightedStockStrategy.writeStockWeights(out, weightedStocks);
+      out.writeInt((int) startTime.epochDay());
+      boolean hasEndTime = !endTime.getLocalDate().equals(LocalDate.MAX);
+      out.writeBoolean(hasEndTime);
+      out.writeInt(hasEndTime ? (int) endTime.epochDay() : 0);
+      out.writeChar(frequencyNode.getFreqType());
+      out.writeLong(frequencyNode.getFrequency());
+      out.writeLong(capitalPerInvestment.getMoney().micros());
+      out.writeLong(commission.getMoney().micros());
+      out.writeInt(nextInvestmentTimes.size());
+      for (Map.Entry<String, TradeTimeStamp> entry : nextInvestmentTimes.entrySet()) {
+        SnapshotFile.writeString(out, entry.getKey());
+        out.writeInt((int) entry.getValue().epochDay());
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
+    }
+    return payload.toByteArray();
   }
 }
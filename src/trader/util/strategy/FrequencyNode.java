@@ -1,5 +1,7 @@
 package trader.util.strategy;
 
+import java.time.LocalDate;
+
 import trader.ErrorMsg;
 
 /**
@@ -11,11 +13,16 @@ public class FrequencyNode {
   private static final String freqRegex = "(?<=\\d)(?=\\D)";
 
   /**
-   * Constructor of frequency node takes a frequency type and corresponding frequency.
+   * Constructor of frequency node takes a frequency type and corresponding frequency. The
+   * frequency has to be positive, or an investment schedule would never advance.
    * @param freqType freqType.
    * @param frequency frequency.
+   * @throws IllegalArgumentException if the frequency is not positive.
    */
-  public FrequencyNode(char freqType, long frequency) {
+  public FrequencyNode(char freqType, long frequency) throws IllegalArgumentException {
+    if (frequency <= 0) {
+      throw new IllegalArgumentException(ErrorMsg.INVALID_FREQUENCY_NON_POSITIVE.getMsg());
+    }
     this.freqType = freqType;
     this.frequency = frequency;
   }
@@ -61,4 +68,25 @@ public class FrequencyNode {
   public long getFrequency() {
     return frequency;
   }
+
+  /**
+   * Get the epoch-day one frequency period after the given one.
+   * @param epochDay epoch-day to advance from.
+   * @return epoch-day one period later.
+   * @throws IllegalArgumentException if the frequency type is invalid.
+   */
+  public long advance(long epochDay) throws IllegalArgumentException {
+    switch (freqType) {
+      case 'D':
+        return epochDay + frequency;
+      case 'W':
+        return epochDay + 7 * frequency;
+      case 'M':
+        return LocalDate.ofEpochDay(epochDay).plusMonths(frequency).toEpochDay();
+      case 'Y':
+        return LocalDate.ofEpochDay(epochDay).plusYears(frequency).toEpochDay();
+      default:
+        throw new IllegalArgumentException(ErrorMsg.INVALID_STRATEGY_FREQUENCY_TYPE.getMsg());
+    }
+  }
 }
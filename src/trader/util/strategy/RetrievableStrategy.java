@@ -6,10 +6,24 @@ package trader.util.strategy;
 public interface RetrievableStrategy extends Strategy {
 
   /**
-   * Write current strategy to dest file.
+   * Write current strategy to dest file, as a csv file and a binary snapshot.
    *
    * @param filePath filePath to write.
    * @throws IllegalArgumentException if write fails.
    */
   void write(String filePath);
+
+  /**
+   * Get the strategy as the row written below the header of its strategy file.
+   *
+   * @return strategy row.
+   */
+  String toCsvRow();
+
+  /**
+   * Get the strategy as the payload of its binary snapshot.
+   *
+   * @return snapshot payload.
+   */
+  byte[] toSnapshot();
 }
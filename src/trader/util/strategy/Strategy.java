@@ -1,5 +1,7 @@
 package trader.util.strategy;
 
+import java.util.Set;
+
 import trader.util.portfolio.CommissionPortfolio;
 
 /**
@@ -18,6 +20,12 @@ public interface Strategy {
    */
   String getNameTag();
 
+  /**
+   * Get the ticker symbols the strategy invests in.
+   * @return ticker symbols.
+   */
+  Set<String> getTickerSymbols();
+
   /**
    * View Strategy.
    *
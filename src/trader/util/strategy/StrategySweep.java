@@ -0,0 +1,301 @@
+package trader.util.strategy;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.Money;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+
+/**
+ * This class is a sweep of dollar averaging cost backtests over a grid of weighted stocks,
+ * capitals, commissions and frequencies. Every combination runs as its own DACBacktest on a
+ * work-stealing pool and writes only its own slot of the results, after the price columns and
+ * trading calendars it reads are loaded once up front. The results are ranked by net gain, the
+ * final value less the cost basis and the commissions.
+ */
+public class StrategySweep {
+  private static final ForkJoinPool sweepPool = ForkJoinPool.commonPool();
+  private final List<Result> results;
+
+  /**
+   * This class is the outcome of one combination of a sweep.
+   */
+  public static class Result {
+    private final Map<String, BigDecimal> weightedStocks;
+    private final USDPrice capitalPerInvestment;
+    private final USDPrice commission;
+    private final FrequencyNode frequencyNode;
+    private final long valueMicros;
+    private final long costMicros;
+    private final long commissionCostMicros;
+
+    /**
+     * Constructor of Result given the combination and its backtest.
+     *
+     * @param weightedStocks       weighted stocks.
+     * @param capitalPerInvestment capital per investment.
+     * @param commission           commission per transaction.
+     * @param frequencyNode        frequency of the investments.
+     * @param backtest             backtest of the combination.
+     */
+    private Result(Map<String, BigDecimal> weightedStocks, USDPrice capitalPerInvestment,
+                   USDPrice commission, FrequencyNode frequencyNode, DACBacktest backtest) {
+      this.weightedStocks = weightedStocks;
+      this.capitalPerInvestment = capitalPerInvestment;
+      this.commission = commission;
+      this.frequencyNode = frequencyNode;
+      this.valueMicros = backtest.valueMicros();
+      this.costMicros = backtest.costMicros();
+      this.commissionCostMicros = backtest.commissionCostMicros();
+    }
+
+    /**
+     * Get the weighted stocks of the combination.
+     *
+     * @return weighted stocks.
+     */
+    public Map<String, BigDecimal> getWeightedStocks() {
+      return Collections.unmodifiableMap(weightedStocks);
+    }
+
+    /**
+     * Get the capital per investment of the combination.
+     *
+     * @return capital per investment.
+     */
+    public USDPrice getCapitalPerInvestment() {
+      return capitalPerInvestment;
+    }
+
+    /**
+     * Get the commission per transaction of the combination.
+     *
+     * @return commission per transaction.
+     */
+    public USDPrice getCommission() {
+      return commission;
+    }
+
+    /**
+     * Get the frequency of the combination.
+     *
+     * @return frequency.
+     */
+    public FrequencyNode getFrequencyNode() {
+      return frequencyNode;
+    }
+
+    /**
+     * Get the final value of the stocks bought.
+     *
+     * @return final value.
+     */
+    public USDPrice getValue() {
+      return new USDPrice(Money.ofMicros(valueMicros));
+    }
+
+    /**
+     * Get the cost basis of the stocks bought.
+     *
+     * @return cost basis.
+     */
+    public USDPrice getCost() {
+      return new USDPrice(Money.ofMicros(costMicros));
+    }
+
+    /**
+     * Get the commissions paid.
+     *
+     * @return commission cost.
+     */
+    public USDPrice getCommissionCost() {
+      return new USDPrice(Money.ofMicros(commissionCostMicros));
+    }
+
+    /**
+     * Get the commission drag, the share of the money spent that went to commissions.
+     *
+     * @return commission drag between 0 and 1, zero if nothing was spent.
+     */
+    public BigDecimal getCommissionDrag() {
+      long spentMicros = Money.addMicros(costMicros, commissionCostMicros);
+      if (spentMicros == 0) {
+        return BigDecimal.ZERO;
+      }
+      return BigDecimal.valueOf(commissionCostMicros)
+              .divide(BigDecimal.valueOf(spentMicros), 6, RoundingMode.HALF_EVEN);
+    }
+
+    /**
+     * private helper to get the net gain the results are ranked by.
+     *
+     * @return fixed-point final value less cost basis and commissions.
+     */
+    private long netGainMicros() {
+      return valueMicros - costMicros - commissionCostMicros;
+    }
+
+    /**
+     * View the result as one row of the sweep table.
+     *
+     * @return view.
+     */
+    public String view() {
+      DecimalFormat df = new DecimalFormat("##.00");
+      StringBuilder sb = new StringBuilder();
+      sb.append("Frequency: ").append(frequencyNode.getFrequency())
+              .append(frequencyNode.getFreqType());
+      sb.append(" Capital per Investment: ").append(capitalPerInvestment.toString());
+      sb.append(" Commission per Transaction: ").append(commission.toString());
+      sb.append(" Stock Weights:");
+      for (Map.Entry<String, BigDecimal> entry : weightedStocks.entrySet()) {
+        sb.append(" ").append(entry.getKey()).append(" ")
+                .append(df.format(entry.getValue().multiply(new BigDecimal("100")))).append("%");
+      }
+      sb.append(" | Final Value: ").append(getValue().toString());
+      sb.append(" Cost Basis: ").append(getCost().toString());
+      sb.append(" Commission: ").append(getCommissionCost().toString());
+      sb.append(" Commission Drag: ").append(new DecimalFormat("#0.00")
+              .format(getCommissionDrag().multiply(new BigDecimal("100"))))
+              .append("%");
+      return sb.toString();
+    }
+  }
+
+  /**
+   * Constructor of StrategySweep given its ranked results.
+   *
+   * @param results ranked results.
+   */
+  private StrategySweep(List<Result> results) {
+    this.results = results;
+  }
+
+  /**
+   * Run a dollar averaging cost backtest for every combination of the grid concurrently, from
+   * the start time up to the end time, or yesterday if it is earlier.
+   *
+   * @param generator          generator of the price columns.
+   * @param weightedStocksGrid weighted stocks to try.
+   * @param capitalGrid        capitals per investment to try.
+   * @param commissionGrid     commissions per transaction to try.
+   * @param frequencyGrid      frequencies to try.
+   * @param startTime          first scheduled investment time.
+   * @param endTime            last time to invest on, null for none.
+   * @return sweep with its results ranked by net gain.
+   * @throws IllegalArgumentException if invalid input, or a backtest fails.
+   */
+  public static StrategySweep run(EquityGenerator generator,
+                                  List<Map<String, BigDecimal>> weightedStocksGrid,
+                                  List<USDPrice> capitalGrid, List<USDPrice> commissionGrid,
+                                  List<FrequencyNode> frequencyGrid, TradeTimeStamp startTime,
+                                  TradeTimeStamp endTime) throws IllegalArgumentException {
+    if (generator == null || weightedStocksGrid == null || capitalGrid == null
+            || commissionGrid == null || frequencyGrid == null || startTime == null) {
+      throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+    }
+    if (weightedStocksGrid.isEmpty() || capitalGrid.isEmpty() || commissionGrid.isEmpty()
+            || frequencyGrid.isEmpty()) {
+      throw new IllegalArgumentException(ErrorMsg.EMPTY_INPUT.getMsg());
+    }
+    TradeTimeStamp lastTime = TradeTimeStamp.of(LocalDate.now().minusDays(1));
+    if (endTime != null && endTime.compareTo(lastTime) < 0) {
+      lastTime = endTime;
+    }
+    for (Map<String, BigDecimal> weightedStocks : weightedStocksGrid) {
+      if (weightedStocks == null) {
+        throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
+      }
+      WeightedStockStrategy.checkWeights(weightedStocks);
+      if (startTime.compareTo(lastTime) <= 0) {
+        generator.tradingCalendar(weightedStocks.keySet(), lastTime);
+        for (String tickerSymbol : weightedStocks.keySet()) {
+          generator.priceColumn(tickerSymbol, lastTime);
+        }
+      }
+    }
+    int combinations = weightedStocksGrid.size() * capitalGrid.size() * commissionGrid.size()
+            * frequencyGrid.size();
+    Result[] results = new Result[combinations];
+    List<CompletableFuture<Void>> runs = new ArrayList<>(combinations);
+    int combination = 0;
+    for (Map<String, BigDecimal> weightedStocks : weightedStocksGrid) {
+      for (USDPrice capital : capitalGrid) {
+        for (USDPrice commission : commissionGrid) {
+          for (FrequencyNode frequencyNode : frequencyGrid) {
+            int slot = combination++;
+            TradeTimeStamp last = lastTime;
+            runs.add(CompletableFuture.runAsync(() -> results[slot] = new Result(weightedStocks,
+                    capital, commission, frequencyNode, DACBacktest.run(generator,
+                    weightedStocks, capital, commission, startTime, last, frequencyNode)),
+                    sweepPool));
+          }
+        }
+      }
+    }
+    for (CompletableFuture<Void> run : runs) {
+      awaitRun(run);
+    }
+    List<Result> ranked = new ArrayList<>(Arrays.asList(results));
+    ranked.sort(Comparator.comparingLong(Result::netGainMicros).reversed());
+    return new StrategySweep(Collections.unmodifiableList(ranked));
+  }
+
+  /**
+   * private helper to wait for a backtest of the sweep.
+   *
+   * @param run backtest run.
+   * @throws IllegalArgumentException if the backtest failed.
+   */
+  private static void awaitRun(CompletableFuture<Void> run) throws IllegalArgumentException {
+    try {
+      run.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalArgumentException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalArgumentException(e);
+    }
+  }
+
+  /**
+   * Get the results ranked by net gain, best first.
+   *
+   * @return ranked results.
+   */
+  public List<Result> getResults() {
+    return results;
+  }
+
+  /**
+   * View the ranked results as a table, one row per combination.
+   *
+   * @return view.
+   */
+  public String view() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("Strategy Sweep: ").append(results.size()).append(" combinations");
+    int rank = 1;
+    for (Result result : results) {
+      sb.append("\n").append(rank++).append(". ").append(result.view());
+    }
+    return sb.toString();
+  }
+}
@@ -1,14 +1,20 @@
 package trader.util.strategy;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileWriter;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.DecimalFormat;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 import trader.ErrorMsg;
 import trader.util.equity.USStock;
-import trader.util.StockGenerator;
+import trader.util.EquityGenerator;
+import trader.util.SnapshotFile;
 import trader.util.TradeTimeStamp;
 import trader.util.USDPrice;
 import trader.util.portfolio.CommissionPortfolio;
@@ -19,12 +25,12 @@ import trader.util.portfolio.CommissionPortfolio;
 public class WeightedStockStrategy implements RetrievableStrategy {
   private static final BigDecimal minTotalWeight = new BigDecimal("0.99");
   private static final BigDecimal maxTotalWeight = new BigDecimal("1.01");
-  private static final StockGenerator generator = new StockGenerator();
   private final String strategyName;
   private final Map<String, BigDecimal> weightedStocks;
   private final TradeTimeStamp investmentTime;
   private final USDPrice capital;
   private final USDPrice commission;
+  private final EquityGenerator generator;
 
   /**
    * Constructor for WeightedStockStrategy.
@@ -34,12 +40,15 @@ public class WeightedStockStrategy implements RetrievableStrategy {
    * @param timeStamp      investment time.
    * @param capital        capital to invest.
    * @param commission     commission per transaction.
+   * @param generator      generator of the stocks to invest in.
    * @throws IllegalArgumentException invalid input.
    */
   public WeightedStockStrategy(String name, Map<String, BigDecimal> weightedStocks,
-                               TradeTimeStamp timeStamp, USDPrice capital, USDPrice commission)
+                               TradeTimeStamp timeStamp, USDPrice capital, USDPrice commission,
+                               EquityGenerator generator)
           throws IllegalArgumentException {
-    if (weightedStocks == null || timeStamp == null || capital == null || commission == null) {
+    if (weightedStocks == null || timeStamp == null || capital == null || commission == null
+            || generator == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     this.strategyName = name;
@@ -47,6 +56,18 @@ public class WeightedStockStrategy implements RetrievableStrategy {
     this.weightedStocks = weightedStocks;
     this.capital = capital;
     this.commission = commission;
+    this.generator = generator;
+    checkWeights(weightedStocks);
+  }
+
+  /**
+   * Check that the stock weights add up to one.
+   *
+   * @param weightedStocks weighted stocks.
+   * @throws IllegalArgumentException if the weights do not add up to one.
+   */
+  static void checkWeights(Map<String, BigDecimal> weightedStocks)
+          throws IllegalArgumentException {
     BigDecimal totalWeight = new BigDecimal("0");
     for (BigDecimal weight : weightedStocks.values()) {
       totalWeight = totalWeight.add(weight);
@@ -62,13 +83,23 @@ public class WeightedStockStrategy implements RetrievableStrategy {
    * @throws IllegalArgumentException if Invalid input.
    */
   public void executeStrategy(CommissionPortfolio portfolio) throws IllegalArgumentException {
-    if (portfolio == null) {
+    executeStrategy(portfolio, investmentTime);
+  }
+
+  /**
+   * Execute Strategy in the given portfolio at the given investment time instead of its own.
+   *
+   * @param portfolio      portfolio to invest in.
+   * @param investmentTime investment time.
+   * @throws IllegalArgumentException if Invalid input.
+   */
+  void executeStrategy(CommissionPortfolio portfolio, TradeTimeStamp investmentTime)
+          throws IllegalArgumentException {
+    if (portfolio == null || investmentTime == null) {
       throw new IllegalArgumentException(ErrorMsg.NULL_INPUT.getMsg());
     }
     for (String tickerSymbol : weightedStocks.keySet()) {
-      USStock stock = (USStock) generator.generateEquity(tickerSymbol,
-              investmentTime, new BigInteger("1"));
-      USDPrice unitPrice = (USDPrice) stock.getUnitPrice();
+      USDPrice unitPrice = generator.lookupPrice(tickerSymbol, investmentTime).priceOrThrow();
       BigDecimal weight = weightedStocks.get(tickerSymbol);
       BigDecimal cost = capital.getAmount().multiply(weight);
       BigInteger shares = cost.divide(unitPrice.getAmount(),
@@ -88,6 +119,16 @@ public class WeightedStockStrategy implements RetrievableStrategy {
     return strategyName;
   }
 
+  /**
+   * Get the ticker symbols the strategy invests in.
+   *
+   * @return ticker symbols.
+   */
+  @Override
+  public Set<String> getTickerSymbols() {
+    return Collections.unmodifiableSet(weightedStocks.keySet());
+  }
+
   /**
    * View Strategy.
    *
@@ -111,7 +152,7 @@ public class WeightedStockStrategy implements RetrievableStrategy {
   }
 
   /**
-   * Write current strategy to dest file.
+   * Write current strategy to dest file, as a csv file and a binary snapshot.
    *
    * @param filePath filePath to write.
    * @throws IllegalArgumentException if write fails.
@@ -124,12 +165,7 @@ public class WeightedStockStrategy implements RetrievableStrategy {
     try {
       strategyFileWriter = new FileWriter(strategyFilePath);
       strategyFileWriter.append(strategyFileHeader).append("\n");
-      strategyFileWriter.append("WeightedInvestment").append(",");
-      strategyFileWriter.append(weightedStocks.toString()
-              .replace(",", "&")).append(",");
-      strategyFileWriter.append(investmentTime.toString()).append(",");
-      strategyFileWriter.append(capital.getAmount().toString()).append(",");
-      strategyFileWriter.append(commission.getAmount().toString()).append("\n");
+      strategyFileWriter.append(toCsvRow()).append("\n");
     } catch (Exception e) {
       System.out.println(e.getMessage());
       throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
@@ -140,5 +176,66 @@ public class WeightedStockStrategy implements RetrievableStrategy {
     } catch (Exception e) {
       throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
     }
+    SnapshotFile.write(filePath + "/" + strategyName + ".bin", SnapshotFile.strategyKind,
+            toSnapshot());
+  }
+
+  /**
+   * Get the strategy as the row written below the header of its strategy file.
+   *
+   * @return strategy row.
+   */
+  @Override
+  public String toCsvRow() {
+    StringBuilder sb = new StringBuilder();
+    sb.append("WeightedInvestment").append(",");
+    sb.append(weightedStocks.toString().replace(",", "&")).append(",");
+    sb.append(investmentTime.toString()).append(",");
+    sb.append(capital.getAmount().toString()).append(",");
+    sb.append(commission.getAmount().toString());
+    return sb.toString();
+  }
+
+  /**
+   * Get the strategy as the payload of its binary snapshot: its type, the stock weights, then
+   * the investment epoch-day, fixed-point capital and fixed-point commission.
+   *
+   * @return snapshot payload.
+   * @throws IllegalArgumentException if write fails.
+   */
+  @Override
+  public byte[] toSnapshot() throws IllegalArgumentException {
+    ByteArrayOutputStream payload = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(payload);
+    try {
+      SnapshotFile.writeString(out, "WeightedInvestment");
+      writeStockWeights(out, weightedStocks);
+      out.writeInt((int) investmentTime.epochDay());
+      out.writeLong(capital.getMoney().micros());
+      out.writeLong(commission.getMoney().micros());
+      out.flush();
+    } catch (IOException e) {
+      throw new IllegalArgumentException(ErrorMsg.FAILED_WRITE_STRATEGY.getMsg());
+    }
+    return payload.toByteArray();
+  }
+
+  /**
+   * Write stock weights to a snapshot payload, as the ticker symbol column followed by the
+   * weight column.
+   *
+   * @param out            payload to write to.
+   * @param weightedStocks stock weights to write.
+   * @throws IOException if write fails.
+   */
+  static void writeStockWeights(DataOutputStream out, Map<String, BigDecimal> weightedStocks)
+          throws IOException {
+    out.writeInt(weightedStocks.size());
+    for (String tickerSymbol : weightedStocks.keySet()) {
+      SnapshotFile.writeString(out, tickerSymbol);
+    }
+    for (BigDecimal weight : weightedStocks.values()) {
+      SnapshotFile.writeString(out, weight.toString());
+    }
   }
 }
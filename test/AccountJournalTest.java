@@ -0,0 +1,350 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import trader.ErrorMsg;
+import trader.model.IRetrievableStrategyTraderModel;
+import trader.model.StrategyStockTraderModel;
+import trader.util.MemoryPriceSource;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.account.AccountJournal;
+import trader.util.equity.USStock;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Account journal tests.
+ */
+public class AccountJournalTest {
+  private static final String portfolioName = "JournalRestartTest";
+  private static final String strategyName = "JournalRestartTest";
+  private MemoryPriceSource priceSource;
+  private File journalDir;
+  private String journalPath;
+
+  @Before
+  public void setUp() throws IOException {
+    priceSource = new MemoryPriceSource();
+    for (LocalDate day = LocalDate.of(2018, 11, 1); day.isBefore(LocalDate.of(2018, 12, 1));
+         day = day.plusDays(1)) {
+      if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        priceSource.putClose("GOOG", new TradeTimeStamp(day),
+                new USDPrice(new BigDecimal("10.00")));
+      }
+    }
+    journalDir = Files.createTempDirectory("journal").toFile();
+    journalPath = new File(journalDir, "account.journal").getPath();
+  }
+
+  @After
+  public void tearDown() {
+    delete(journalDir);
+    delete(new File("res/Portfolios/" + portfolioName));
+    delete(new File("res/Strategies/" + strategyName + ".csv"));
+    delete(new File("res/Strategies/" + strategyName + ".bin"));
+  }
+
+  @Test
+  public void testReplay() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    appendRecords(journal);
+    journal.close();
+    RecordingReplayer replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    assertEquals(expectedRecords(), replayer.records);
+  }
+
+  @Test
+  public void testTornTailIsCutOff() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    appendRecords(journal);
+    journal.close();
+    File journalFile = new File(journalPath);
+    long size = journalFile.length();
+    try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+      file.setLength(size - 3);
+    }
+    RecordingReplayer replayer = new RecordingReplayer();
+    journal = new AccountJournal(journalPath, replayer);
+    assertEquals(expectedRecords().subList(0, 5), replayer.records);
+    journal.appendAddPortfolio("After");
+    journal.close();
+    replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    List<String> expected = new ArrayList<>(expectedRecords().subList(0, 5));
+    expected.add("addPortfolio After");
+    assertEquals(expected, replayer.records);
+  }
+
+  @Test
+  public void testCorruptRecordEndsReplay() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    journal.appendAddPortfolio("First");
+    journal.commit();
+    long secondRecord = new File(journalPath).length();
+    appendRecords(journal);
+    journal.close();
+    try (RandomAccessFile file = new RandomAccessFile(journalPath, "rw")) {
+      file.seek(secondRecord + 10);
+      int value = file.read();
+      file.seek(secondRecord + 10);
+      file.write(value ^ 0xff);
+    }
+    RecordingReplayer replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    List<String> expected = new ArrayList<>();
+    expected.add("addPortfolio First");
+    assertEquals(expected, replayer.records);
+    assertEquals(secondRecord, new File(journalPath).length());
+  }
+
+  @Test
+  public void testFailedRecordMovesRestAside() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    appendRecords(journal);
+    journal.close();
+    RecordingReplayer replayer = new FailingReplayer();
+    journal = new AccountJournal(journalPath, replayer);
+    assertEquals(expectedRecords().subList(0, 2), replayer.records);
+    assertEquals(4, journal.getRejectedRecords());
+    journal.appendAddPortfolio("After");
+    journal.close();
+    replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    List<String> expected = new ArrayList<>(expectedRecords().subList(0, 2));
+    expected.add("addPortfolio After");
+    assertEquals(expected, replayer.records);
+    replayer = new RecordingReplayer();
+    new AccountJournal(journal.getRejectedPath(), replayer).close();
+    assertEquals(expectedRecords().subList(2, 6), replayer.records);
+  }
+
+  @Test
+  public void testRestartPastFailedRecord() {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    journal.appendAddPortfolio(portfolioName);
+    journal.appendBuy(portfolioName, "GOOG", 17848, 10000000L, 3, 1000000L);
+    journal.appendBuy(portfolioName, "GOOG", 17849, 10000000L, -1, 1000000L);
+    journal.appendBuy(portfolioName, "GOOG", 17850, 10000000L, 2, 1000000L);
+    journal.commit();
+    IRetrievableStrategyTraderModel model = buildModel();
+    IRetrievableStrategyTraderModel expected = StrategyStockTraderModel.getBuilder()
+            .priceSource(priceSource).build();
+    expected.createPortfolio(portfolioName);
+    expected.buyEquityWithCommission("GOOG", "3", "11/13/2018", portfolioName, "1.00");
+    assertEquals(expected.getPortfolioCostBasis(portfolioName),
+            model.getPortfolioCostBasis(portfolioName));
+  }
+
+  @Test
+  public void testOutOfRangeBuyIsRejected() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    USStock stock = new USStock("GOOG", new USDPrice(new BigDecimal("10.00")),
+            new TradeTimeStamp(LocalDate.MAX), BigInteger.ONE);
+    try {
+      journal.appendBuy(portfolioName, stock, new USDPrice(new BigDecimal("1.00")));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.INVALID_JOURNAL_BUY_OVERFLOW.getMsg(), e.getMessage());
+    }
+    journal.close();
+    RecordingReplayer replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    assertEquals(0, replayer.records.size());
+  }
+
+  @Test
+  public void testCheckpointKeepsRetainedRecords() throws IOException {
+    AccountJournal journal = new AccountJournal(journalPath, new RecordingReplayer());
+    appendRecords(journal);
+    journal.commit();
+    journal.checkpoint(() -> journal.appendAddPortfolio("Kept"));
+    journal.appendAddEquity("Kept", "GOOG");
+    journal.close();
+    RecordingReplayer replayer = new RecordingReplayer();
+    new AccountJournal(journalPath, replayer).close();
+    List<String> expected = new ArrayList<>();
+    expected.add("addPortfolio Kept");
+    expected.add("addEquity Kept GOOG");
+    assertEquals(expected, replayer.records);
+  }
+
+  @Test
+  public void testRestartAndRetrieveKeepsCostBasis() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.createPortfolio(portfolioName);
+    model.buyEquityWithCommission("GOOG", "1", "11/13/2018", portfolioName, "1.00");
+    String costBasis = model.getPortfolioCostBasis(portfolioName);
+    model.saveAllPortfolio();
+    for (int restart = 0; restart < 3; restart++) {
+      model = buildModel();
+      model.retrievePortfolio(portfolioName);
+      assertEquals(costBasis, model.getPortfolioCostBasis(portfolioName));
+      model.saveAllPortfolio();
+    }
+  }
+
+  @Test
+  public void testRestartReplaysChangesSinceSave() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.createPortfolio(portfolioName);
+    model.buyEquityWithCommission("GOOG", "1", "11/13/2018", portfolioName, "1.00");
+    model.savePortfolio(portfolioName);
+    model.buyEquityWithCommission("GOOG", "2", "11/14/2018", portfolioName, "1.00");
+    String costBasis = model.getPortfolioCostBasis(portfolioName);
+    model = buildModel();
+    assertEquals(costBasis, model.getPortfolioCostBasis(portfolioName));
+    model.retrievePortfolio(portfolioName);
+    assertEquals(costBasis, model.getPortfolioCostBasis(portfolioName));
+    model.saveAllPortfolio();
+    model = buildModel();
+    model.retrievePortfolio(portfolioName);
+    assertEquals(costBasis, model.getPortfolioCostBasis(portfolioName));
+  }
+
+  @Test
+  public void testSavedStrategyKeepsNextInvestments() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.createPortfolio(portfolioName);
+    Map<String, String> stocks = new LinkedHashMap<>();
+    stocks.put("GOOG", "100.00%");
+    model.addDollarAveragingCostStrategy(strategyName, stocks, "100.00", "1.00", "11/05/2018",
+            "11/30/2018", "1W");
+    model.saveAllStrategy();
+    model.applyStrategy(strategyName, portfolioName);
+    model.saveAllPortfolio();
+    String costBasis = model.getPortfolioCostBasis(portfolioName);
+    model = buildModel();
+    model.retrieveAllStrategy();
+    model.retrievePortfolio(portfolioName);
+    model.saveAllStrategy();
+    model = StrategyStockTraderModel.getBuilder().priceSource(priceSource).build();
+    model.retrieveAllStrategy();
+    model.retrievePortfolio(portfolioName);
+    model.applyStrategy(strategyName, portfolioName);
+    assertEquals(costBasis, model.getPortfolioCostBasis(portfolioName));
+  }
+
+  /**
+   * Build a model journaling to the test journal.
+   *
+   * @return model.
+   */
+  private IRetrievableStrategyTraderModel buildModel() {
+    return StrategyStockTraderModel.getBuilder().priceSource(priceSource).journal(journalPath)
+            .build();
+  }
+
+  /**
+   * Append one record of each kind and commit them.
+   *
+   * @param journal journal to append to.
+   */
+  private static void appendRecords(AccountJournal journal) {
+    journal.appendAddPortfolio("Growth");
+    journal.appendAddEquity("Growth", "GOOG");
+    journal.appendBuy("Growth", "GOOG", 17848, 10000000L, 3, 1000000L);
+    journal.appendAddStrategy("Weekly", "DACInvestment");
+    journal.appendResumeStrategy("Weekly", "Growth", 17855);
+    journal.appendSavePortfolio("Growth");
+    journal.commit();
+  }
+
+  /**
+   * Get the records appendRecords appends, as the recording replayer records them.
+   *
+   * @return records.
+   */
+  private static List<String> expectedRecords() {
+    List<String> records = new ArrayList<>();
+    records.add("addPortfolio Growth");
+    records.add("addEquity Growth GOOG");
+    records.add("buy Growth GOOG 17848 10000000 3 1000000");
+    records.add("addStrategy Weekly DACInvestment");
+    records.add("resumeStrategy Weekly Growth 17855");
+    records.add("savePortfolio Growth");
+    return records;
+  }
+
+  /**
+   * Delete a file or a directory with everything in it.
+   *
+   * @param file file to delete.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+
+  /**
+   * Replayer recording every replayed record as a line.
+   */
+  private static class RecordingReplayer implements AccountJournal.Replayer {
+    private final List<String> records = new ArrayList<>();
+
+    @Override
+    public void addPortfolio(String portfolioNameTag) {
+      records.add("addPortfolio " + portfolioNameTag);
+    }
+
+    @Override
+    public void addEquity(String portfolioNameTag, String tickerSymbol) {
+      records.add("addEquity " + portfolioNameTag + " " + tickerSymbol);
+    }
+
+    @Override
+    public void buy(String portfolioNameTag, String tickerSymbol, int epochDay, long priceMicros,
+                    long shares, long commissionMicros) {
+      records.add("buy " + portfolioNameTag + " " + tickerSymbol + " " + epochDay + " "
+              + priceMicros + " " + shares + " " + commissionMicros);
+    }
+
+    @Override
+    public void addStrategy(String strategyNameTag, String strategyRow) {
+      records.add("addStrategy " + strategyNameTag + " " + strategyRow);
+    }
+
+    @Override
+    public void resumeStrategy(String strategyNameTag, String portfolioNameTag,
+                               int nextInvestmentDay) {
+      records.add("resumeStrategy " + strategyNameTag + " " + portfolioNameTag + " "
+              + nextInvestmentDay);
+    }
+
+    @Override
+    public void savePortfolio(String portfolioNameTag) {
+      records.add("savePortfolio " + portfolioNameTag);
+    }
+  }
+
+  /**
+   * Replayer recording every replayed record as a line, and failing on every bought lot.
+   */
+  private static class FailingReplayer extends RecordingReplayer {
+    @Override
+    public void buy(String portfolioNameTag, String tickerSymbol, int epochDay, long priceMicros,
+                    long shares, long commissionMicros) {
+      throw new IllegalArgumentException("buy");
+    }
+  }
+}
@@ -0,0 +1,109 @@
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import trader.ErrorMsg;
+import trader.util.ApiKeyScheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Api key scheduler tests.
+ */
+public class ApiKeySchedulerTest {
+
+  @Test
+  public void testKeysTakeTurns() {
+    ApiKeyScheduler scheduler = new ApiKeyScheduler(new String[]{"A", "B"}, 5, 100);
+    assertEquals("A", scheduler.acquire());
+    assertEquals("B", scheduler.acquire());
+    assertEquals("A", scheduler.acquire());
+  }
+
+  @Test
+  public void testDailyBudget() {
+    ApiKeyScheduler scheduler = new ApiKeyScheduler(new String[]{"A", "B"}, 5, 2);
+    for (int call = 0; call < 4; call++) {
+      scheduler.acquire();
+    }
+    try {
+      scheduler.acquire();
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg(), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testMinuteBudgetWaits() throws InterruptedException {
+    ApiKeyScheduler scheduler = new ApiKeyScheduler(new String[]{"A"}, 2, 100);
+    scheduler.acquire();
+    scheduler.acquire();
+    Waiter waiter = new Waiter(scheduler);
+    waiter.start();
+    assertTrue(waiter.started.await(1, TimeUnit.SECONDS));
+    waiter.join(300);
+    assertTrue(waiter.isAlive());
+    waiter.interrupt();
+    waiter.join(1000);
+    assertEquals(ErrorMsg.FAIL_CRAW_DATA_API_NOT_WORKING.getMsg(),
+            waiter.failure.get().getMessage());
+  }
+
+  @Test
+  public void testInterruptedWaiterLeavesQueue() throws InterruptedException {
+    ApiKeyScheduler scheduler = new ApiKeyScheduler(new String[]{"A"}, 1, 100);
+    scheduler.acquire();
+    Waiter first = new Waiter(scheduler);
+    first.start();
+    first.join(200);
+    Waiter second = new Waiter(scheduler);
+    second.start();
+    second.join(200);
+    first.interrupt();
+    first.join(1000);
+    assertTrue(!first.isAlive() && first.failure.get() != null);
+    second.join(200);
+    assertTrue(second.isAlive());
+    second.interrupt();
+    second.join(1000);
+    assertTrue(!second.isAlive() && second.failure.get() != null);
+  }
+
+  @Test
+  public void testPenalizedKeyRests() {
+    ApiKeyScheduler scheduler = new ApiKeyScheduler(new String[]{"A", "B"}, 5, 100);
+    assertEquals("A", scheduler.acquire());
+    scheduler.penalize("B");
+    for (int call = 0; call < 4; call++) {
+      assertEquals("A", scheduler.acquire());
+    }
+  }
+
+  /**
+   * Thread acquiring one api key, recording how it failed.
+   */
+  private static class Waiter extends Thread {
+    private final ApiKeyScheduler scheduler;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    Waiter(ApiKeyScheduler scheduler) {
+      this.scheduler = scheduler;
+    }
+
+    @Override
+    public void run() {
+      started.countDown();
+      try {
+        scheduler.acquire();
+      } catch (RuntimeException e) {
+        failure.set(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,72 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+import trader.util.CsvDirectoryPriceSource;
+import trader.util.PriceColumn;
+import trader.util.TradeTimeStamp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Csv directory price source tests.
+ */
+public class CsvDirectoryPriceSourceTest {
+  private File root;
+  private CsvDirectoryPriceSource priceSource;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("csv").toFile();
+    File directory = new File(root, "Csv");
+    directory.mkdir();
+    Files.write(new File(directory, "GOOG.csv").toPath(), Arrays.asList(
+            "timestamp,open,high,low,close,volume",
+            "2018-11-02,1.00,1.00,1.00,10.50,100",
+            "2018-11-01,1.00,1.00,1.00,10.25,100"), StandardCharsets.UTF_8);
+    Files.write(new File(root, "Escaped.csv").toPath(), Arrays.asList(
+            "timestamp,open,high,low,close,volume",
+            "2018-11-01,1.00,1.00,1.00,99.00,100"), StandardCharsets.UTF_8);
+    priceSource = new CsvDirectoryPriceSource(directory.getPath());
+  }
+
+  @After
+  public void tearDown() {
+    for (File file : new File(root, "Csv").listFiles()) {
+      file.delete();
+    }
+    new File(root, "Csv").delete();
+    new File(root, "Escaped.csv").delete();
+    root.delete();
+  }
+
+  @Test
+  public void testLoad() {
+    PriceColumn column = priceSource.load("GOOG",
+            new TradeTimeStamp(LocalDate.of(2018, 11, 2)));
+    assertEquals(2, column.size());
+    assertEquals(LocalDate.of(2018, 11, 1).toEpochDay(), column.epochDay(0));
+    assertEquals(10500000L, column.close(1));
+  }
+
+  @Test
+  public void testInvalidTickerSymbolIsRejected() {
+    for (String tickerSymbol : new String[]{"../Escaped", "Csv/../../Escaped", "", ".."}) {
+      try {
+        priceSource.load(tickerSymbol, new TradeTimeStamp(LocalDate.of(2018, 11, 2)));
+        fail(tickerSymbol);
+      } catch (IllegalArgumentException e) {
+        assertEquals(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg(), e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,304 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import trader.ErrorMsg;
+import trader.model.IRetrievableStrategyTraderModel;
+import trader.model.StrategyStockTraderModel;
+import trader.util.EquityGenerator;
+import trader.util.MemoryPriceSource;
+import trader.util.Price;
+import trader.util.StockGenerator;
+import trader.util.TradeTimeStamp;
+import trader.util.TradingCalendar;
+import trader.util.USDPrice;
+import trader.util.equity.Equity;
+import trader.util.equity.USStock;
+import trader.util.portfolio.StockCommissionPortfolio;
+import trader.util.strategy.DACBacktest;
+import trader.util.strategy.DACStockStrategy;
+import trader.util.strategy.FrequencyNode;
+import trader.util.strategy.WeightedStockStrategy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Dollar averaging cost backtest tests, against investing period by period.
+ */
+public class DACBacktestTest {
+  private static final LocalDate firstDay = LocalDate.of(2018, 10, 1);
+  private static final LocalDate lastDay = LocalDate.of(2019, 6, 28);
+  private static final Set<LocalDate> holidays = new HashSet<>(Arrays.asList(
+          LocalDate.of(2018, 11, 22), LocalDate.of(2018, 12, 25), LocalDate.of(2019, 1, 1),
+          LocalDate.of(2019, 1, 21), LocalDate.of(2019, 2, 18), LocalDate.of(2019, 4, 19),
+          LocalDate.of(2019, 5, 27)));
+  private static final Set<LocalDate> missingDays = new HashSet<>(Arrays.asList(
+          LocalDate.of(2018, 12, 5), LocalDate.of(2019, 3, 14)));
+  private MemoryPriceSource priceSource;
+  private EquityGenerator generator;
+  private Map<String, BigDecimal> weightedStocks;
+
+  @Before
+  public void setUp() {
+    priceSource = new MemoryPriceSource();
+    int day = 0;
+    for (LocalDate date = firstDay; !date.isAfter(lastDay); date = date.plusDays(1)) {
+      if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY
+              || holidays.contains(date)) {
+        continue;
+      }
+      priceSource.putClose("AAA", new TradeTimeStamp(date), new USDPrice(
+              new BigDecimal("20.00").add(new BigDecimal("0.37").multiply(
+                      BigDecimal.valueOf(day % 17)))));
+      if (!missingDays.contains(date)) {
+        priceSource.putClose("BBB", new TradeTimeStamp(date), new USDPrice(
+                new BigDecimal("45.50").subtract(new BigDecimal("0.83").multiply(
+                        BigDecimal.valueOf(day % 11)))));
+      }
+      day++;
+    }
+    generator = new StockGenerator(priceSource);
+    weightedStocks = new LinkedHashMap<>();
+    weightedStocks.put("AAA", new BigDecimal("0.35"));
+    weightedStocks.put("BBB", new BigDecimal("0.65"));
+  }
+
+  @Test
+  public void testWeeklyAcrossHolidays() {
+    assertSameLots(LocalDate.of(2018, 11, 22), LocalDate.of(2019, 6, 20),
+            new FrequencyNode('W', 1));
+  }
+
+  @Test
+  public void testDailyAcrossHolidays() {
+    assertSameLots(LocalDate.of(2018, 12, 1), LocalDate.of(2019, 3, 31),
+            new FrequencyNode('D', 3));
+  }
+
+  @Test
+  public void testMonthlyAcrossHolidays() {
+    assertSameLots(LocalDate.of(2018, 11, 22), LocalDate.of(2019, 6, 28),
+            new FrequencyNode('M', 1));
+  }
+
+  @Test
+  public void testBacktestTotals() {
+    LocalDate start = LocalDate.of(2018, 11, 22);
+    LocalDate end = LocalDate.of(2019, 6, 20);
+    RecordingPortfolio portfolio = new RecordingPortfolio(generator);
+    investPeriodByPeriod(portfolio, start, end, 'W', 2);
+    DACBacktest backtest = DACBacktest.run(generator, weightedStocks,
+            new USDPrice(new BigDecimal("1234.56")), new USDPrice(new BigDecimal("2.00")),
+            TradeTimeStamp.of(start), TradeTimeStamp.of(end), new FrequencyNode('W', 2));
+    assertEquals(portfolio.lots.size(), backtest.periodCount() * backtest.tickerCount());
+    assertEquals(((USDPrice) portfolio.getCost()).getMoney().micros(), backtest.costMicros());
+    assertEquals(((USDPrice) portfolio.getCommissionCost()).getMoney().micros(),
+            backtest.commissionCostMicros());
+    for (int period = 0; period < backtest.periodCount(); period++) {
+      LocalDate investmentDay = LocalDate.ofEpochDay(backtest.investmentDay(period));
+      assertTrue(!holidays.contains(investmentDay) && !missingDays.contains(investmentDay));
+    }
+  }
+
+  @Test
+  public void testResumeFromNextInvestment() {
+    LocalDate start = LocalDate.of(2018, 11, 22);
+    RecordingPortfolio expected = new RecordingPortfolio(generator);
+    DACStockStrategy whole = weeklyStrategy(start, LocalDate.of(2019, 6, 20));
+    whole.executeStrategy(expected);
+    RecordingPortfolio actual = new RecordingPortfolio(generator);
+    DACStockStrategy first = weeklyStrategy(start, LocalDate.of(2019, 2, 28));
+    first.executeStrategy(actual);
+    int firstLots = actual.lots.size();
+    DACStockStrategy resumed = weeklyStrategy(start, LocalDate.of(2019, 6, 20));
+    resumed.resumeInvestment(actual.getNameTag(), first.getNextInvestmentTime(
+            actual.getNameTag()));
+    resumed.executeStrategy(actual);
+    assertTrue(firstLots > 0 && actual.lots.size() > firstLots);
+    assertEquals(expected.lots, actual.lots);
+    assertEquals(whole.getNextInvestmentTime(expected.getNameTag()),
+            resumed.getNextInvestmentTime(actual.getNameTag()));
+    resumed.executeStrategy(actual);
+    assertEquals(expected.lots, actual.lots);
+  }
+
+  @Test
+  public void testRetrievedStrategyResumesFromSavedNextInvestment() {
+    String name = "DACResumeTest";
+    Map<String, String> stocks = new LinkedHashMap<>();
+    stocks.put("AAA", "35.00%");
+    stocks.put("BBB", "65.00%");
+    try {
+      for (boolean csvOnly : new boolean[]{false, true}) {
+        IRetrievableStrategyTraderModel model = buildModel();
+        model.createPortfolio(name);
+        model.addDollarAveragingCostStrategy(name, stocks, "1234.56", "2.00", "11/22/2018",
+                "06/20/2019", "1W");
+        model.applyStrategy(name, name);
+        String costBasis = model.getPortfolioCostBasis(name);
+        model.saveAllStrategy();
+        model.saveAllPortfolio();
+        if (csvOnly) {
+          new File("res/Strategies/" + name + ".bin").delete();
+        }
+        model = buildModel();
+        model.retrieveStrategy(name);
+        model.retrievePortfolio(name);
+        model.applyStrategy(name, name);
+        assertEquals(costBasis, model.getPortfolioCostBasis(name));
+        deleteSaved(name);
+      }
+    } finally {
+      deleteSaved(name);
+    }
+  }
+
+  @Test
+  public void testNonPositiveFrequencyIsRejected() {
+    for (String frequency : new String[]{"0D", "0W", "-1M", "-2Y"}) {
+      try {
+        FrequencyNode.parse(frequency);
+        fail(frequency);
+      } catch (IllegalArgumentException e) {
+        assertEquals(ErrorMsg.INVALID_FREQUENCY_NON_POSITIVE.getMsg(), e.getMessage());
+      }
+    }
+    try {
+      DACBacktest.run(generator, weightedStocks, new USDPrice(new BigDecimal("1234.56")),
+              new USDPrice(new BigDecimal("2.00")), TradeTimeStamp.of(firstDay),
+              TradeTimeStamp.of(lastDay), new FrequencyNode('D', 0));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.INVALID_FREQUENCY_NON_POSITIVE.getMsg(), e.getMessage());
+    }
+  }
+
+  /**
+   * Build a weekly dollar averaging cost strategy over the test stocks.
+   *
+   * @param start first scheduled investment day.
+   * @param end   last day to invest on.
+   * @return strategy.
+   */
+  private DACStockStrategy weeklyStrategy(LocalDate start, LocalDate end) {
+    return new DACStockStrategy("DAC", weightedStocks, TradeTimeStamp.of(start),
+            TradeTimeStamp.of(end), new FrequencyNode('W', 1),
+            new USDPrice(new BigDecimal("1234.56")), new USDPrice(new BigDecimal("2.00")),
+            generator);
+  }
+
+  /**
+   * Build a model over the test prices.
+   *
+   * @return model.
+   */
+  private IRetrievableStrategyTraderModel buildModel() {
+    return StrategyStockTraderModel.getBuilder().priceSource(priceSource).build();
+  }
+
+  /**
+   * Delete the saved files of a portfolio and a strategy of the given name.
+   *
+   * @param name portfolio and strategy name.
+   */
+  private static void deleteSaved(String name) {
+    File portfolioDir = new File("res/Portfolios/" + name);
+    File[] portfolioFiles = portfolioDir.listFiles();
+    if (portfolioFiles != null) {
+      for (File file : portfolioFiles) {
+        file.delete();
+      }
+    }
+    portfolioDir.delete();
+    new File("res/Strategies/" + name + ".csv").delete();
+    new File("res/Strategies/" + name + ".bin").delete();
+  }
+
+  /**
+   * Check that the dollar averaging cost strategy buys the same lots as investing period by
+   * period with a weighted strategy.
+   *
+   * @param start         first scheduled investment day.
+   * @param end           last day to invest on.
+   * @param frequencyNode frequency of the investments.
+   */
+  private void assertSameLots(LocalDate start, LocalDate end, FrequencyNode frequencyNode) {
+    RecordingPortfolio expected = new RecordingPortfolio(generator);
+    investPeriodByPeriod(expected, start, end, frequencyNode.getFreqType(),
+            frequencyNode.getFrequency());
+    RecordingPortfolio actual = new RecordingPortfolio(generator);
+    new DACStockStrategy("DAC", weightedStocks, TradeTimeStamp.of(start),
+            TradeTimeStamp.of(end), frequencyNode, new USDPrice(new BigDecimal("1234.56")),
+            new USDPrice(new BigDecimal("2.00")), generator).executeStrategy(actual);
+    assertTrue(expected.lots.size() > 0);
+    assertEquals(expected.lots, actual.lots);
+  }
+
+  /**
+   * Invest period by period as the dollar averaging cost strategy did before it ran on a
+   * backtest: move each scheduled day to the next trading day, buy with a weighted strategy on
+   * it, and schedule the next day from it.
+   *
+   * @param portfolio portfolio to invest in.
+   * @param start     first scheduled investment day.
+   * @param end       last day to invest on.
+   * @param freqType  frequency type.
+   * @param frequency frequency.
+   */
+  private void investPeriodByPeriod(RecordingPortfolio portfolio, LocalDate start, LocalDate end,
+                                    char freqType, long frequency) {
+    TradingCalendar tradingCalendar = generator.tradingCalendar(weightedStocks.keySet(),
+            TradeTimeStamp.of(end));
+    int investmentDay = (int) start.toEpochDay();
+    while (investmentDay <= end.toEpochDay()) {
+      investmentDay = tradingCalendar.nextTradingDay(investmentDay);
+      if (investmentDay == TradingCalendar.noTradingDay || investmentDay > end.toEpochDay()) {
+        return;
+      }
+      new WeightedStockStrategy("Weighted", weightedStocks, TradeTimeStamp.of(investmentDay),
+              new USDPrice(new BigDecimal("1234.56")), new USDPrice(new BigDecimal("2.00")),
+              generator).executeStrategy(portfolio);
+      LocalDate invested = LocalDate.ofEpochDay(investmentDay);
+      if (freqType == 'D') {
+        investmentDay = (int) invested.plusDays(frequency).toEpochDay();
+      } else if (freqType == 'W') {
+        investmentDay = (int) invested.plusWeeks(frequency).toEpochDay();
+      } else {
+        investmentDay = (int) invested.plusMonths(frequency).toEpochDay();
+      }
+    }
+  }
+
+  /**
+   * Portfolio recording every lot bought into it as a line.
+   */
+  private static class RecordingPortfolio extends StockCommissionPortfolio {
+    private final List<String> lots = new ArrayList<>();
+
+    RecordingPortfolio(EquityGenerator generator) {
+      super("Recording", generator);
+    }
+
+    @Override
+    public void buyWithCommission(Equity target, Price commission) {
+      USStock stock = (USStock) target;
+      lots.add(stock.getEquitySymbol() + " " + stock.getTimeStamp() + " "
+              + ((USDPrice) stock.getUnitPrice()).getMoney().micros() + " " + stock.getVolume()
+              + " " + ((USDPrice) commission).getMoney().micros());
+      super.buyWithCommission(target, commission);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import trader.ErrorMsg;
+import trader.util.DailyCsvParser;
+import trader.util.PriceColumn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Daily csv parser tests.
+ */
+public class DailyCsvParserTest {
+  private static final String header = "timestamp,open,high,low,close,volume\n";
+  private DailyCsvParser parser;
+
+  @Before
+  public void setUp() {
+    parser = new DailyCsvParser();
+  }
+
+  @Test
+  public void testRowsAreParsedOldestFirst() throws IOException {
+    PriceColumn column = parser.parse(body(header
+            + "2019-03-04,10.1,10.2,9.9,10.05,1000\n"
+            + "2019-03-01,9.8,10.0,9.7,9.95,1200\n"
+            + "2019-02-28,9.5,9.9,9.4,9.5,900\n"));
+    assertEquals(3, column.size());
+    assertRow(column, 0, LocalDate.of(2019, 2, 28), 9500000L);
+    assertRow(column, 1, LocalDate.of(2019, 3, 1), 9950000L);
+    assertRow(column, 2, LocalDate.of(2019, 3, 4), 10050000L);
+  }
+
+  @Test
+  public void testMalformedRowsAreSkipped() throws IOException {
+    PriceColumn column = parser.parse(body(header
+            + "2019-03-05,1,1,1,11.00,1\n"
+            + "2019-13-04,1,1,1,12.00,1\n"
+            + "2019-03-00,1,1,1,12.00,1\n"
+            + "2019-03,1,1,1,12.00,1\n"
+            + "2019/03/04,1,1,1,12.00,1\n"
+            + "x2019-03-04,1,1,1,12.00,1\n"
+            + "2019-03-04,1,1,1\n"
+            + "2019-03-04,1,1,1,,1\n"
+            + "2019-03-04,1,1,1,12.0a,1\n"
+            + "2019-03-04,1,1,1,-12.00,1\n"
+            + "2019-03-04,1,1,1,1.2.3,1\n"
+            + "2019-03-04,1,1,1,99999999999999999999.00,1\n"
+            + "\n"
+            + "garbage\n"
+            + "2019-03-01,1,1,1,10.00,1\n"));
+    assertEquals(2, column.size());
+    assertRow(column, 0, LocalDate.of(2019, 3, 1), 10000000L);
+    assertRow(column, 1, LocalDate.of(2019, 3, 5), 11000000L);
+  }
+
+  @Test
+  public void testCarriageReturnsAndUnterminatedLastRow() throws IOException {
+    PriceColumn column = parser.parse(body(header.replace("\n", "\r\n")
+            + "2019-03-04,1,1,1,10.5,1\r\n"
+            + "2019-03-01,1,1,1,10.25,1"));
+    assertEquals(2, column.size());
+    assertRow(column, 0, LocalDate.of(2019, 3, 1), 10250000L);
+    assertRow(column, 1, LocalDate.of(2019, 3, 4), 10500000L);
+  }
+
+  @Test
+  public void testExtraFractionDigitsRoundHalfUp() throws IOException {
+    PriceColumn column = parser.parse(body(header
+            + "2019-03-04,1,1,1,1.0000005,1\n"
+            + "2019-03-01,1,1,1,1.0000004,1\n"));
+    assertRow(column, 0, LocalDate.of(2019, 3, 1), 1000000L);
+    assertRow(column, 1, LocalDate.of(2019, 3, 4), 1000001L);
+  }
+
+  @Test
+  public void testRowsSpanningBuffers() throws IOException {
+    StringBuilder csv = new StringBuilder(header);
+    LocalDate last = LocalDate.of(2019, 3, 1);
+    int rows = 5000;
+    for (int i = 0; i < rows; i++) {
+      csv.append(last.minusDays(i)).append(",1,1,1,").append(i % 100).append(".25,1\n");
+    }
+    PriceColumn column = parser.parse(body(csv.toString()));
+    assertEquals(rows, column.size());
+    for (int i = 0; i < rows; i++) {
+      assertRow(column, rows - 1 - i, last.minusDays(i), (i % 100) * 1000000L + 250000L);
+    }
+  }
+
+  @Test
+  public void testErrorResponseIsRejected() throws IOException {
+    try {
+      parser.parse(body("  {\n \"Error Message\": \"Invalid API call.\"\n}"));
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg(), e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEmptyBody() throws IOException {
+    assertEquals(0, parser.parse(body("")).size());
+    assertEquals(0, parser.parse(body(header)).size());
+  }
+
+  /**
+   * Get a response body of the given text.
+   *
+   * @param text body text.
+   * @return body stream.
+   */
+  private static InputStream body(String text) {
+    return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Assert the day and fixed-point close of a row of a column.
+   *
+   * @param column column to check.
+   * @param index  row index.
+   * @param day    expected day.
+   * @param close  expected fixed-point close.
+   */
+  private static void assertRow(PriceColumn column, int index, LocalDate day, long close) {
+    assertEquals(day.toEpochDay(), column.epochDay(index));
+    assertEquals(close, column.close(index));
+  }
+}
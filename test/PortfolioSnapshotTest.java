@@ -0,0 +1,263 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import trader.ErrorMsg;
+import trader.model.IRetrievableStrategyTraderModel;
+import trader.model.StrategyStockTraderModel;
+import trader.util.MemoryPriceSource;
+import trader.util.SnapshotFile;
+import trader.util.StockGenerator;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.equity.USStock;
+import trader.util.portfolio.PortfolioSnapshot;
+import trader.util.portfolio.StockCommissionPortfolio;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Portfolio snapshot tests, and the rule choosing between a snapshot and the csv files when a
+ * portfolio is retrieved.
+ */
+public class PortfolioSnapshotTest {
+  private static final String portfolioName = "SnapshotTest";
+  private static final String csvRow = "GOOG,2018-11-13,10,5,1";
+  private MemoryPriceSource priceSource;
+  private File tempDir;
+  private File equitiesFile;
+  private File snapshotFile;
+
+  @Before
+  public void setUp() throws IOException {
+    priceSource = new MemoryPriceSource();
+    for (LocalDate day = LocalDate.of(2018, 11, 1); day.isBefore(LocalDate.of(2018, 12, 1));
+         day = day.plusDays(1)) {
+      if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        priceSource.putClose("GOOG", new TradeTimeStamp(day),
+                new USDPrice(new BigDecimal("10.00")));
+      }
+    }
+    tempDir = Files.createTempDirectory("snapshot").toFile();
+    equitiesFile = new File("res/Portfolios/" + portfolioName + "/equities.csv");
+    snapshotFile = new File("res/Portfolios/" + portfolioName + "/snapshot.bin");
+  }
+
+  @After
+  public void tearDown() {
+    delete(tempDir);
+    delete(new File("res/Portfolios/" + portfolioName));
+  }
+
+  @Test
+  public void testSnapshotFileRoundTrip() {
+    String path = new File(tempDir, "payload.bin").getPath();
+    byte[] payload = {1, 2, 3, 4, 5};
+    SnapshotFile.write(path, SnapshotFile.portfolioKind, payload);
+    ByteBuffer read = SnapshotFile.read(path, SnapshotFile.portfolioKind);
+    byte[] readPayload = new byte[read.remaining()];
+    read.get(readPayload);
+    assertArrayEquals(payload, readPayload);
+  }
+
+  @Test
+  public void testDamagedSnapshotFileIsRejected() throws IOException {
+    String path = new File(tempDir, "payload.bin").getPath();
+    SnapshotFile.write(path, SnapshotFile.portfolioKind, new byte[]{1, 2, 3, 4, 5});
+    assertRejected(path, SnapshotFile.strategyKind);
+    byte[] snapshot = Files.readAllBytes(new File(path).toPath());
+    Files.write(new File(path).toPath(), Arrays.copyOf(snapshot, snapshot.length - 1));
+    assertRejected(path, SnapshotFile.portfolioKind);
+    snapshot[snapshot.length - 1] ^= 0xff;
+    Files.write(new File(path).toPath(), snapshot);
+    assertRejected(path, SnapshotFile.portfolioKind);
+  }
+
+  @Test
+  public void testPortfolioSnapshotRoundTrip() {
+    StockCommissionPortfolio portfolio = new StockCommissionPortfolio(portfolioName,
+            new StockGenerator(priceSource));
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 14), 3, "10.125");
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 13), 7, "9.50");
+    buy(portfolio, "AAPL", LocalDate.of(2018, 11, 20), 2, "150.00");
+    portfolio.write(tempDir.getPath());
+    PortfolioSnapshot snapshot = PortfolioSnapshot.read(
+            new File(tempDir, portfolioName + "/snapshot.bin").getPath());
+    assertEquals(3, snapshot.lotCount());
+    assertEquals(2, snapshot.getTickerSymbols().size());
+    for (int i = 0; i < snapshot.lotCount(); i++) {
+      String tickerSymbol = snapshot.tickerSymbol(i);
+      long shares = snapshot.shares(i);
+      if (tickerSymbol.equals("AAPL")) {
+        assertLot(snapshot, i, LocalDate.of(2018, 11, 20), 150000000L, 2);
+      } else if (shares == 7) {
+        assertLot(snapshot, i, LocalDate.of(2018, 11, 13), 9500000L, 7);
+      } else {
+        assertLot(snapshot, i, LocalDate.of(2018, 11, 14), 10125000L, 3);
+      }
+      assertEquals(1000000L, snapshot.commission(i));
+    }
+  }
+
+  @Test
+  public void testSnapshotIsPreferredOverOlderCsv() throws IOException {
+    String costBasis = savePortfolio();
+    rewriteCsv(snapshotFile.lastModified() - 10000);
+    assertEquals(costBasis, retrievedCostBasis());
+  }
+
+  @Test
+  public void testNewerCsvIsPreferredOverSnapshot() throws IOException {
+    savePortfolio();
+    rewriteCsv(snapshotFile.lastModified() + 10000);
+    assertEquals(csvCostBasis(), retrievedCostBasis());
+  }
+
+  @Test
+  public void testDamagedSnapshotFallsBackToCsv() throws IOException {
+    savePortfolio();
+    long modified = snapshotFile.lastModified();
+    rewriteCsv(modified - 10000);
+    try (RandomAccessFile file = new RandomAccessFile(snapshotFile, "rw")) {
+      file.seek(file.length() - 1);
+      int value = file.read();
+      file.seek(file.length() - 1);
+      file.write(value ^ 0xff);
+    }
+    snapshotFile.setLastModified(modified);
+    assertEquals(csvCostBasis(), retrievedCostBasis());
+  }
+
+  /**
+   * Save a portfolio of three shares through a model.
+   *
+   * @return cost basis of the saved portfolio.
+   */
+  private String savePortfolio() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.createPortfolio(portfolioName);
+    model.buyEquityWithCommission("GOOG", "3", "11/13/2018", portfolioName, "1.00");
+    model.saveAllPortfolio();
+    return model.getPortfolioCostBasis(portfolioName);
+  }
+
+  /**
+   * Replace the equities file with one holding five shares instead, modified at the given time.
+   *
+   * @param modified modification time of the equities file.
+   * @throws IOException if writing fails.
+   */
+  private void rewriteCsv(long modified) throws IOException {
+    Files.write(equitiesFile.toPath(), ("TickerSymbol,TradeTime,UnitPrice,Shares,Commission\n"
+            + csvRow + "\n").getBytes(StandardCharsets.UTF_8));
+    equitiesFile.setLastModified(modified);
+  }
+
+  /**
+   * Get the cost basis of the portfolio the rewritten equities file holds.
+   *
+   * @return cost basis.
+   */
+  private String csvCostBasis() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.createPortfolio(portfolioName);
+    model.buyEquityWithCommission("GOOG", "5", "11/13/2018", portfolioName, "1.00");
+    return model.getPortfolioCostBasis(portfolioName);
+  }
+
+  /**
+   * Get the cost basis of the portfolio retrieved by a new model.
+   *
+   * @return cost basis.
+   */
+  private String retrievedCostBasis() {
+    IRetrievableStrategyTraderModel model = buildModel();
+    model.retrievePortfolio(portfolioName);
+    return model.getPortfolioCostBasis(portfolioName);
+  }
+
+  /**
+   * Build a model over the test prices.
+   *
+   * @return model.
+   */
+  private IRetrievableStrategyTraderModel buildModel() {
+    return StrategyStockTraderModel.getBuilder().priceSource(priceSource).build();
+  }
+
+  /**
+   * Buy a lot with a commission of one dollar.
+   *
+   * @param portfolio    portfolio to buy in.
+   * @param tickerSymbol stock to buy.
+   * @param day          day to buy on.
+   * @param shares       shares to buy.
+   * @param price        unit price.
+   */
+  private static void buy(StockCommissionPortfolio portfolio, String tickerSymbol, LocalDate day,
+                          long shares, String price) {
+    portfolio.buyWithCommission(new USStock(tickerSymbol, new USDPrice(new BigDecimal(price)),
+            new TradeTimeStamp(day), BigInteger.valueOf(shares)),
+            new USDPrice(new BigDecimal("1.00")));
+  }
+
+  /**
+   * Assert the day, fixed-point unit price and shares of a snapshot lot.
+   *
+   * @param snapshot snapshot to check.
+   * @param index    lot index.
+   * @param day      expected day.
+   * @param price    expected fixed-point unit price.
+   * @param shares   expected shares.
+   */
+  private static void assertLot(PortfolioSnapshot snapshot, int index, LocalDate day, long price,
+                                long shares) {
+    assertEquals(day.toEpochDay(), snapshot.buyDay(index));
+    assertEquals(price, snapshot.price(index));
+    assertEquals(shares, snapshot.shares(index));
+  }
+
+  /**
+   * Assert that a snapshot file is rejected when read as the given kind.
+   *
+   * @param path path of the snapshot file.
+   * @param kind kind to read as.
+   */
+  private static void assertRejected(String path, int kind) {
+    try {
+      SnapshotFile.read(path, kind);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.FAILED_LOAD_SNAPSHOT.getMsg(), e.getMessage());
+    }
+  }
+
+  /**
+   * Delete a file or a directory with everything in it.
+   *
+   * @param file file to delete.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
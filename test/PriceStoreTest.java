@@ -0,0 +1,120 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import trader.util.PriceColumn;
+import trader.util.PriceStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Price store tests.
+ */
+public class PriceStoreTest {
+  private File storeDir;
+  private PriceStore priceStore;
+  private PriceColumn column;
+
+  @Before
+  public void setUp() throws IOException {
+    storeDir = Files.createTempDirectory("prices").toFile();
+    priceStore = new PriceStore(new File(storeDir, "Prices").getPath());
+    int firstDay = (int) LocalDate.of(2018, 11, 1).toEpochDay();
+    column = PriceColumn.of(new int[]{firstDay, firstDay + 1, firstDay + 4},
+            new long[]{10500000L, 10250000L, 11000000L}, 3);
+  }
+
+  @After
+  public void tearDown() {
+    delete(storeDir);
+  }
+
+  @Test
+  public void testRoundTrip() {
+    priceStore.write("GOOG", column);
+    PriceColumn read = priceStore.read("GOOG", LocalDate.now().minusDays(1));
+    assertNotNull(read);
+    assertEquals(column.size(), read.size());
+    for (int i = 0; i < column.size(); i++) {
+      assertEquals(column.epochDay(i), read.epochDay(i));
+      assertEquals(column.close(i), read.close(i));
+    }
+  }
+
+  @Test
+  public void testMissingHistoryIsAbsent() {
+    assertNull(priceStore.read("GOOG", LocalDate.now().minusDays(1)));
+  }
+
+  @Test
+  public void testHistoryFetchedOnCoverDateIsReloaded() {
+    priceStore.write("GOOG", column);
+    assertNull(priceStore.read("GOOG", LocalDate.now()));
+    assertNull(priceStore.read("GOOG", LocalDate.now().plusDays(1)));
+  }
+
+  @Test
+  public void testStaleHeaderIsReloaded() throws IOException {
+    priceStore.write("GOOG", column);
+    try (RandomAccessFile file = new RandomAccessFile(storeFile("GOOG"), "rw")) {
+      file.seek(4);
+      file.writeInt(1);
+    }
+    assertNull(priceStore.read("GOOG", LocalDate.now().minusDays(1)));
+    priceStore.write("GOOG", column);
+    assertNotNull(priceStore.read("GOOG", LocalDate.now().minusDays(1)));
+  }
+
+  @Test
+  public void testTruncatedHistoryIsReloaded() throws IOException {
+    priceStore.write("GOOG", column);
+    File storeFile = storeFile("GOOG");
+    try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+      file.setLength(storeFile.length() - 8);
+    }
+    assertNull(priceStore.read("GOOG", LocalDate.now().minusDays(1)));
+  }
+
+  @Test
+  public void testInvalidTickerSymbolNamesNoFile() {
+    priceStore.write("../Escaped", column);
+    assertFalse(new File(storeDir, "Escaped.bin").exists());
+    assertNull(priceStore.read("../Escaped", LocalDate.now().minusDays(1)));
+    priceStore.write("GOOG", column);
+    assertNull(priceStore.read("Prices/GOOG", LocalDate.now().minusDays(1)));
+  }
+
+  /**
+   * Get the price file of a ticker symbol.
+   *
+   * @param tickerSymbol ticker symbol.
+   * @return price file.
+   */
+  private File storeFile(String tickerSymbol) {
+    return new File(new File(storeDir, "Prices"), tickerSymbol + ".bin");
+  }
+
+  /**
+   * Delete a file or a directory with everything in it.
+   *
+   * @param file file to delete.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,160 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import trader.util.MemoryPriceSource;
+import trader.util.StockGenerator;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.equity.USStock;
+import trader.util.portfolio.PortfolioSnapshot;
+import trader.util.portfolio.StockCommissionPortfolio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Commission portfolio save tests: lots bought after the saved ones are appended to the equities
+ * file, and a lot bought before a saved one makes the save rewrite it.
+ */
+public class StockCommissionPortfolioTest {
+  private static final String portfolioName = "AppendTest";
+  private StockGenerator generator;
+  private File saveDir;
+  private File equitiesFile;
+  private File snapshotFile;
+
+  @Before
+  public void setUp() throws IOException {
+    generator = new StockGenerator(new MemoryPriceSource());
+    saveDir = Files.createTempDirectory("portfolios").toFile();
+    equitiesFile = new File(saveDir, portfolioName + "/equities.csv");
+    snapshotFile = new File(saveDir, portfolioName + "/snapshot.bin");
+  }
+
+  @After
+  public void tearDown() {
+    delete(saveDir);
+  }
+
+  @Test
+  public void testLaterLotsAreAppended() throws IOException {
+    StockCommissionPortfolio portfolio = new StockCommissionPortfolio(portfolioName, generator);
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 13), 3);
+    buy(portfolio, "AAPL", LocalDate.of(2018, 11, 14), 2);
+    portfolio.write(saveDir.getPath());
+    List<String> saved = lines(equitiesFile);
+    assertEquals(3, saved.size());
+    assertTrue(snapshotFile.exists());
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 20), 5);
+    portfolio.write(saveDir.getPath());
+    List<String> appended = lines(equitiesFile);
+    assertEquals(saved, appended.subList(0, saved.size()));
+    assertEquals(Collections.singletonList("GOOG,2018-11-20,10,5,1"),
+            appended.subList(saved.size(), appended.size()));
+    assertFalse(snapshotFile.exists());
+  }
+
+  @Test
+  public void testEarlierLotRewrites() throws IOException {
+    StockCommissionPortfolio portfolio = new StockCommissionPortfolio(portfolioName, generator);
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 13), 3);
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 20), 5);
+    portfolio.write(saveDir.getPath());
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 14), 2);
+    portfolio.write(saveDir.getPath());
+    List<String> expected = new ArrayList<>();
+    expected.add("TickerSymbol,TradeTime,UnitPrice,Shares,Commission");
+    expected.add("GOOG,2018-11-13,10,3,1");
+    expected.add("GOOG,2018-11-14,10,2,1");
+    expected.add("GOOG,2018-11-20,10,5,1");
+    assertEquals(expected, lines(equitiesFile));
+    assertTrue(snapshotFile.exists());
+    PortfolioSnapshot snapshot = PortfolioSnapshot.read(snapshotFile.getPath());
+    assertEquals(3, snapshot.lotCount());
+    assertEquals(LocalDate.of(2018, 11, 14).toEpochDay(), snapshot.buyDay(1));
+    assertEquals(2, snapshot.shares(1));
+  }
+
+  @Test
+  public void testAppendedThenRewrittenMatchesFullWrite() throws IOException {
+    StockCommissionPortfolio portfolio = new StockCommissionPortfolio(portfolioName, generator);
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 13), 3);
+    portfolio.write(saveDir.getPath());
+    buy(portfolio, "AAPL", LocalDate.of(2018, 11, 15), 4);
+    portfolio.write(saveDir.getPath());
+    buy(portfolio, "AAPL", LocalDate.of(2018, 11, 14), 1);
+    portfolio.write(saveDir.getPath());
+    List<String> rewritten = lines(equitiesFile);
+    StockCommissionPortfolio whole = new StockCommissionPortfolio(portfolioName, generator);
+    buy(whole, "GOOG", LocalDate.of(2018, 11, 13), 3);
+    buy(whole, "AAPL", LocalDate.of(2018, 11, 15), 4);
+    buy(whole, "AAPL", LocalDate.of(2018, 11, 14), 1);
+    delete(equitiesFile.getParentFile());
+    whole.write(saveDir.getPath());
+    assertEquals(lines(equitiesFile), rewritten);
+  }
+
+  @Test
+  public void testUnchangedPortfolioIsSkipped() throws IOException {
+    StockCommissionPortfolio portfolio = new StockCommissionPortfolio(portfolioName, generator);
+    buy(portfolio, "GOOG", LocalDate.of(2018, 11, 13), 3);
+    portfolio.write(saveDir.getPath());
+    Files.write(equitiesFile.toPath(), "unchanged\n".getBytes(StandardCharsets.UTF_8));
+    portfolio.write(saveDir.getPath());
+    assertEquals(Collections.singletonList("unchanged"), lines(equitiesFile));
+  }
+
+  /**
+   * Buy a lot at ten dollars a share with a commission of one dollar.
+   *
+   * @param portfolio    portfolio to buy in.
+   * @param tickerSymbol stock to buy.
+   * @param day          day to buy on.
+   * @param shares       shares to buy.
+   */
+  private static void buy(StockCommissionPortfolio portfolio, String tickerSymbol, LocalDate day,
+                          long shares) {
+    portfolio.buyWithCommission(new USStock(tickerSymbol, new USDPrice(new BigDecimal("10.00")),
+            new TradeTimeStamp(day), BigInteger.valueOf(shares)),
+            new USDPrice(new BigDecimal("1.00")));
+  }
+
+  /**
+   * Read the lines of a file.
+   *
+   * @param file file to read.
+   * @return lines.
+   * @throws IOException if reading fails.
+   */
+  private static List<String> lines(File file) throws IOException {
+    return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Delete a file or a directory with everything in it.
+   *
+   * @param file file to delete.
+   */
+  private static void delete(File file) {
+    File[] children = file.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        delete(child);
+      }
+    }
+    file.delete();
+  }
+}
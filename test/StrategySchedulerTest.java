@@ -0,0 +1,271 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import trader.ErrorMsg;
+import trader.model.IRetrievableStrategyTraderModel;
+import trader.model.IStrategyTraderModel;
+import trader.model.StrategyScheduler;
+import trader.model.StrategyStockTraderModel;
+import trader.util.MemoryPriceSource;
+import trader.util.StockGenerator;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.account.AccountJournal;
+import trader.util.strategy.DACStockStrategy;
+import trader.util.strategy.FrequencyNode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Strategy scheduler tests, on how the failures of a pass are reported.
+ */
+public class StrategySchedulerTest {
+  private static final long timeoutMillis = 5000;
+  private MemoryPriceSource priceSource;
+  private File journalDir;
+  private String journalPath;
+
+  @Before
+  public void setUp() throws IOException {
+    priceSource = new MemoryPriceSource();
+    for (LocalDate day = LocalDate.now().minusDays(60); day.isBefore(LocalDate.now());
+         day = day.plusDays(1)) {
+      if (day.getDayOfWeek() != DayOfWeek.SATURDAY && day.getDayOfWeek() != DayOfWeek.SUNDAY) {
+        priceSource.putClose("AAA", new TradeTimeStamp(day),
+                new USDPrice(new BigDecimal("10.00")));
+      }
+    }
+    journalDir = Files.createTempDirectory("scheduler").toFile();
+    journalPath = new File(journalDir, "account.journal").getPath();
+  }
+
+  @After
+  public void tearDown() {
+    File[] children = journalDir.listFiles();
+    if (children != null) {
+      for (File child : children) {
+        child.delete();
+      }
+    }
+    journalDir.delete();
+  }
+
+  @Test
+  public void testStrategyFailureIsReported() throws InterruptedException {
+    AccountJournal journal = new AccountJournal(journalPath, new IgnoringReplayer());
+    journal.appendAddPortfolio("p1");
+    journalDueStrategy(journal, "good", "AAA", "p1");
+    journalDueStrategy(journal, "bad", "ZZZ", "p1");
+    journal.commit();
+    IRetrievableStrategyTraderModel model = StrategyStockTraderModel.getBuilder()
+            .priceSource(priceSource).journal(journalPath).build();
+    String costBasis = model.getPortfolioCostBasis("p1");
+    StringBuilder out = new StringBuilder();
+    StrategyScheduler scheduler = new StrategyScheduler(model, 1, TimeUnit.HOURS, out);
+    scheduler.start();
+    try {
+      assertEquals("Strategy bad failed in portfolio p1: "
+              + ErrorMsg.FAIL_CRAW_DATA_INVALID_TICKER_SYMBOL.getMsg() + "\n", awaitReport(out));
+    } finally {
+      scheduler.close();
+    }
+    assertNotEquals(costBasis, model.getPortfolioCostBasis("p1"));
+    assertEquals(Collections.singleton("bad"), model.getStrategyFailures().keySet());
+  }
+
+  @Test
+  public void testEveryFailureIsReportedInOrder() throws InterruptedException {
+    Map<String, Map<String, String>> failures = new LinkedHashMap<>();
+    failures.put("s1", new LinkedHashMap<>());
+    failures.get("s1").put("p1", "first");
+    failures.get("s1").put("p2", "second");
+    failures.put("s2", Collections.singletonMap("p1", "third"));
+    StringBuilder out = new StringBuilder();
+    StrategyScheduler scheduler = new StrategyScheduler(stubModel(() -> 0, failures), 1,
+            TimeUnit.HOURS, out);
+    scheduler.start();
+    try {
+      assertEquals("Strategy s1 failed in portfolio p1: first\n"
+              + "Strategy s1 failed in portfolio p2: second\n"
+              + "Strategy s2 failed in portfolio p1: third\n", awaitReport(out));
+    } finally {
+      scheduler.close();
+    }
+  }
+
+  @Test
+  public void testFailedPassIsReportedAndRetried() throws InterruptedException {
+    CountDownLatch passes = new CountDownLatch(3);
+    IStrategyTraderModel model = stubModel(() -> {
+      passes.countDown();
+      throw new IllegalArgumentException("no prices");
+    }, Collections.emptyMap());
+    StringBuilder out = new StringBuilder();
+    StrategyScheduler scheduler = new StrategyScheduler(model, 10, TimeUnit.MILLISECONDS, out);
+    scheduler.start();
+    try {
+      assertTrue(passes.await(timeoutMillis, TimeUnit.MILLISECONDS));
+    } finally {
+      scheduler.close();
+    }
+    synchronized (out) {
+      assertTrue(out.toString().startsWith("Strategy pass failed: no prices\n"
+              + "Strategy pass failed: no prices\n"));
+    }
+  }
+
+  @Test
+  public void testQuietPassReportsNothing() throws InterruptedException {
+    CountDownLatch passes = new CountDownLatch(3);
+    IStrategyTraderModel model = stubModel(() -> {
+      passes.countDown();
+      return 1;
+    }, Collections.emptyMap());
+    StringBuilder out = new StringBuilder();
+    StrategyScheduler scheduler = new StrategyScheduler(model, 10, TimeUnit.MILLISECONDS, out);
+    scheduler.start();
+    try {
+      assertTrue(passes.await(timeoutMillis, TimeUnit.MILLISECONDS));
+    } finally {
+      scheduler.close();
+    }
+    synchronized (out) {
+      assertEquals("", out.toString());
+    }
+  }
+
+  @Test
+  public void testNonPositivePeriodIsRejected() {
+    IStrategyTraderModel model = stubModel(() -> 0, Collections.emptyMap());
+    try {
+      new StrategyScheduler(model, 0, TimeUnit.MINUTES, new StringBuilder());
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.INVALID_SCHEDULER_PERIOD.getMsg(), e.getMessage());
+    }
+  }
+
+  /**
+   * Journal a weekly strategy investing in one stock, applied to a portfolio and due there
+   * since three weeks ago.
+   *
+   * @param journal          journal to append to.
+   * @param strategyName     strategy name.
+   * @param tickerSymbol     stock to invest in.
+   * @param portfolioNameTag portfolio applied to.
+   */
+  private void journalDueStrategy(AccountJournal journal, String strategyName,
+                                  String tickerSymbol, String portfolioNameTag) {
+    TradeTimeStamp start = new TradeTimeStamp(LocalDate.now().minusWeeks(3));
+    DACStockStrategy strategy = new DACStockStrategy(strategyName,
+            Collections.singletonMap(tickerSymbol, BigDecimal.ONE), start, null,
+            new FrequencyNode('W', 1), new USDPrice(new BigDecimal("100.00")),
+            new USDPrice(new BigDecimal("1.00")), new StockGenerator(priceSource));
+    journal.appendAddStrategy(strategyName, strategy.toCsvRow());
+    journal.appendResumeStrategy(strategyName, portfolioNameTag, (int) start.epochDay());
+  }
+
+  /**
+   * Wait until something is reported to the given output.
+   *
+   * @param out output reported to.
+   * @return what was reported.
+   * @throws InterruptedException if interrupted while waiting.
+   */
+  private static String awaitReport(StringBuilder out) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (System.currentTimeMillis() < deadline) {
+      synchronized (out) {
+        if (out.length() > 0) {
+          return out.toString();
+        }
+      }
+      Thread.sleep(10);
+    }
+    fail();
+    return null;
+  }
+
+  /**
+   * Build a model whose passes run the given pass and report the given failures. Every other
+   * method is unsupported.
+   *
+   * @param pass     pass to run on applyDueStrategies.
+   * @param failures failures reported by getStrategyFailures.
+   * @return model.
+   */
+  private static IStrategyTraderModel stubModel(Pass pass,
+                                                Map<String, Map<String, String>> failures) {
+    return (IStrategyTraderModel) Proxy.newProxyInstance(
+            IStrategyTraderModel.class.getClassLoader(),
+            new Class<?>[]{IStrategyTraderModel.class}, (proxy, method, args) -> {
+              if (method.getName().equals("applyDueStrategies")) {
+                return pass.run();
+              }
+              if (method.getName().equals("getStrategyFailures")) {
+                return failures;
+              }
+              throw new UnsupportedOperationException(method.getName());
+            });
+  }
+
+  /**
+   * Pass of a stub model.
+   */
+  private interface Pass {
+    /**
+     * Run the pass.
+     *
+     * @return number of strategy and portfolio pairs applied.
+     */
+    int run();
+  }
+
+  /**
+   * Replayer of a journal that is only appended to.
+   */
+  private static class IgnoringReplayer implements AccountJournal.Replayer {
+    @Override
+    public void addPortfolio(String portfolioNameTag) {
+    }
+
+    @Override
+    public void addEquity(String portfolioNameTag, String tickerSymbol) {
+    }
+
+    @Override
+    public void buy(String portfolioNameTag, String tickerSymbol, int epochDay, long priceMicros,
+                    long shares, long commissionMicros) {
+    }
+
+    @Override
+    public void addStrategy(String strategyNameTag, String strategyRow) {
+    }
+
+    @Override
+    public void resumeStrategy(String strategyNameTag, String portfolioNameTag,
+                               int nextInvestmentDay) {
+    }
+
+    @Override
+    public void savePortfolio(String portfolioNameTag) {
+    }
+  }
+}
@@ -0,0 +1,154 @@
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import trader.ErrorMsg;
+import trader.util.EquityGenerator;
+import trader.util.MemoryPriceSource;
+import trader.util.StockGenerator;
+import trader.util.TradeTimeStamp;
+import trader.util.USDPrice;
+import trader.util.strategy.DACBacktest;
+import trader.util.strategy.FrequencyNode;
+import trader.util.strategy.StrategySweep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Strategy sweep tests, against running each combination as a backtest of its own.
+ */
+public class StrategySweepTest {
+  private static final TradeTimeStamp startTime = new TradeTimeStamp(LocalDate.of(2018, 10, 1));
+  private static final TradeTimeStamp endTime = new TradeTimeStamp(LocalDate.of(2019, 3, 29));
+  private EquityGenerator generator;
+  private Map<String, BigDecimal> rising;
+  private Map<String, BigDecimal> falling;
+  private Map<String, BigDecimal> mixed;
+  private List<USDPrice> capitals;
+  private List<USDPrice> commissions;
+  private List<FrequencyNode> frequencies;
+
+  @Before
+  public void setUp() {
+    MemoryPriceSource priceSource = new MemoryPriceSource();
+    int day = 0;
+    for (LocalDate date = LocalDate.of(2018, 9, 3); !date.isAfter(LocalDate.of(2019, 4, 30));
+         date = date.plusDays(1)) {
+      if (date.getDayOfWeek() == DayOfWeek.SATURDAY || date.getDayOfWeek() == DayOfWeek.SUNDAY) {
+        continue;
+      }
+      BigDecimal move = new BigDecimal("0.10").multiply(BigDecimal.valueOf(day));
+      priceSource.putClose("AAA", new TradeTimeStamp(date),
+              new USDPrice(new BigDecimal("10.00").add(move)));
+      priceSource.putClose("BBB", new TradeTimeStamp(date),
+              new USDPrice(new BigDecimal("50.00").subtract(move)));
+      day++;
+    }
+    generator = new StockGenerator(priceSource);
+    rising = Collections.singletonMap("AAA", BigDecimal.ONE);
+    falling = Collections.singletonMap("BBB", BigDecimal.ONE);
+    mixed = new LinkedHashMap<>();
+    mixed.put("AAA", new BigDecimal("0.5"));
+    mixed.put("BBB", new BigDecimal("0.5"));
+    capitals = Arrays.asList(price("100.00"), price("1000.00"));
+    commissions = Arrays.asList(price("0.00"), price("5.00"));
+    frequencies = Arrays.asList(new FrequencyNode('W', 1), new FrequencyNode('W', 2));
+  }
+
+  @Test
+  public void testResultsAreRankedByNetGain() {
+    StrategySweep sweep = StrategySweep.run(generator, Arrays.asList(mixed, falling, rising),
+            capitals, commissions, frequencies, startTime, endTime);
+    List<StrategySweep.Result> results = sweep.getResults();
+    assertEquals(24, results.size());
+    long previous = Long.MAX_VALUE;
+    for (StrategySweep.Result result : results) {
+      long netGain = netGainMicros(result);
+      assertTrue(netGain <= previous);
+      previous = netGain;
+    }
+    StrategySweep.Result best = results.get(0);
+    assertEquals(rising, best.getWeightedStocks());
+    assertSame(capitals.get(1), best.getCapitalPerInvestment());
+    assertSame(commissions.get(0), best.getCommission());
+    assertSame(frequencies.get(0), best.getFrequencyNode());
+    StrategySweep.Result worst = results.get(results.size() - 1);
+    assertEquals(falling, worst.getWeightedStocks());
+    assertSame(capitals.get(1), worst.getCapitalPerInvestment());
+    assertSame(commissions.get(1), worst.getCommission());
+    assertSame(frequencies.get(0), worst.getFrequencyNode());
+  }
+
+  @Test
+  public void testResultsMatchSingleBacktests() {
+    StrategySweep sweep = StrategySweep.run(generator, Arrays.asList(mixed, falling, rising),
+            capitals, commissions, frequencies, startTime, endTime);
+    for (StrategySweep.Result result : sweep.getResults()) {
+      DACBacktest backtest = DACBacktest.run(generator, result.getWeightedStocks(),
+              result.getCapitalPerInvestment(), result.getCommission(), startTime, endTime,
+              result.getFrequencyNode());
+      assertEquals(backtest.valueMicros(), result.getValue().getMoney().micros());
+      assertEquals(backtest.costMicros(), result.getCost().getMoney().micros());
+      assertEquals(backtest.commissionCostMicros(),
+              result.getCommissionCost().getMoney().micros());
+    }
+  }
+
+  @Test
+  public void testTiesKeepGridOrder() {
+    USDPrice first = price("100.00");
+    USDPrice second = price("100.00");
+    List<StrategySweep.Result> results = StrategySweep.run(generator,
+            Collections.singletonList(rising), Arrays.asList(first, second),
+            Collections.singletonList(price("1.00")),
+            Collections.singletonList(new FrequencyNode('W', 1)), startTime, endTime)
+            .getResults();
+    assertEquals(netGainMicros(results.get(0)), netGainMicros(results.get(1)));
+    assertSame(first, results.get(0).getCapitalPerInvestment());
+    assertSame(second, results.get(1).getCapitalPerInvestment());
+  }
+
+  @Test
+  public void testEmptyGridIsRejected() {
+    try {
+      StrategySweep.run(generator, Collections.singletonList(rising), new ArrayList<>(),
+              commissions, frequencies, startTime, endTime);
+      fail();
+    } catch (IllegalArgumentException e) {
+      assertEquals(ErrorMsg.EMPTY_INPUT.getMsg(), e.getMessage());
+    }
+  }
+
+  /**
+   * Get the net gain of a result: its final value less its cost basis and commissions.
+   *
+   * @param result sweep result.
+   * @return fixed-point net gain.
+   */
+  private static long netGainMicros(StrategySweep.Result result) {
+    return result.getValue().getMoney().micros() - result.getCost().getMoney().micros()
+            - result.getCommissionCost().getMoney().micros();
+  }
+
+  /**
+   * Get a price of the given amount.
+   *
+   * @param amount amount.
+   * @return price.
+   */
+  private static USDPrice price(String amount) {
+    return new USDPrice(new BigDecimal(amount));
+  }
+}